@@ -52,6 +52,9 @@ android {
 }
 
 dependencies {
+    // Catalog model, codecs, search and sales aggregation; plain Java, benchmarked with JMH
+    implementation(project(":core"))
+
     implementation(libs.appcompat)
     implementation(libs.material)
     implementation(libs.constraintlayout)
@@ -65,6 +68,8 @@ dependencies {
     implementation(libs.google.signin)
 
     implementation("com.github.bumptech.glide:glide:4.16.0")
+    // Generates the app module glue for image.BookHiveGlideModule
+    annotationProcessor("com.github.bumptech.glide:compiler:4.16.0")
 
     // Razorpay Checkout SDK
     implementation("com.razorpay:checkout:1.6.33")
@@ -11,15 +11,13 @@ import android.widget.ImageView;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
-import com.bumptech.glide.Glide;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
+import com.svvaap.bookhive.image.CoverLoader;
 import com.google.firebase.auth.FirebaseAuth;
 import com.google.firebase.auth.FirebaseUser;
 import androidx.navigation.Navigation;
+import com.svvaap.bookhive.data.BookHiveDataSource;
+import com.svvaap.bookhive.data.DataSources;
+import com.svvaap.bookhive.data.EntitlementService;
 
 public class BookDetailFragment extends Fragment {
     private String bookId;
@@ -31,6 +29,7 @@ public class BookDetailFragment extends Fragment {
     private Button addToCartButton;
     private Button buyNowButton;
     private ProgressBar readingProgressBar;
+    private EntitlementService.Listener entitlementListener;
 
     @Nullable
     @Override
@@ -55,6 +54,8 @@ public class BookDetailFragment extends Fragment {
             bookId = getArguments().getString("bookId");
             if (bookId != null) {
                 fetchBookDetails();
+                // Ownership does not depend on the book node, so show it without waiting for it
+                updatePurchaseStatus();
             } else {
                 // Optionally show an error message or handle gracefully
                 titleView.setText("Error: Book ID not found");
@@ -71,12 +72,20 @@ public class BookDetailFragment extends Fragment {
         return view;
     }
 
+    @Override
+    public void onDestroyView() {
+        super.onDestroyView();
+        if (entitlementListener != null) {
+            EntitlementService.getInstance(requireContext()).removeListener(entitlementListener);
+            entitlementListener = null;
+        }
+    }
+
     private void fetchBookDetails() {
-        DatabaseReference dbRef = FirebaseDatabase.getInstance().getReference("ebooks").child(bookId);
-        dbRef.addListenerForSingleValueEvent(new ValueEventListener() {
+        DataSources.get().get(BookHiveDataSource.book(bookId), new BookHiveDataSource.ValueListener() {
             @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                book = safeMapToBook(snapshot);
+            public void onValue(Object value) {
+                book = BookCodec.decode(bookId, value);
                 if (book != null) {
                     titleView.setText("Title : " +book.title);
                     authorView.setText("Author : " +book.author);
@@ -85,47 +94,43 @@ public class BookDetailFragment extends Fragment {
                     languageView.setText(book.language != null ? ("language : " +book.language ): "");
                     uploadDateView.setText(book.uploadDate != null ? ("Uploaded: " + book.uploadDate) : "");
                     priceView.setText(String.format(java.util.Locale.getDefault(), "Price: ₹%.2f", book.price));
-                    Glide.with(coverView.getContext())
-                        .load(book.coverImageUrl)
-                        .placeholder(R.drawable.sample_book_cover)
-                        .into(coverView);
+                    CoverLoader.load(coverView, book.coverImageUrl);
 //                     For demo, set progress to 0
                     progressView.setText("Progress: 0%");
                     readingProgressBar.setProgress(0);
-                    updatePurchaseStatus();
                 }
             }
             @Override
-            public void onCancelled(@NonNull DatabaseError error) {}
+            public void onError(Exception error) {}
         });
     }
 
     private void updatePurchaseStatus() {
-        FirebaseUser user = FirebaseAuth.getInstance().getCurrentUser();
-        if (user == null) {
+        EntitlementService entitlements = EntitlementService.getInstance(requireContext());
+        if (!entitlements.isSignedIn()) {
             purchaseStatusView.setText("Not purchased (login required)");
             purchaseStatusView.setTextColor(0xFFE53935);
             toggleActionsForPurchased(false);
             return;
         }
-        DatabaseReference purchasesRef = FirebaseDatabase.getInstance().getReference("purchases")
-            .child(user.getUid()).child(bookId == null ? "" : bookId);
-        purchasesRef.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                boolean purchased = snapshot.exists();
-                if (purchased) {
-                    purchaseStatusView.setText("Purchased");
-                    purchaseStatusView.setTextColor(0xFF388E3C);
-                } else {
-                    purchaseStatusView.setText("Not purchased");
-                    purchaseStatusView.setTextColor(0xFFE53935);
-                }
-                toggleActionsForPurchased(purchased);
-            }
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {}
-        });
+        // Answered from the in-memory set; the listener flips it when a purchase lands
+        if (entitlementListener == null) {
+            entitlementListener = owned -> showPurchased(owned.contains(bookId));
+            entitlements.addListener(entitlementListener);
+        } else {
+            showPurchased(entitlements.isOwned(bookId));
+        }
+    }
+
+    private void showPurchased(boolean purchased) {
+        if (purchased) {
+            purchaseStatusView.setText("Purchased");
+            purchaseStatusView.setTextColor(0xFF388E3C);
+        } else {
+            purchaseStatusView.setText("Not purchased");
+            purchaseStatusView.setTextColor(0xFFE53935);
+        }
+        toggleActionsForPurchased(purchased);
     }
 
     private void toggleActionsForPurchased(boolean purchased) {
@@ -143,13 +148,11 @@ public class BookDetailFragment extends Fragment {
             try { Navigation.findNavController(requireActivity(), R.id.nav_host_fragment_content_main).navigate(R.id.LoginFragment); } catch (Exception ignored) {}
             return;
         }
-        DatabaseReference cartRef = FirebaseDatabase.getInstance().getReference("carts")
-                .child(user.getUid()).child(bookId);
         java.util.Map<String, Object> item = new java.util.HashMap<>();
         item.put("title", book != null ? book.title : "");
         item.put("price", book != null ? book.price : 0);
-        cartRef.setValue(item).addOnCompleteListener(t -> {
-            android.widget.Toast.makeText(getContext(), t.isSuccessful() ? "Added to cart" : "Failed to add to cart", android.widget.Toast.LENGTH_SHORT).show();
+        DataSources.get().set(BookHiveDataSource.cart(user.getUid()) + "/" + bookId, item, error -> {
+            android.widget.Toast.makeText(getContext(), error == null ? "Added to cart" : "Failed to add to cart", android.widget.Toast.LENGTH_SHORT).show();
         });
     }
 
@@ -177,34 +180,4 @@ public class BookDetailFragment extends Fragment {
         androidx.navigation.fragment.NavHostFragment.findNavController(this)
             .navigate(R.id.BookReadViewFragment, bundle);
     }
-
-    private Book safeMapToBook(DataSnapshot snap) {
-        Object raw = snap.getValue();
-        if (!(raw instanceof java.util.Map)) return snap.getValue(Book.class);
-        java.util.Map map = (java.util.Map) raw;
-        Book b = new Book();
-        b.title = asString(map.get("title"));
-        b.author = asString(map.get("author"));
-        b.category = asString(map.get("category"));
-        b.language = asString(map.get("language"));
-        b.description = asString(map.get("description"));
-        b.coverImageUrl = asString(map.get("coverImageUrl"));
-        b.fileUrl = asString(map.get("fileUrl"));
-        b.visibility = asString(map.get("visibility"));
-        b.uploadDate = asString(map.get("uploadDate"));
-        b.price = asDouble(map.get("price"));
-        return b;
-    }
-
-    private String asString(Object v) {
-        return v == null ? null : String.valueOf(v);
-    }
-
-    private double asDouble(Object v) {
-        if (v instanceof Number) return ((Number) v).doubleValue();
-        if (v instanceof String) {
-            try { return Double.parseDouble((String) v); } catch (Exception ignored) {}
-        }
-        return 0d;
-    }
-} 
\ No newline at end of file
+}
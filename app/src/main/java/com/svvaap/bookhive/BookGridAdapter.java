@@ -0,0 +1,144 @@
+package com.svvaap.bookhive;
+
+import android.app.Activity;
+import android.content.Context;
+import android.content.ContextWrapper;
+import android.view.LayoutInflater;
+import android.view.ViewGroup;
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.ListAdapter;
+import androidx.recyclerview.widget.RecyclerView;
+import com.svvaap.bookhive.databinding.ItemBookBinding;
+import com.svvaap.bookhive.image.CoverLoader;
+import com.svvaap.bookhive.image.CoverPreloader;
+import java.lang.ref.WeakReference;
+
+/**
+ * The book cell (cover, title, author) shown by Home, Search and Catalogue, as a grid or a list.
+ *
+ * <p>Every instance draws its view holders from one shared {@link RecyclerView.RecycledViewPool},
+ * and lists attached through {@link #attachTo} hand their cells back to it when their fragment's
+ * view goes away, so moving between those screens rebinds cells that were already inflated.
+ * Cells hold their activity's context, so the pool only serves one activity at a time and is
+ * emptied when another one asks for it.
+ *
+ * <p>Attached lists also {@link CoverPreloader preload} the covers of the rows ahead of a scroll.
+ */
+public class BookGridAdapter extends ListAdapter<Book, BookGridAdapter.BookViewHolder>
+        implements CoverPreloader.Covers {
+    /** The one view type, shared by every instance so pooled cells are interchangeable. */
+    static final int VIEW_TYPE_BOOK = R.layout.item_book;
+    // About two screens of the densest grid (Home, three columns)
+    private static final int POOLED_CELLS = 24;
+
+    private static RecyclerView.RecycledViewPool sharedPool;
+    private static WeakReference<Activity> poolOwner = new WeakReference<>(null);
+
+    public interface OnBookClickListener {
+        void onBookClick(Book book);
+    }
+
+    private final OnBookClickListener clickListener;
+    private int initialPrefetchItemCount;
+
+    public BookGridAdapter(OnBookClickListener clickListener) {
+        super(KeyedDiff.BOOKS);
+        setHasStableIds(true);
+        this.clickListener = clickListener;
+    }
+
+    /**
+     * Cells laid out ahead of time when {@code list} is nested in another scrolling list, where
+     * the layout manager cannot work out on its own how many will come into view at once.
+     * Applies to lists attached afterwards.
+     */
+    public BookGridAdapter setInitialPrefetchItemCount(int count) {
+        initialPrefetchItemCount = count;
+        return this;
+    }
+
+    /** Shows this adapter in {@code list}: a grid of {@code spanCount} columns, or a list when 1. */
+    public void attachTo(RecyclerView list, int spanCount) {
+        LinearLayoutManager layout = spanCount > 1
+                ? new GridLayoutManager(list.getContext(), spanCount)
+                : new LinearLayoutManager(list.getContext());
+        // Return cells to the shared pool when the fragment's view is detached
+        layout.setRecycleChildrenOnDetach(true);
+        if (initialPrefetchItemCount > 0) layout.setInitialPrefetchItemCount(initialPrefetchItemCount);
+        list.setLayoutManager(layout);
+        list.setRecycledViewPool(sharedPool(list.getContext()));
+        list.setAdapter(this);
+        CoverPreloader.attach(list, this, R.id.book_cover);
+    }
+
+    /** The pool of book cells for {@code context}'s activity. Main thread only. */
+    static RecyclerView.RecycledViewPool sharedPool(Context context) {
+        Activity activity = activity(context);
+        if (sharedPool == null || poolOwner.get() != activity) {
+            // Cells inflated for another activity must not outlive it here
+            if (sharedPool != null) sharedPool.clear();
+            sharedPool = new RecyclerView.RecycledViewPool();
+            sharedPool.setMaxRecycledViews(VIEW_TYPE_BOOK, POOLED_CELLS);
+            poolOwner = new WeakReference<>(activity);
+        }
+        return sharedPool;
+    }
+
+    private static Activity activity(Context context) {
+        while (context instanceof ContextWrapper) {
+            if (context instanceof Activity) return (Activity) context;
+            context = ((ContextWrapper) context).getBaseContext();
+        }
+        return null;
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return KeyedDiff.BOOKS.stableId(getItem(position));
+    }
+
+    @Override
+    public String coverUrl(int position) {
+        return position < getItemCount() ? getItem(position).coverImageUrl : null;
+    }
+
+    @Override
+    public int getItemViewType(int position) {
+        return VIEW_TYPE_BOOK;
+    }
+
+    @NonNull
+    @Override
+    public BookViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
+        ItemBookBinding b = ItemBookBinding.inflate(LayoutInflater.from(parent.getContext()), parent, false);
+        return new BookViewHolder(b);
+    }
+
+    @Override
+    public void onBindViewHolder(@NonNull BookViewHolder holder, int position) {
+        Book book = getItem(position);
+        holder.binding.bookTitle.setText(book.title);
+        holder.binding.bookAuthor.setText(book.author);
+        CoverLoader.load(holder.binding.bookCover, book.coverImageUrl);
+        // Set on every bind: a pooled cell may have been created by another screen's adapter
+        holder.itemView.setOnClickListener(v -> clickListener.onBookClick(book));
+    }
+
+    @Override
+    public void onViewRecycled(@NonNull BookViewHolder holder) {
+        // A pooled cell should not keep a cover, or a pending load, for a book it no longer shows
+        CoverLoader.clear(holder.binding.bookCover);
+        holder.itemView.setOnClickListener(null);
+    }
+
+    public static class BookViewHolder extends RecyclerView.ViewHolder {
+        final ItemBookBinding binding;
+
+        BookViewHolder(ItemBookBinding b) {
+            super(b.getRoot());
+            binding = b;
+        }
+    }
+}
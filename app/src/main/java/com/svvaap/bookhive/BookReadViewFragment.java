@@ -12,11 +12,8 @@ import androidx.annotation.NonNull;
 import androidx.fragment.app.Fragment;
 
 import com.svvaap.bookhive.databinding.FragmentBookReadViewBinding;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
+import com.svvaap.bookhive.data.BookHiveDataSource;
+import com.svvaap.bookhive.data.DataSources;
 
 public class BookReadViewFragment extends Fragment {
 
@@ -44,11 +41,10 @@ public class BookReadViewFragment extends Fragment {
             showNotAvailableError();
             return;
         }
-        DatabaseReference dbRef = FirebaseDatabase.getInstance().getReference("ebooks").child(bookId);
-        dbRef.addListenerForSingleValueEvent(new ValueEventListener() {
+        DataSources.get().get(BookHiveDataSource.book(bookId), new BookHiveDataSource.ValueListener() {
             @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                Book book = safeMapToBook(snapshot);
+            public void onValue(Object value) {
+                Book book = BookCodec.decode(bookId, value);
                 if (book == null || book.fileUrl == null || book.fileUrl.isEmpty()) {
                     showNotAvailableError();
                     return;
@@ -56,7 +52,7 @@ public class BookReadViewFragment extends Fragment {
                 openInWebView(book.fileUrl);
             }
             @Override
-            public void onCancelled(@NonNull DatabaseError error) {
+            public void onError(Exception error) {
                 showNotAvailableError();
             }
         });
@@ -90,34 +86,4 @@ public class BookReadViewFragment extends Fragment {
         binding.textviewBookReadView.setTextColor(0xFFE53935);
         binding.textviewBookReadView.setBackgroundColor(0xFFFFEBEE);
     }
-
-    private Book safeMapToBook(DataSnapshot snap) {
-        Object raw = snap.getValue();
-        if (!(raw instanceof java.util.Map)) return snap.getValue(Book.class);
-        java.util.Map map = (java.util.Map) raw;
-        Book b = new Book();
-        b.title = asString(map.get("title"));
-        b.author = asString(map.get("author"));
-        b.category = asString(map.get("category"));
-        b.language = asString(map.get("language"));
-        b.description = asString(map.get("description"));
-        b.coverImageUrl = asString(map.get("coverImageUrl"));
-        b.fileUrl = asString(map.get("fileUrl"));
-        b.visibility = asString(map.get("visibility"));
-        b.uploadDate = asString(map.get("uploadDate"));
-        b.price = asDouble(map.get("price"));
-        return b;
-    }
-
-    private String asString(Object v) {
-        return v == null ? null : String.valueOf(v);
-    }
-
-    private double asDouble(Object v) {
-        if (v instanceof Number) return ((Number) v).doubleValue();
-        if (v instanceof String) {
-            try { return Double.parseDouble((String) v); } catch (Exception ignored) {}
-        }
-        return 0d;
-    }
-} 
\ No newline at end of file
+}
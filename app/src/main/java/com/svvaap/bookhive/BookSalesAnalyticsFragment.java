@@ -7,26 +7,21 @@ import android.view.ViewGroup;
 import androidx.annotation.NonNull;
 import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.svvaap.bookhive.databinding.FragmentBookSalesAnalyticsBinding;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
-import java.util.ArrayList;
+import com.svvaap.bookhive.data.BookHiveDataSource;
+import com.svvaap.bookhive.data.DataSources;
+import com.svvaap.bookhive.data.SnapshotProcessor;
+import com.svvaap.bookhive.sales.SalesReport;
+import com.svvaap.bookhive.sales.SalesReport.BookSale;
 import java.util.List;
-import java.util.Collections;
-import java.util.Comparator;
 import android.widget.TextView;
 
 public class BookSalesAnalyticsFragment extends Fragment {
     private FragmentBookSalesAnalyticsBinding binding;
-    private List<BookSale> bookSales = new ArrayList<>();
     private BookSaleAdapter adapter;
-    private DatabaseReference ordersRef;
-    private DatabaseReference booksRef;
-    private ValueEventListener ordersListener;
+    private BookHiveDataSource.Registration ordersRegistration;
 
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
@@ -37,138 +32,72 @@ public class BookSalesAnalyticsFragment extends Fragment {
     }
 
     private void setupRecyclerView() {
-        adapter = new BookSaleAdapter(bookSales);
+        adapter = new BookSaleAdapter();
         binding.salesRecyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
         binding.salesRecyclerView.setAdapter(adapter);
     }
 
     private void fetchSalesData() {
-        ordersRef = FirebaseDatabase.getInstance().getReference("orders");
-        booksRef = FirebaseDatabase.getInstance().getReference("ebooks");
-
-        ordersListener = new ValueEventListener() {
+        // The orders are grouped into the report on a worker; only the finished report lands here
+        ordersRegistration = DataSources.processor().observe(DataSources.get(), BookHiveDataSource.ORDERS,
+                SalesReport::decode, new SnapshotProcessor.Listener<SalesReport>() {
             @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                bookSales.clear();
-                double totalRevenue = 0;
-                int totalOrders = 0;
-
-                for (DataSnapshot orderSnap : snapshot.getChildren()) {
-                    Order order = safeMapToOrder(orderSnap);
-                    if (order != null && order.status != null && "completed".equalsIgnoreCase(order.status)) {
-                        totalRevenue += order.bookPrice;
-                        totalOrders++;
-
-                        // Find book details
-                        BookSale bookSale = new BookSale();
-                        bookSale.bookId = order.bookId;
-                        bookSale.bookTitle = order.bookTitle;
-                        bookSale.bookAuthor = order.bookAuthor;
-                        bookSale.salesCount = 1;
-                        bookSale.revenue = order.bookPrice;
-
-                        // Check if book already exists in list
-                        boolean found = false;
-                        for (BookSale existing : bookSales) {
-                            if (existing.bookId != null && existing.bookId.equals(order.bookId)) {
-                                existing.salesCount++;
-                                existing.revenue += order.bookPrice;
-                                found = true;
-                                break;
-                            }
-                        }
-
-                        if (!found) {
-                            bookSales.add(bookSale);
-                        }
-                    }
-                }
-
-                // Sort by revenue (highest first)
-                Collections.sort(bookSales, (a, b) -> Double.compare(b.revenue, a.revenue));
+            public void onResult(SalesReport report) {
+                if (binding == null) return;
+                List<BookSale> bookSales = report.books;
 
                 // Update UI
-                binding.totalRevenueText.setText("₹" + String.format("%.2f", totalRevenue));
-                binding.totalOrdersText.setText(String.valueOf(totalOrders));
+                binding.totalRevenueText.setText("₹" + String.format("%.2f", report.totalRevenue));
+                binding.totalOrdersText.setText(String.valueOf(report.totalOrders));
                 binding.topBooksText.setText("Top " + Math.min(bookSales.size(), 5) + " Books");
 
-                adapter.notifyDataSetChanged();
+                adapter.submitList(bookSales);
                 binding.noDataText.setVisibility(bookSales.isEmpty() ? View.VISIBLE : View.GONE);
             }
 
             @Override
-            public void onCancelled(@NonNull DatabaseError error) {
+            public void onError(Exception error) {
                 // Handle error
             }
-        };
-        ordersRef.addValueEventListener(ordersListener);
+        });
     }
 
     @Override
     public void onDestroyView() {
         super.onDestroyView();
-        if (ordersRef != null && ordersListener != null) {
-            ordersRef.removeEventListener(ordersListener);
+        if (ordersRegistration != null) {
+            ordersRegistration.remove();
+            ordersRegistration = null;
         }
         binding = null;
     }
 
-    // BookSale data model
-    public static class BookSale {
-        public String bookId;
-        public String bookTitle;
-        public String bookAuthor;
-        public int salesCount;
-        public double revenue;
-        public String category;
-
-        public BookSale() {}
-    }
-
-    // Order data model (for internal use)
-    private static class Order {
-        public String bookId;
-        public String bookTitle;
-        public String bookAuthor;
-        public double bookPrice;
-        public String status;
-
-        public Order() {}
-    }
-
-    // Defensive mapping for orders (price may be stored as string)
-    private Order safeMapToOrder(DataSnapshot snap) {
-        if (snap == null) return null;
-        Object raw = snap.getValue();
-        if (!(raw instanceof java.util.Map)) {
-            try { return snap.getValue(Order.class); } catch (Exception e) { return null; }
+    private static final KeyedDiff<BookSale> SALE_DIFF = new KeyedDiff<BookSale>() {
+        @Override
+        protected String key(BookSale sale) {
+            return sale.bookId;
         }
-        java.util.Map map = (java.util.Map) raw;
-        Order o = new Order();
-        o.bookId = asString(map.get("bookId"));
-        o.bookTitle = asString(map.get("bookTitle"));
-        o.bookAuthor = asString(map.get("bookAuthor"));
-        o.status = asString(map.get("status"));
-        o.bookPrice = asDouble(map.get("bookPrice"));
-        return o;
-    }
 
-    private String asString(Object v) { return v == null ? null : String.valueOf(v); }
-    private double asDouble(Object v) {
-        if (v == null) return 0d;
-        if (v instanceof Number) return ((Number)v).doubleValue();
-        if (v instanceof String) {
-            try { return Double.parseDouble(((String)v).trim()); } catch (Exception ignored) {}
+        @Override
+        public boolean areContentsTheSame(@NonNull BookSale a, @NonNull BookSale b) {
+            return a.rank == b.rank
+                    && a.salesCount == b.salesCount
+                    && a.revenue == b.revenue
+                    && equal(a.bookTitle, b.bookTitle)
+                    && equal(a.bookAuthor, b.bookAuthor);
         }
-        return 0d;
-    }
+    };
 
     // BookSale adapter
-    private class BookSaleAdapter extends RecyclerView.Adapter<BookSaleAdapter.BookSaleViewHolder> {
-        private List<BookSale> saleList;
+    private class BookSaleAdapter extends ListAdapter<BookSale, BookSaleAdapter.BookSaleViewHolder> {
+        BookSaleAdapter() {
+            super(SALE_DIFF);
+            setHasStableIds(true);
+        }
 
-        public BookSaleAdapter(List<BookSale> saleList) {
-            this.saleList = saleList;
+        @Override
+        public long getItemId(int position) {
+            return SALE_DIFF.stableId(getItem(position));
         }
 
         @NonNull
@@ -180,13 +109,8 @@ public class BookSalesAnalyticsFragment extends Fragment {
 
         @Override
         public void onBindViewHolder(@NonNull BookSaleViewHolder holder, int position) {
-            BookSale bookSale = saleList.get(position);
-            holder.bind(bookSale, position + 1);
-        }
-
-        @Override
-        public int getItemCount() {
-            return saleList.size();
+            BookSale bookSale = getItem(position);
+            holder.bind(bookSale, bookSale.rank);
         }
 
         class BookSaleViewHolder extends RecyclerView.ViewHolder {
@@ -6,21 +6,28 @@ import android.view.ViewGroup;
 import android.widget.Button;
 import android.widget.TextView;
 import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import java.util.List;
 
-public class BooksManageAdapter extends RecyclerView.Adapter<BooksManageAdapter.BookViewHolder> {
+public class BooksManageAdapter extends ListAdapter<Book, BooksManageAdapter.BookViewHolder> {
     public interface BookActionListener {
         void onEdit(Book book);
         void onDelete(Book book);
     }
 
-    private List<Book> books;
     private BookActionListener listener;
 
     public BooksManageAdapter(List<Book> books, BookActionListener listener) {
-        this.books = books;
+        super(KeyedDiff.BOOKS);
+        setHasStableIds(true);
         this.listener = listener;
+        submitList(books);
+    }
+
+    @Override
+    public long getItemId(int position) {
+        return KeyedDiff.BOOKS.stableId(getItem(position));
     }
 
     @NonNull
@@ -32,7 +39,7 @@ public class BooksManageAdapter extends RecyclerView.Adapter<BooksManageAdapter.
 
     @Override
     public void onBindViewHolder(@NonNull BookViewHolder holder, int position) {
-        Book book = books.get(position);
+        Book book = getItem(position);
         holder.textTitle.setText(book.title);
         holder.textAuthor.setText(book.author);
         holder.textPrice.setText("₹" + book.price);
@@ -40,14 +47,9 @@ public class BooksManageAdapter extends RecyclerView.Adapter<BooksManageAdapter.
         holder.buttonDelete.setOnClickListener(v -> listener.onDelete(book));
     }
 
-    @Override
-    public int getItemCount() {
-        return books.size();
-    }
-
+    /** Diffs {@code books} against the shown list off the main thread; pass a new list each time. */
     public void setBooks(List<Book> books) {
-        this.books = books;
-        notifyDataSetChanged();
+        submitList(books);
     }
 
     static class BookViewHolder extends RecyclerView.ViewHolder {
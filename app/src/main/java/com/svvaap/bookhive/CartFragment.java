@@ -1,28 +1,29 @@
 package com.svvaap.bookhive;
 
 import android.os.Bundle;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import androidx.annotation.NonNull;
 import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.ListAdapter;
 
-import com.bumptech.glide.Glide;
+import com.svvaap.bookhive.image.CoverLoader;
 import com.svvaap.bookhive.databinding.FragmentCartBinding;
 import com.svvaap.bookhive.databinding.ItemCartBookBinding;
+import com.svvaap.bookhive.data.BookHiveDataSource;
+import com.svvaap.bookhive.data.DataSources;
 import java.util.ArrayList;
 import java.util.List;
-import com.google.firebase.database.*;
+import java.util.Map;
 import com.google.firebase.auth.FirebaseAuth;
 
 public class CartFragment extends Fragment {
     private FragmentCartBinding binding;
     private BookAdapter adapter;
     private List<Book> cartBooks;
-    private DatabaseReference cartRef;
-    private ValueEventListener cartListener;
+    private BookHiveDataSource.Registration cartRegistration;
 
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
@@ -35,7 +36,7 @@ public class CartFragment extends Fragment {
 
     private void observeCart() {
         cartBooks = new ArrayList<>();
-        adapter.update(cartBooks);
+        adapter.submitList(cartBooks);
 
         String uid = FirebaseAuth.getInstance().getCurrentUser() != null
                 ? FirebaseAuth.getInstance().getCurrentUser().getUid()
@@ -49,23 +50,26 @@ public class CartFragment extends Fragment {
             return;
         }
 
-        cartRef = FirebaseDatabase.getInstance().getReference("carts").child(uid);
-        cartListener = new ValueEventListener() {
+        cartRegistration = DataSources.get().observe(BookHiveDataSource.cart(uid), new BookHiveDataSource.ValueListener() {
             @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
+            public void onValue(Object value) {
                 if (binding == null) return;
 
-                cartBooks.clear();
+                // A fresh list each time: the adapter diffs the previous one in the background
+                cartBooks = new ArrayList<>();
                 double total = 0.0;
 
-                for (DataSnapshot snap : snapshot.getChildren()) {
-                    String id = snap.getKey();
-                    String title = String.valueOf(snap.child("title").getValue());
-                    String author = String.valueOf(snap.child("author").getValue());
-                    String coverImageUrl = String.valueOf(snap.child("coverImageUrl").getValue());
+                Map<?, ?> items = value instanceof Map ? (Map<?, ?>) value : java.util.Collections.emptyMap();
+                for (Map.Entry<?, ?> e : items.entrySet()) {
+                    if (!(e.getValue() instanceof Map)) continue;
+                    Map<?, ?> item = (Map<?, ?>) e.getValue();
+                    String id = (String) e.getKey();
+                    String title = String.valueOf(item.get("title"));
+                    String author = String.valueOf(item.get("author"));
+                    String coverImageUrl = String.valueOf(item.get("coverImageUrl"));
 
                     double price = 0.0;
-                    Object priceObj = snap.child("price").getValue();
+                    Object priceObj = item.get("price");
                     if (priceObj instanceof Number) price = ((Number) priceObj).doubleValue();
 
                     total += price;
@@ -73,7 +77,7 @@ public class CartFragment extends Fragment {
                     cartBooks.add(new Book(id, title, author, price, coverImageUrl));
                 }
 
-                adapter.update(cartBooks);
+                adapter.submitList(cartBooks);
 
                 if (binding != null && binding.getRoot() != null) {
                     android.widget.TextView totalView = binding.getRoot().findViewById(R.id.cart_total_value);
@@ -84,13 +88,12 @@ public class CartFragment extends Fragment {
             }
 
             @Override
-            public void onCancelled(@NonNull DatabaseError error) {}
-        };
-        cartRef.addValueEventListener(cartListener);
+            public void onError(Exception error) {}
+        });
     }
 
     private void setupRecyclerView() {
-        adapter = new BookAdapter(new ArrayList<>());
+        adapter = new BookAdapter();
         binding.cartList.setLayoutManager(new LinearLayoutManager(getContext()));
         binding.cartList.setAdapter(adapter);
     }
@@ -103,8 +106,9 @@ public class CartFragment extends Fragment {
     @Override
     public void onDestroyView() {
         super.onDestroyView();
-        if (cartRef != null && cartListener != null) {
-            cartRef.removeEventListener(cartListener);
+        if (cartRegistration != null) {
+            cartRegistration.remove();
+            cartRegistration = null;
         }
         binding = null;
     }
@@ -124,11 +128,30 @@ public class CartFragment extends Fragment {
         }
     }
 
+    private static final KeyedDiff<Book> CART_DIFF = new KeyedDiff<Book>() {
+        @Override
+        protected String key(Book book) {
+            return book.id;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Book a, @NonNull Book b) {
+            return a.price == b.price
+                    && equal(a.title, b.title)
+                    && equal(a.author, b.author)
+                    && equal(a.coverImageUrl, b.coverImageUrl);
+        }
+    };
+
     // --- Adapter ---
-    class BookAdapter extends androidx.recyclerview.widget.RecyclerView.Adapter<BookAdapter.BookViewHolder> {
-        List<Book> books;
-        BookAdapter(List<Book> books) { this.books = books; }
-        void update(List<Book> newBooks) { this.books = newBooks; notifyDataSetChanged(); }
+    class BookAdapter extends ListAdapter<Book, BookAdapter.BookViewHolder> {
+        BookAdapter() {
+            super(CART_DIFF);
+            setHasStableIds(true);
+        }
+
+        @Override
+        public long getItemId(int position) { return CART_DIFF.stableId(getItem(position)); }
 
         @NonNull
         @Override
@@ -140,24 +163,13 @@ public class CartFragment extends Fragment {
 
         @Override
         public void onBindViewHolder(@NonNull BookViewHolder holder, int position) {
-            Book book = books.get(position);
+            Book book = getItem(position);
 
             holder.binding.bookTitle.setText(book.title);
             holder.binding.bookAuthor.setText(book.author);
 
 
-            // ✅ Load image with Glide
-            if (book.coverImageUrl != null && !book.coverImageUrl.equals("null")) {
-                Glide.with(holder.binding.bookCover.getContext())
-                        .load(book.coverImageUrl)
-                        .placeholder(R.drawable.sample_book_cover)
-                        .error(R.drawable.sample_book_cover)
-                        .into(holder.binding.bookCover);
-
-                Log.d("CoverURL", "Loading: " + book.coverImageUrl);
-            } else {
-                holder.binding.bookCover.setImageResource(R.drawable.sample_book_cover);
-            }
+            CoverLoader.load(holder.binding.bookCover, book.coverImageUrl);
 
             holder.binding.bookPrice.setText(
                     String.format(java.util.Locale.getDefault(), "₹%.2f", book.price)
@@ -167,9 +179,6 @@ public class CartFragment extends Fragment {
             holder.itemView.setOnClickListener(v -> openDetails(book));
         }
 
-        @Override
-        public int getItemCount() { return books.size(); }
-
         class BookViewHolder extends androidx.recyclerview.widget.RecyclerView.ViewHolder {
             ItemCartBookBinding binding;
             BookViewHolder(ItemCartBookBinding b) { super(b.getRoot()); binding = b; }
@@ -181,7 +190,7 @@ public class CartFragment extends Fragment {
                 ? FirebaseAuth.getInstance().getCurrentUser().getUid()
                 : null;
         if (uid == null || book.id == null) return;
-        FirebaseDatabase.getInstance().getReference("carts").child(uid).child(book.id).removeValue();
+        DataSources.get().set(BookHiveDataSource.cart(uid) + "/" + book.id, null, null);
     }
 
     private void openDetails(Book book) {
@@ -1,26 +1,22 @@
 package com.svvaap.bookhive;
 
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.Editable;
 import android.text.TextWatcher;
-import android.util.Log;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 
 import androidx.annotation.NonNull;
 import androidx.fragment.app.Fragment;
-import androidx.recyclerview.widget.GridLayoutManager;
 
-import com.bumptech.glide.Glide;
-import com.google.firebase.auth.FirebaseAuth;
+import com.svvaap.bookhive.data.CatalogRepository;
+import com.svvaap.bookhive.data.EntitlementService;
 import com.svvaap.bookhive.databinding.FragmentCatalogueBinding;
-import com.svvaap.bookhive.databinding.ItemBookBinding;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
+import com.svvaap.bookhive.search.FacetIndex;
+import com.svvaap.bookhive.search.SearchPipeline;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -29,17 +25,24 @@ public class CatalogueFragment extends Fragment {
     private FragmentCatalogueBinding binding;
     private List<Book> allBooks = new ArrayList<>();
 
-    private BookAdapter adapter;
-    private DatabaseReference ebooksRef;
-    private ValueEventListener ebooksListener;
-    private DatabaseReference userPurchasesRef;
-    private ValueEventListener userPurchasesListener;
+    private BookGridAdapter adapter;
+    // Bumped per purchases update so a slower, older fetch cannot overwrite a newer one
+    private int fetchGeneration;
+    private EntitlementService.Listener entitlementListener;
+    private static final long SEARCH_DEBOUNCE_MS = 150;
+    // Owned books are few; rank them all
+    private static final int SEARCH_RESULT_LIMIT = 500;
+    private SearchPipeline searchPipeline;
+    private FacetIndex ownedFacets = new FacetIndex(new ArrayList<>());
+    // Category the screen was opened with; reapplied whenever the owned books change
+    private String categoryFilter;
 
 
 
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
         binding = FragmentCatalogueBinding.inflate(inflater, container, false);
+        searchPipeline = new SearchPipeline(new Handler(Looper.getMainLooper())::post, SEARCH_DEBOUNCE_MS);
         setupRecyclerView();
 
         fetchBooksFromFirebase();
@@ -54,6 +57,7 @@ public class CatalogueFragment extends Fragment {
         String category = args.getString("categoryFilter", null);
         if (category == null || category.isEmpty()) return;
         binding.catalogueSearchInput.setText("");
+        categoryFilter = category;
         filterByCategory(category);
     }
 
@@ -124,43 +128,19 @@ public class CatalogueFragment extends Fragment {
 //        ebooksRef.addValueEventListener(ebooksListener);
 //    }
 private void fetchBooksFromFirebase() {
-    String uid = FirebaseAuth.getInstance().getCurrentUser() != null
-            ? FirebaseAuth.getInstance().getCurrentUser().getUid()
-            : null;
-
-    if (uid == null) {
+    EntitlementService entitlements = EntitlementService.getInstance(requireContext());
+    if (!entitlements.isSignedIn()) {
         showLoginPrompt();
         return;
     }
 
-    // ✅ Always read only this user's purchases
-    DatabaseReference purchasesRef = FirebaseDatabase.getInstance()
-            .getReference("purchases")
-            .child(uid);
-
-    userPurchasesListener = new ValueEventListener() {
-        @Override
-        public void onDataChange(@NonNull DataSnapshot snapshot) {
-            if (binding == null) return;
-
-            java.util.Set<String> purchasedIds = new java.util.HashSet<>();
-            for (DataSnapshot s : snapshot.getChildren()) {
-                Boolean purchased = s.getValue(Boolean.class);
-                if (Boolean.TRUE.equals(purchased)) {
-                    purchasedIds.add(s.getKey()); // key = bookId
-                }
-            }
-
-            // 🔥 Only load purchased books
-            allBooks.clear();
-            loadBooksByIds(purchasedIds);
-        }
-
-        @Override
-        public void onCancelled(@NonNull DatabaseError error) {}
+    // Owned ids come from the shared entitlement set (restored from disk, then kept live)
+    entitlementListener = owned -> {
+        if (binding == null) return;
+        allBooks.clear();
+        loadBooksByIds(new java.util.HashSet<>(owned));
     };
-
-    purchasesRef.addValueEventListener(userPurchasesListener);
+    entitlements.addListener(entitlementListener);
 }
 
 
@@ -176,75 +156,43 @@ private void fetchBooksFromFirebase() {
         binding.noBooksText.setTextColor(getResources().getColor(android.R.color.darker_gray));
     }
 
-    private Book safeMapToBook(DataSnapshot snap) {
-        Object raw = snap.getValue();
-        if (!(raw instanceof java.util.Map)) return snap.getValue(Book.class);
-        java.util.Map map = (java.util.Map) raw;
-        Book b = new Book();
-        b.title = asString(map.get("title"));
-        b.author = asString(map.get("author"));
-        b.category = asString(map.get("category"));
-        b.language = asString(map.get("language"));
-        b.description = asString(map.get("description"));
-        b.coverImageUrl = asString(map.get("coverImageUrl"));
-        b.fileUrl = asString(map.get("fileUrl"));
-        b.visibility = asString(map.get("visibility"));
-        b.uploadDate = asString(map.get("uploadDate"));
-        b.price = asDouble(map.get("price"));
-        return b;
-    }
-
-    private String asString(Object v) {
-        return v == null ? null : String.valueOf(v);
-    }
-
-    private double asDouble(Object v) {
-        if (v instanceof Number) return ((Number) v).doubleValue();
-        if (v instanceof String) {
-            try { return Double.parseDouble((String) v); } catch (Exception ignored) {}
-        }
-        return 0d;
-    }
-
     private void loadBooksByIds(java.util.Set<String> ids) {
-        Log.d("pids", ids.toString());
-
-        DatabaseReference dbRef = FirebaseDatabase.getInstance().getReference("ebooks");
-        dbRef.addListenerForSingleValueEvent(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                if (binding == null) return;
-
-                List<Book> purchasedBooks = new ArrayList<>(); // <-- use local list, not allBooks
+        if (binding == null) return;
 
-                for (DataSnapshot snap : snapshot.getChildren()) {
-                    String id = snap.getKey();
-                    if (id != null && ids.contains(id)) {
-                        Book book = safeMapToBook(snap);
-                        if (book != null) {
-                            book.id = id;
-                            purchasedBooks.add(book);
-                        }
-                    }
-                }
+        // Point reads for the owned books only; the catalog itself is never downloaded here
+        List<String> ordered = new ArrayList<>(ids);
+        java.util.Collections.sort(ordered);
+        final int generation = ++fetchGeneration;
+        CatalogRepository.getInstance(requireContext()).fetchBooks(ordered, (books, complete) -> {
+            if (generation != fetchGeneration) return;
+            showPurchasedBooks(books);
+        });
+    }
 
-                // Replace adapter data with only purchased books
-                allBooks.clear();
-                allBooks.addAll(purchasedBooks);
-                adapter.updateBooks(new ArrayList<>(purchasedBooks));
-                safeSetNoBooksVisibility(purchasedBooks.isEmpty());
-            }
+    private void showPurchasedBooks(List<Book> purchasedBooks) {
+        if (binding == null) return;
 
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {}
-        });
+        // Replace adapter data with only purchased books
+        allBooks.clear();
+        allBooks.addAll(purchasedBooks);
+        ownedFacets = new FacetIndex(purchasedBooks);
+        // Re-runs an active search against the new set once it is indexed
+        searchPipeline.rebuild(purchasedBooks);
+        boolean searching = binding.catalogueSearchInput.getText() != null
+                && !binding.catalogueSearchInput.getText().toString().trim().isEmpty();
+        if (!searching && categoryFilter != null) {
+            filterByCategory(categoryFilter);
+        } else if (!searching) {
+            adapter.submitList(new ArrayList<>(purchasedBooks));
+            safeSetNoBooksVisibility(purchasedBooks.isEmpty());
+        }
     }
 
 
     private void setupRecyclerView() {
-        adapter = new BookAdapter(new ArrayList<>(allBooks));
-        binding.catalogueGrid.setLayoutManager(new GridLayoutManager(getContext(), 2));
-         binding.catalogueGrid.setAdapter(adapter);
+        adapter = new BookGridAdapter(this::openBookDetails);
+        adapter.submitList(new ArrayList<>(allBooks));
+        adapter.attachTo(binding.catalogueGrid, 2);
         safeSetNoBooksVisibility(false);
     }
 
@@ -262,25 +210,29 @@ private void fetchBooksFromFirebase() {
     }
 
     private void filterBooks(String query) {
-        List<Book> filtered = new ArrayList<>();
-        for (Book book : allBooks) {
-            if (book.title.toLowerCase().contains(query.toLowerCase()) ||
-                book.author.toLowerCase().contains(query.toLowerCase())) {
-                filtered.add(book);
+        if (query.trim().isEmpty()) {
+            searchPipeline.cancel();
+            if (categoryFilter != null) {
+                filterByCategory(categoryFilter);
+                return;
             }
+            adapter.submitList(new ArrayList<>(allBooks));
+            safeSetNoBooksVisibility(allBooks.isEmpty());
+            return;
         }
-        adapter.updateBooks(filtered);
-        safeSetNoBooksVisibility(filtered.isEmpty());
+        // Debounced, matched and ranked off the main thread; superseded queries are never shown
+        searchPipeline.submit(query, SEARCH_RESULT_LIMIT, (q, filtered) -> {
+            if (binding == null) return;
+            adapter.submitList(filtered);
+            safeSetNoBooksVisibility(filtered.isEmpty());
+        });
     }
 
     private void filterByCategory(String category) {
-        List<Book> filtered = new ArrayList<>();
-        for (Book book : allBooks) {
-            if (book.category != null && book.category.equalsIgnoreCase(category)) {
-                filtered.add(book);
-            }
-        }
-        adapter.updateBooks(filtered);
+        java.util.BitSet selected = ownedFacets.select(FacetIndex.Field.CATEGORY,
+                java.util.Collections.singletonList(category));
+        List<Book> filtered = ownedFacets.books(selected, Integer.MAX_VALUE);
+        adapter.submitList(filtered);
         safeSetNoBooksVisibility(filtered.isEmpty());
     }
 
@@ -292,14 +244,12 @@ private void fetchBooksFromFirebase() {
     @Override
     public void onDestroyView() {
         super.onDestroyView();
-        if (ebooksRef != null && ebooksListener != null) {
-            ebooksRef.removeEventListener(ebooksListener);
-            ebooksListener = null;
-        }
-        if (userPurchasesRef != null && userPurchasesListener != null) {
-            userPurchasesRef.removeEventListener(userPurchasesListener);
-            userPurchasesListener = null;
+        fetchGeneration++;
+        if (entitlementListener != null) {
+            EntitlementService.getInstance(requireContext()).removeListener(entitlementListener);
+            entitlementListener = null;
         }
+        searchPipeline.shutdown();
         binding = null;
     }
 
@@ -321,39 +271,4 @@ private void fetchBooksFromFirebase() {
 //            this.coverRes = coverRes;
 //        }
 //    }
-
-    // --- Adapter ---
-    class BookAdapter extends androidx.recyclerview.widget.RecyclerView.Adapter<BookAdapter.BookViewHolder> {
-        List<Book> books;
-        BookAdapter(List<Book> books) { this.books = books; }
-        void updateBooks(List<Book> newBooks) {
-            this.books = newBooks;
-            notifyDataSetChanged();
-        }
-        @NonNull
-        @Override
-        public BookViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-            ItemBookBinding b = ItemBookBinding.inflate(getLayoutInflater(), parent, false);
-            return new BookViewHolder(b);
-        }
-        @Override
-        public void onBindViewHolder(@NonNull BookViewHolder holder, int position) {
-            Book book = books.get(position);
-            holder.binding.bookTitle.setText(book.title);
-            holder.binding.bookAuthor.setText(book.author);
-            Glide.with(holder.binding.bookCover.getContext())
-                .load(book.coverImageUrl)
-                .placeholder(R.drawable.sample_book_cover)
-                .into(holder.binding.bookCover);
-            
-            // Add click listener to open book details
-            holder.itemView.setOnClickListener(v -> openBookDetails(book));
-        }
-        @Override
-        public int getItemCount() { return books.size(); }
-        class BookViewHolder extends androidx.recyclerview.widget.RecyclerView.ViewHolder {
-            ItemBookBinding binding;
-            BookViewHolder(ItemBookBinding b) { super(b.getRoot()); binding = b; }
-        }
-    }
 } 
\ No newline at end of file
@@ -13,8 +13,8 @@ import androidx.fragment.app.Fragment;
 import com.svvaap.bookhive.databinding.FragmentCheckoutBinding;
 import com.razorpay.Checkout;
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.DatabaseReference;
+import com.svvaap.bookhive.data.BookHiveDataSource;
+import com.svvaap.bookhive.data.DataSources;
 import androidx.navigation.Navigation;
 
 public class CheckoutFragment extends Fragment {
@@ -55,15 +55,22 @@ public class CheckoutFragment extends Fragment {
                 if (total <= 0.0) { Toast.makeText(getContext(), "Invalid amount", Toast.LENGTH_SHORT).show(); return; }
                 openRazorpay(total);
             } else {
-                DatabaseReference cartRef = FirebaseDatabase.getInstance().getReference("carts").child(uid);
-                cartRef.get().addOnSuccessListener(snapshot -> {
-                    double total = 0.0;
-                    for (com.google.firebase.database.DataSnapshot snap : snapshot.getChildren()) {
-                        Object priceObj = snap.child("price").getValue();
-                        if (priceObj instanceof Number) total += ((Number) priceObj).doubleValue();
+                DataSources.get().get(BookHiveDataSource.cart(uid), new BookHiveDataSource.ValueListener() {
+                    @Override
+                    public void onValue(Object value) {
+                        double total = 0.0;
+                        if (value instanceof java.util.Map) {
+                            for (Object item : ((java.util.Map<?, ?>) value).values()) {
+                                Object priceObj = item instanceof java.util.Map ? ((java.util.Map<?, ?>) item).get("price") : null;
+                                if (priceObj instanceof Number) total += ((Number) priceObj).doubleValue();
+                            }
+                        }
+                        if (total <= 0.0) { Toast.makeText(getContext(), "Cart is empty", Toast.LENGTH_SHORT).show(); return; }
+                        openRazorpay(total);
                     }
-                    if (total <= 0.0) { Toast.makeText(getContext(), "Cart is empty", Toast.LENGTH_SHORT).show(); return; }
-                    openRazorpay(total);
+
+                    @Override
+                    public void onError(Exception error) {}
                 });
             }
         } catch (Exception e) {
@@ -7,24 +7,20 @@ import android.view.ViewGroup;
 import androidx.annotation.NonNull;
 import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.svvaap.bookhive.databinding.FragmentFeedbacksBinding;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Collections;
+import com.svvaap.bookhive.admin.FeedbackReport;
+import com.svvaap.bookhive.admin.FeedbackReport.Feedback;
+import com.svvaap.bookhive.data.BookHiveDataSource;
+import com.svvaap.bookhive.data.DataSources;
+import com.svvaap.bookhive.data.SnapshotProcessor;
 import android.widget.TextView;
 
 public class FeedbacksFragment extends Fragment {
     private FragmentFeedbacksBinding binding;
-    private List<Feedback> feedbacks = new ArrayList<>();
     private FeedbackAdapter adapter;
-    private DatabaseReference feedbacksRef;
-    private ValueEventListener feedbacksListener;
+    private BookHiveDataSource.Registration feedbacksRegistration;
 
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
@@ -35,85 +31,72 @@ public class FeedbacksFragment extends Fragment {
     }
 
     private void setupRecyclerView() {
-        adapter = new FeedbackAdapter(feedbacks);
+        adapter = new FeedbackAdapter();
         binding.feedbacksRecyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
         binding.feedbacksRecyclerView.setAdapter(adapter);
     }
 
     private void fetchFeedbacks() {
-        feedbacksRef = FirebaseDatabase.getInstance().getReference("feedbacks");
-        feedbacksListener = new ValueEventListener() {
+        // Parsed and sorted by date (newest first) on a worker
+        feedbacksRegistration = DataSources.processor().observe(DataSources.get(), BookHiveDataSource.FEEDBACKS,
+                FeedbackReport::decode, new SnapshotProcessor.Listener<FeedbackReport>() {
             @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                feedbacks.clear();
-                double totalRating = 0;
-                int totalFeedbacks = 0;
-
-                for (DataSnapshot feedbackSnap : snapshot.getChildren()) {
-                    Feedback feedback = feedbackSnap.getValue(Feedback.class);
-                    if (feedback != null) {
-                        feedback.feedbackId = feedbackSnap.getKey();
-                        feedbacks.add(feedback);
-                        totalRating += feedback.rating;
-                        totalFeedbacks++;
-                    }
-                }
-
-                // Sort by date (newest first)
-                Collections.sort(feedbacks, (a, b) -> b.date.compareTo(a.date));
-
+            public void onResult(FeedbackReport report) {
+                if (binding == null) return;
                 // Update UI
-                if (totalFeedbacks > 0) {
-                    double averageRating = totalRating / totalFeedbacks;
-                    binding.averageRatingText.setText(String.format("%.1f", averageRating));
-                    binding.totalFeedbacksText.setText(String.valueOf(totalFeedbacks));
-                } else {
-                    binding.averageRatingText.setText("0.0");
-                    binding.totalFeedbacksText.setText("0");
-                }
+                binding.averageRatingText.setText(String.format("%.1f", report.averageRating));
+                binding.totalFeedbacksText.setText(String.valueOf(report.feedbacks.size()));
 
-                adapter.notifyDataSetChanged();
-                binding.noFeedbacksText.setVisibility(feedbacks.isEmpty() ? View.VISIBLE : View.GONE);
+                adapter.submitList(report.feedbacks);
+                binding.noFeedbacksText.setVisibility(report.feedbacks.isEmpty() ? View.VISIBLE : View.GONE);
             }
 
             @Override
-            public void onCancelled(@NonNull DatabaseError error) {
+            public void onError(Exception error) {
                 // Handle error
             }
-        };
-        feedbacksRef.addValueEventListener(feedbacksListener);
+        });
     }
 
     @Override
     public void onDestroyView() {
         super.onDestroyView();
-        if (feedbacksRef != null && feedbacksListener != null) {
-            feedbacksRef.removeEventListener(feedbacksListener);
+        if (feedbacksRegistration != null) {
+            feedbacksRegistration.remove();
+            feedbacksRegistration = null;
         }
         binding = null;
     }
 
-    // Feedback data model
-    public static class Feedback {
-        public String feedbackId;
-        public String userId;
-        public String userName;
-        public String bookId;
-        public String bookTitle;
-        public String comment;
-        public double rating; // 1-5 stars
-        public String date;
-        public String status; // "pending", "reviewed", "resolved"
-
-        public Feedback() {}
-    }
+    private static final KeyedDiff<Feedback> FEEDBACK_DIFF = new KeyedDiff<Feedback>() {
+        @Override
+        protected String key(Feedback feedback) {
+            return feedback.feedbackId;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Feedback a, @NonNull Feedback b) {
+            return a.rating == b.rating
+                    && equal(a.userId, b.userId)
+                    && equal(a.userName, b.userName)
+                    && equal(a.bookId, b.bookId)
+                    && equal(a.bookTitle, b.bookTitle)
+                    && equal(a.comment, b.comment)
+                    && equal(a.date, b.date)
+                    && equal(a.status, b.status);
+        }
+    };
 
     // Feedback adapter
-    private class FeedbackAdapter extends RecyclerView.Adapter<FeedbackAdapter.FeedbackViewHolder> {
-        private List<Feedback> feedbackList;
+    private class FeedbackAdapter extends ListAdapter<Feedback, FeedbackAdapter.FeedbackViewHolder> {
+        FeedbackAdapter() {
+            super(FEEDBACK_DIFF);
+            setHasStableIds(true);
+        }
 
-        public FeedbackAdapter(List<Feedback> feedbackList) {
-            this.feedbackList = feedbackList;
+        @Override
+        public long getItemId(int position) {
+            return FEEDBACK_DIFF.stableId(getItem(position));
         }
 
         @NonNull
@@ -125,15 +108,10 @@ public class FeedbacksFragment extends Fragment {
 
         @Override
         public void onBindViewHolder(@NonNull FeedbackViewHolder holder, int position) {
-            Feedback feedback = feedbackList.get(position);
+            Feedback feedback = getItem(position);
             holder.bind(feedback);
         }
 
-        @Override
-        public int getItemCount() {
-            return feedbackList.size();
-        }
-
         class FeedbackViewHolder extends RecyclerView.ViewHolder {
             private TextView userNameText, bookTitleText, commentText, ratingText, dateText, statusText;
 
@@ -1,36 +1,51 @@
 package com.svvaap.bookhive;
 
 import android.os.Bundle;
+import android.text.Editable;
+import android.text.TextWatcher;
 import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
+import android.widget.ArrayAdapter;
+import android.widget.ListPopupWindow;
 import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import androidx.recyclerview.widget.RecyclerView;
+import androidx.core.widget.NestedScrollView;
 import androidx.fragment.app.Fragment;
 import com.svvaap.bookhive.databinding.FragmentHomeBinding;
 import com.svvaap.bookhive.databinding.ItemCategoryBinding;
-import com.svvaap.bookhive.databinding.ItemBookBinding;
-import com.bumptech.glide.Glide;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
+import com.svvaap.bookhive.data.CatalogRepository;
+import com.svvaap.bookhive.data.LatestShelfPager;
+import com.svvaap.bookhive.search.FacetIndex;
+import com.svvaap.bookhive.search.SuggestionTrie;
 import java.util.ArrayList;
 import java.util.List;
 import android.view.inputmethod.EditorInfo;
 import android.view.KeyEvent;
 
 public class HomeFragment extends Fragment {
+    // Eight rows of the 3-column grid, comfortably more than one screen
+    static final int LATEST_PAGE_SIZE = 24;
+    static final int LATEST_COLUMNS = 3;
+
     private FragmentHomeBinding binding;
-    private final List<Book> allLatestBooks = new ArrayList<>();
-    private final List<Book> latestBooks = new ArrayList<>();
-    private BookAdapter latestAdapter;
-    private DatabaseReference ebooksRef;
-    private ValueEventListener ebooksListener;
+    private BookGridAdapter latestAdapter;
+    // Pages the "All" shelf; null while a category is selected
+    private LatestShelfPager latestPager;
+    private boolean latestHasMore;
+    // How many books a category shelf shows, grown a page at a time as the user scrolls
+    private int categoryShelfLimit;
     private String selectedCategory = "All";
     private int selectedCategoryPosition = 0;
+    private SuggestionTrie suggestionTrie;
+    // Facets of the catalog: chip counts, and the shelf of the selected category
+    private FacetIndex catalogFacets;
+    // Rebuilds the facets whenever the catalog changes
+    private CatalogRepository.Observer catalogObserver;
+    private ListPopupWindow suggestionPopup;
+    private ArrayAdapter<SuggestionTrie.Suggestion> suggestionAdapter;
 
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
@@ -38,10 +53,40 @@ public class HomeFragment extends Fragment {
         setupCategoryList();
         setupSearchBar();
         setupLatestList();
-        fetchLatestBooks();
+        startLatestShelf();
+        loadCatalogFacets();
+        catalogObserver = (catalog, change) -> loadCatalogFacets();
+        CatalogRepository.getInstance(requireContext()).observe(catalogObserver);
         return binding.getRoot();
     }
 
+    private void loadCatalogFacets() {
+        CatalogRepository.getInstance(requireContext()).loadFacets(facets -> {
+            if (binding == null) return;
+            catalogFacets = facets;
+            RecyclerView.Adapter<?> chips = binding.categoryList.getAdapter();
+            if (chips != null) chips.notifyItemRangeChanged(0, chips.getItemCount());
+            if (shelfCategory() != null) showCategoryShelf();
+        });
+    }
+
+    /**
+     * Shows the newest books of the selected category: one bitmap lookup, no pass over the
+     * catalog. The facet match ignores case.
+     */
+    private void showCategoryShelf() {
+        if (binding == null || catalogFacets == null) return;
+        java.util.BitSet inCategory = catalogFacets.select(FacetIndex.Field.CATEGORY,
+                java.util.Collections.singletonList(shelfCategory()));
+        latestHasMore = inCategory.cardinality() > categoryShelfLimit;
+        latestAdapter.submitList(catalogFacets.books(inCategory, categoryShelfLimit));
+    }
+
+    @Nullable
+    private String shelfCategory() {
+        return selectedCategory == null || selectedCategory.equalsIgnoreCase("All") ? null : selectedCategory;
+    }
+
     private void setupCategoryList() {
         List<Category> categories = new ArrayList<>();
         categories.add(new Category("All", getCategoryIconRes("All")));
@@ -96,95 +141,126 @@ public class HomeFragment extends Fragment {
                 boolean isEnter = event != null && event.getKeyCode() == KeyEvent.KEYCODE_ENTER && event.getAction() == KeyEvent.ACTION_DOWN;
                 if (actionId == EditorInfo.IME_ACTION_SEARCH || isEnter) {
                     String query = v.getText() != null ? v.getText().toString().trim() : "";
-                    Bundle bundle = new Bundle();
-                    bundle.putString("initialQuery", query);
-                    androidx.navigation.fragment.NavHostFragment.findNavController(this)
-                            .navigate(R.id.SearchFragment, bundle);
+                    openSearch(query);
                     return true;
                 }
                 return false;
             });
+            setupSuggestions();
         }
     }
 
-    private void setupLatestList() {
-        latestAdapter = new BookAdapter(new ArrayList<>(latestBooks));
-        binding.latestList.setLayoutManager(new androidx.recyclerview.widget.GridLayoutManager(getContext(), 3));
-        binding.latestList.setAdapter(latestAdapter);
-    }
-
-    private void fetchLatestBooks() {
-        ebooksRef = FirebaseDatabase.getInstance().getReference("ebooks");
-        ebooksListener = new ValueEventListener() {
+    private void setupSuggestions() {
+        suggestionAdapter = new ArrayAdapter<>(requireContext(), android.R.layout.simple_list_item_1, new ArrayList<>());
+        suggestionPopup = new ListPopupWindow(requireContext());
+        suggestionPopup.setAnchorView(binding.searchBar);
+        suggestionPopup.setAdapter(suggestionAdapter);
+        // Keep the keyboard up and typing going to the search bar while the list is showing
+        suggestionPopup.setModal(false);
+        suggestionPopup.setInputMethodMode(ListPopupWindow.INPUT_METHOD_NEEDED);
+        suggestionPopup.setOnItemClickListener((parent, view, position, id) -> {
+            SuggestionTrie.Suggestion suggestion = suggestionAdapter.getItem(position);
+            if (suggestion != null) openSearch(suggestion.text);
+        });
+        binding.searchBar.addTextChangedListener(new TextWatcher() {
             @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                if (binding == null) return;
-                allLatestBooks.clear();
-                for (DataSnapshot snap : snapshot.getChildren()) {
-                    Book book = safeMapToBook(snap);
-                    if (book != null) { book.id = snap.getKey(); allLatestBooks.add(book); }
-                }
-                // Sort newest first by uploadDate (ISO string lex order works; nulls last)
-                java.util.Collections.sort(allLatestBooks, (a, b) -> compareUploadDateDesc(a.uploadDate, b.uploadDate));
-                applyCategoryFilter();
+            public void beforeTextChanged(CharSequence s, int start, int count, int after) {}
+            @Override
+            public void onTextChanged(CharSequence s, int start, int before, int count) {
+                showSuggestions(s.toString());
             }
             @Override
-            public void onCancelled(@NonNull DatabaseError error) {}
-        };
-        ebooksRef.addValueEventListener(ebooksListener);
+            public void afterTextChanged(Editable s) {}
+        });
+        // Built from the cached catalog off the main thread; lookups are then cheap enough per keystroke
+        CatalogRepository.getInstance(requireContext()).loadSuggestions(trie -> {
+            if (binding == null) return;
+            suggestionTrie = trie;
+            if (binding.searchBar.hasFocus()) showSuggestions(binding.searchBar.getText().toString());
+        });
     }
 
-    private void applyCategoryFilter() {
-        latestBooks.clear();
-        if (selectedCategory == null || selectedCategory.equalsIgnoreCase("All")) {
-            latestBooks.addAll(allLatestBooks);
-        } else {
-            for (Book b : allLatestBooks) {
-                if (b.category != null && b.category.equalsIgnoreCase(selectedCategory)) {
-                    latestBooks.add(b);
-                }
-            }
+    private void showSuggestions(String prefix) {
+        List<SuggestionTrie.Suggestion> suggestions = suggestionTrie != null
+                ? suggestionTrie.complete(prefix, SuggestionTrie.MAX_SUGGESTIONS)
+                : new ArrayList<>();
+        suggestionAdapter.clear();
+        suggestionAdapter.addAll(suggestions);
+        if (suggestions.isEmpty()) {
+            suggestionPopup.dismiss();
+        } else if (!suggestionPopup.isShowing()) {
+            suggestionPopup.show();
         }
-        latestAdapter.updateBooks(new ArrayList<>(latestBooks));
     }
 
-    private int compareUploadDateDesc(String d1, String d2) {
-        if (d1 == null && d2 == null) return 0;
-        if (d1 == null) return 1;
-        if (d2 == null) return -1;
-        return -d1.compareTo(d2);
+    private void openSearch(String query) {
+        suggestionPopup.dismiss();
+        Bundle bundle = new Bundle();
+        bundle.putString("initialQuery", query);
+        androidx.navigation.fragment.NavHostFragment.findNavController(this)
+                .navigate(R.id.SearchFragment, bundle);
     }
 
-    private Book safeMapToBook(DataSnapshot snap) {
-        Object raw = snap.getValue();
-        if (!(raw instanceof java.util.Map)) return snap.getValue(Book.class);
-        java.util.Map map = (java.util.Map) raw;
-        Book b = new Book();
-        b.title = asString(map.get("title"));
-        b.author = asString(map.get("author"));
-        b.category = asString(map.get("category"));
-        b.language = asString(map.get("language"));
-        b.description = asString(map.get("description"));
-        b.coverImageUrl = asString(map.get("coverImageUrl"));
-        b.fileUrl = asString(map.get("fileUrl"));
-        b.visibility = asString(map.get("visibility"));
-        b.uploadDate = asString(map.get("uploadDate"));
-        try {
-            Object priceObj = map.get("price");
-            if (priceObj instanceof Number) b.price = ((Number) priceObj).doubleValue();
-            else if (priceObj instanceof String) b.price = Double.parseDouble((String) priceObj);
-        } catch (Exception ignored) {}
-        return b;
+    private void setupLatestList() {
+        latestAdapter = new BookGridAdapter(this::openBookDetails);
+        latestAdapter.attachTo(binding.latestList, LATEST_COLUMNS);
+        // The grid is laid out in full inside the scroll view, so paging follows the scroll view
+        binding.getRoot().setOnScrollChangeListener((NestedScrollView.OnScrollChangeListener)
+                (v, scrollX, scrollY, oldScrollX, oldScrollY) -> maybeLoadMoreLatest());
     }
 
-    private String asString(Object v) { return v == null ? null : String.valueOf(v); }
+    private void startLatestShelf() {
+        if (latestPager != null) {
+            latestPager.stop();
+            latestPager = null;
+        }
+        latestHasMore = false;
+        latestAdapter.submitList(new ArrayList<>());
+        if (shelfCategory() != null) {
+            categoryShelfLimit = LATEST_PAGE_SIZE;
+            showCategoryShelf();
+            return;
+        }
+        CatalogRepository catalog = CatalogRepository.getInstance(requireContext());
+        latestPager = new LatestShelfPager(catalog, LATEST_PAGE_SIZE, (books, hasMore) -> {
+            if (binding == null) return;
+            latestHasMore = hasMore;
+            latestAdapter.submitList(new ArrayList<>(books));
+            // A short first page may not fill the screen, and then no scroll will ever ask for more
+            binding.getRoot().post(this::maybeLoadMoreLatest);
+        });
+        latestPager.start();
+    }
+
+    private void maybeLoadMoreLatest() {
+        if (binding == null || !latestHasMore) return;
+        NestedScrollView scroller = binding.getRoot();
+        View content = scroller.getChildAt(0);
+        // Prefetch while the user is still a screen away from the end of the grid
+        if (scroller.getScrollY() + 2 * scroller.getHeight() >= content.getHeight()) {
+            if (latestPager != null) {
+                latestPager.loadMore();
+            } else {
+                categoryShelfLimit += LATEST_PAGE_SIZE;
+                showCategoryShelf();
+            }
+        }
+    }
 
     @Override
     public void onDestroyView() {
         super.onDestroyView();
-        if (ebooksRef != null && ebooksListener != null) {
-            ebooksRef.removeEventListener(ebooksListener);
-            ebooksListener = null;
+        if (catalogObserver != null) {
+            CatalogRepository.getInstance(requireContext()).removeObserver(catalogObserver);
+            catalogObserver = null;
+        }
+        if (latestPager != null) {
+            latestPager.stop();
+            latestPager = null;
+        }
+        if (suggestionPopup != null) {
+            suggestionPopup.dismiss();
+            suggestionPopup = null;
         }
         binding = null;
     }
@@ -212,7 +288,9 @@ public class HomeFragment extends Fragment {
         @Override
         public void onBindViewHolder(@NonNull CategoryViewHolder holder, int position) {
             Category c = categories.get(position);
-            holder.binding.categoryLabel.setText(c.name);
+            holder.binding.categoryLabel.setText(catalogFacets != null
+                    ? c.name + " (" + categoryCount(c.name) + ")"
+                    : c.name);
             holder.binding.categoryIcon.setImageResource(c.iconRes);
             // Highlight selected category
             boolean isSelected = position == selectedCategoryPosition;
@@ -227,47 +305,27 @@ public class HomeFragment extends Fragment {
         }
     }
 
+    private int categoryCount(String category) {
+        if (category.equalsIgnoreCase("All")) return catalogFacets.size();
+        return catalogFacets.count(FacetIndex.Field.CATEGORY, category, null);
+    }
+
     private void selectCategory(String category, int position) {
+        int previous = selectedCategoryPosition;
         selectedCategory = category;
         selectedCategoryPosition = position;
-        applyCategoryFilter();
-        // Refresh category chips
-        binding.categoryList.getAdapter().notifyDataSetChanged();
+        startLatestShelf();
+        // Only the old and new chip change highlight
+        RecyclerView.Adapter<?> chips = binding.categoryList.getAdapter();
+        chips.notifyItemChanged(previous);
+        chips.notifyItemChanged(position);
     }
 
-    class BookAdapter extends RecyclerView.Adapter<BookAdapter.BookViewHolder> {
-        List<Book> books;
-        BookAdapter(List<Book> books) { this.books = books; }
-        void updateBooks(List<Book> newBooks) { this.books = newBooks; notifyDataSetChanged(); }
-        @NonNull
-        @Override
-        public BookViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-            ItemBookBinding b = ItemBookBinding.inflate(LayoutInflater.from(parent.getContext()), parent, false);
-            return new BookViewHolder(b);
-        }
-        @Override
-        public void onBindViewHolder(@NonNull BookViewHolder holder, int position) {
-            Book book = books.get(position);
-            holder.binding.bookTitle.setText(book.title);
-            holder.binding.bookAuthor.setText(book.author);
-            Glide.with(holder.binding.bookCover.getContext())
-                    .load(book.coverImageUrl)
-                    .placeholder(R.drawable.sample_book_cover)
-                    .into(holder.binding.bookCover);
-            holder.itemView.setOnClickListener(v -> {
-                if (book.id != null) {
-                    Bundle bundle = new Bundle();
-                    bundle.putString("bookId", book.id);
-                    androidx.navigation.fragment.NavHostFragment.findNavController(HomeFragment.this)
-                            .navigate(R.id.BookDetailFragment, bundle);
-                }
-            });
-        }
-        @Override
-        public int getItemCount() { return books.size(); }
-        class BookViewHolder extends RecyclerView.ViewHolder {
-            ItemBookBinding binding;
-            BookViewHolder(ItemBookBinding b) { super(b.getRoot()); binding = b; }
-        }
+    private void openBookDetails(Book book) {
+        if (book.id == null) return;
+        Bundle bundle = new Bundle();
+        bundle.putString("bookId", book.id);
+        androidx.navigation.fragment.NavHostFragment.findNavController(this)
+                .navigate(R.id.BookDetailFragment, bundle);
     }
 }
@@ -0,0 +1,70 @@
+package com.svvaap.bookhive;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.DiffUtil;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Diff callback for list items identified by a database key (book, order, user id...). Items
+ * with the same key are the same row, so a live update that touches one record rebinds one row
+ * instead of the whole list. The key also gives the adapter's stable ids; items without a key
+ * are only ever the same row as themselves and have no stable id.
+ *
+ * <p>Lists handed to a {@link androidx.recyclerview.widget.ListAdapter} using this are diffed
+ * on a background thread: submit a new list for every update and do not modify it, or its
+ * items, afterwards.
+ */
+public abstract class KeyedDiff<T> extends DiffUtil.ItemCallback<T> {
+
+    /** Catalog books, by book id. */
+    public static final KeyedDiff<Book> BOOKS = new KeyedDiff<Book>() {
+        @Override
+        protected String key(Book book) {
+            return book.id;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull Book a, @NonNull Book b) {
+            return a.updatedAt == b.updatedAt
+                    && a.price == b.price
+                    && equal(a.title, b.title)
+                    && equal(a.author, b.author)
+                    && equal(a.category, b.category)
+                    && equal(a.language, b.language)
+                    && equal(a.description, b.description)
+                    && equal(a.coverImageUrl, b.coverImageUrl)
+                    && equal(a.fileUrl, b.fileUrl)
+                    && equal(a.visibility, b.visibility)
+                    && equal(a.uploadDate, b.uploadDate);
+        }
+    };
+
+    protected abstract String key(T item);
+
+    @Override
+    public boolean areItemsTheSame(@NonNull T a, @NonNull T b) {
+        String key = key(a);
+        return key != null ? key.equals(key(b)) : a == b;
+    }
+
+    /**
+     * A 64-bit FNV-1a hash of the item's key, for {@link RecyclerView.Adapter#getItemId}. Unlike
+     * an id handed out per key it needs no table that grows with every key ever shown, and at
+     * 64 bits two keys of one list colliding is not a practical concern.
+     */
+    public long stableId(T item) {
+        String key = key(item);
+        if (key == null) return RecyclerView.NO_ID;
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            hash ^= key.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        // NO_ID is -1; remap the one key that would hash onto it
+        return hash == RecyclerView.NO_ID ? 0 : hash;
+    }
+
+    protected static boolean equal(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+}
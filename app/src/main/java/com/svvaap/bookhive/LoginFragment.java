@@ -20,8 +20,8 @@ import com.google.android.gms.auth.api.signin.*;
 import com.google.android.gms.common.api.ApiException;
 import com.google.android.gms.tasks.Task;
 import com.google.firebase.auth.*;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
+import com.svvaap.bookhive.data.BookHiveDataSource;
+import com.svvaap.bookhive.data.DataSources;
 
 public class LoginFragment extends Fragment {
     private FragmentLoginBinding binding;
@@ -126,12 +126,11 @@ public class LoginFragment extends Fragment {
 
     private void onAuthSuccess(FirebaseUser user) {
         // Save user info to database
-        DatabaseReference usersRef = FirebaseDatabase.getInstance().getReference("users");
-        usersRef.child(user.getUid()).setValue(new UserProfile(
+        DataSources.get().set(BookHiveDataSource.user(user.getUid()), new UserProfile(
                 user.getDisplayName() != null ? user.getDisplayName() : "",
                 user.getEmail(),
                 user.getPhotoUrl() != null ? user.getPhotoUrl().toString() : ""
-        ));
+        ).toMap(), null);
         // Navigate to Home and clear Login from back stack
         NavController navController = NavHostFragment.findNavController(LoginFragment.this);
         NavOptions navOptions = new NavOptions.Builder()
@@ -148,6 +147,14 @@ public class LoginFragment extends Fragment {
             this.email = email;
             this.photoUrl = photoUrl;
         }
+
+        public java.util.Map<String, Object> toMap() {
+            java.util.Map<String, Object> map = new java.util.HashMap<>();
+            map.put("name", name);
+            map.put("email", email);
+            map.put("photoUrl", photoUrl);
+            return map;
+        }
     }
 
     @Override
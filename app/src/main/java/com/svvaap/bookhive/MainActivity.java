@@ -11,8 +11,8 @@ import com.google.android.material.bottomnavigation.BottomNavigationView;
 import android.widget.Toast;
 import com.razorpay.PaymentResultListener;
 import com.google.firebase.auth.FirebaseAuth;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
+import com.svvaap.bookhive.data.BookHiveDataSource;
+import com.svvaap.bookhive.data.DataSources;
 
 public class MainActivity extends AppCompatActivity implements PaymentResultListener {
     @Override
@@ -58,18 +58,23 @@ public class MainActivity extends AppCompatActivity implements PaymentResultList
                     singleBookId = nav.getCurrentBackStackEntry().getArguments().getString("singleBookId", null);
                 }
             }
+            BookHiveDataSource data = DataSources.get();
             if (singleBookId != null) {
-                FirebaseDatabase.getInstance().getReference("purchases").child(uid).child(singleBookId).setValue(true);
+                data.set(BookHiveDataSource.purchases(uid) + "/" + singleBookId, true, null);
             } else {
-                DatabaseReference cartRef = FirebaseDatabase.getInstance().getReference("carts").child(uid);
-                cartRef.get().addOnSuccessListener(snapshot -> {
-                    for (com.google.firebase.database.DataSnapshot snap : snapshot.getChildren()) {
-                        String bookId = snap.getKey();
-                        if (bookId != null) {
-                            FirebaseDatabase.getInstance().getReference("purchases").child(uid).child(bookId).setValue(true);
-                        }
+                data.get(BookHiveDataSource.cart(uid), new BookHiveDataSource.ValueListener() {
+                    @Override
+                    public void onValue(Object value) {
+                        if (!(value instanceof java.util.Map)) return;
+                        // One write for the whole cart
+                        java.util.Map<String, Object> owned = new java.util.HashMap<>();
+                        for (Object bookId : ((java.util.Map<?, ?>) value).keySet()) owned.put((String) bookId, true);
+                        data.update(BookHiveDataSource.purchases(uid), owned, null);
+                        data.set(BookHiveDataSource.cart(uid), null, null);
                     }
-                    cartRef.removeValue();
+
+                    @Override
+                    public void onError(Exception error) {}
                 });
             }
         }
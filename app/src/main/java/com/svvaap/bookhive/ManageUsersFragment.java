@@ -9,22 +9,19 @@ import android.widget.Toast;
 import androidx.annotation.NonNull;
 import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.svvaap.bookhive.databinding.FragmentManageUsersBinding;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
-import java.util.ArrayList;
+import com.svvaap.bookhive.admin.UserRow;
+import com.svvaap.bookhive.data.BookHiveDataSource;
+import com.svvaap.bookhive.data.DataSources;
+import com.svvaap.bookhive.data.SnapshotProcessor;
 import java.util.List;
 
 public class ManageUsersFragment extends Fragment {
     private FragmentManageUsersBinding binding;
-    private List<User> users = new ArrayList<>();
     private UserAdapter adapter;
-    private DatabaseReference usersRef;
-    private ValueEventListener usersListener;
+    private BookHiveDataSource.Registration usersRegistration;
 
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
@@ -35,43 +32,34 @@ public class ManageUsersFragment extends Fragment {
     }
 
     private void setupRecyclerView() {
-        adapter = new UserAdapter(requireContext(), users, this::toggleUserStatus);
+        adapter = new UserAdapter(requireContext(), this::toggleUserStatus);
         binding.usersRecyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
         binding.usersRecyclerView.setAdapter(adapter);
     }
 
     private void fetchUsers() {
-        usersRef = FirebaseDatabase.getInstance().getReference("users");
-        usersListener = new ValueEventListener() {
+        usersRegistration = DataSources.processor().observe(DataSources.get(), BookHiveDataSource.USERS,
+                UserRow::list, new SnapshotProcessor.Listener<List<UserRow>>() {
             @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                users.clear();
-                for (DataSnapshot userSnap : snapshot.getChildren()) {
-                    User user = userSnap.getValue(User.class);
-                    if (user != null) {
-                        user.userId = userSnap.getKey();
-                        users.add(user);
-                    }
-                }
-                adapter.notifyDataSetChanged();
+            public void onResult(List<UserRow> users) {
+                if (binding == null) return;
+                adapter.submitList(users);
                 binding.noUsersText.setVisibility(users.isEmpty() ? View.VISIBLE : View.GONE);
             }
 
             @Override
-            public void onCancelled(@NonNull DatabaseError error) {
+            public void onError(Exception error) {
                 // Handle error
             }
-        };
-        usersRef.addValueEventListener(usersListener);
+        });
     }
 
-    private void toggleUserStatus(User user) {
+    private void toggleUserStatus(UserRow user) {
         if (user.userId == null) return;
         
         String newStatus = "active".equals(user.status) ? "suspended" : "active";
-        DatabaseReference userRef = FirebaseDatabase.getInstance().getReference("users").child(user.userId);
-        userRef.child("status").setValue(newStatus).addOnCompleteListener(task -> {
-            if (task.isSuccessful()) {
+        DataSources.get().set(BookHiveDataSource.user(user.userId) + "/status", newStatus, error -> {
+            if (error == null) {
                 Toast.makeText(getContext(), "User " + newStatus, Toast.LENGTH_SHORT).show();
             } else {
                 Toast.makeText(getContext(), "Failed to update user status", Toast.LENGTH_SHORT).show();
@@ -82,41 +70,51 @@ public class ManageUsersFragment extends Fragment {
     @Override
     public void onDestroyView() {
         super.onDestroyView();
-        if (usersRef != null && usersListener != null) {
-            usersRef.removeEventListener(usersListener);
+        if (usersRegistration != null) {
+            usersRegistration.remove();
+            usersRegistration = null;
         }
         binding = null;
     }
 
-    // User data model
-    public static class User {
-        public String userId;
-        public String name;
-        public String email;
-        public String photoUrl;
-        public String status; // "active", "suspended"
-        public String joinDate;
-        public int totalPurchases;
-
-        public User() {}
-    }
+    private static final KeyedDiff<UserRow> USER_DIFF = new KeyedDiff<UserRow>() {
+        @Override
+        protected String key(UserRow user) {
+            return user.userId;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull UserRow a, @NonNull UserRow b) {
+            return a.totalPurchases == b.totalPurchases
+                    && equal(a.name, b.name)
+                    && equal(a.email, b.email)
+                    && equal(a.photoUrl, b.photoUrl)
+                    && equal(a.status, b.status)
+                    && equal(a.joinDate, b.joinDate);
+        }
+    };
 
     // User adapter
-    private static class UserAdapter extends RecyclerView.Adapter<UserAdapter.UserViewHolder> {
-        private final List<User> userList;
+    private static class UserAdapter extends ListAdapter<UserRow, UserAdapter.UserViewHolder> {
         private final OnUserActionListener actionListener;
         private final android.content.Context context;
 
         public interface OnUserActionListener {
-            void onUserAction(User user);
+            void onUserAction(UserRow user);
         }
 
-        public UserAdapter(android.content.Context context, List<User> userList, OnUserActionListener actionListener) {
+        public UserAdapter(android.content.Context context, OnUserActionListener actionListener) {
+            super(USER_DIFF);
+            setHasStableIds(true);
             this.context = context;
-            this.userList = userList;
             this.actionListener = actionListener;
         }
 
+        @Override
+        public long getItemId(int position) {
+            return USER_DIFF.stableId(getItem(position));
+        }
+
         @NonNull
         @Override
         public UserViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
@@ -126,15 +124,10 @@ public class ManageUsersFragment extends Fragment {
 
         @Override
         public void onBindViewHolder(@NonNull UserViewHolder holder, int position) {
-            User user = userList.get(position);
+            UserRow user = getItem(position);
             holder.bind(user);
         }
 
-        @Override
-        public int getItemCount() {
-            return userList.size();
-        }
-
         class UserViewHolder extends RecyclerView.ViewHolder {
             private final TextView userNameText, userEmailText, userStatusText, joinDateText, purchasesText, actionButton;
 
@@ -148,7 +141,7 @@ public class ManageUsersFragment extends Fragment {
                 actionButton = itemView.findViewById(R.id.action_button);
             }
 
-            public void bind(User user) {
+            public void bind(UserRow user) {
                 userNameText.setText(user.name != null ? user.name : "Unknown User");
                 userEmailText.setText(user.email != null ? user.email : "No Email");
                 userStatusText.setText(user.status != null ? user.status.toUpperCase() : "ACTIVE");
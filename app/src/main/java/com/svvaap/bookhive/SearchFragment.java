@@ -1,6 +1,8 @@
 package com.svvaap.bookhive;
 
 import android.os.Bundle;
+import android.os.Handler;
+import android.os.Looper;
 import android.text.Editable;
 import android.text.TextWatcher;
 import android.view.LayoutInflater;
@@ -10,22 +12,30 @@ import androidx.annotation.NonNull;
 import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
 import com.svvaap.bookhive.databinding.FragmentSearchBinding;
-import com.svvaap.bookhive.databinding.ItemBookBinding;
 import java.util.ArrayList;
 import java.util.List;
-import com.google.firebase.database.*;
-import com.bumptech.glide.Glide;
-import androidx.navigation.Navigation;
+import com.svvaap.bookhive.data.CatalogRepository;
+import com.svvaap.bookhive.search.SearchPipeline;
 
 public class SearchFragment extends Fragment {
     private FragmentSearchBinding binding;
     private List<com.svvaap.bookhive.Book> allBooks = new ArrayList<>();
-    private BookAdapter adapter;
+    // Keystrokes closer together than this are coalesced into a single query
+    private static final long SEARCH_DEBOUNCE_MS = 150;
+    private SearchPipeline searchPipeline;
+    // Results are ranked and fetched a page at a time; scrolling near the end asks for more
+    private static final int RESULT_PAGE_SIZE = 50;
+    private int resultLimit = RESULT_PAGE_SIZE;
+    private boolean resultsMayHaveMore;
+    private BookGridAdapter adapter;
     private String initialQuery;
+    private CatalogRepository.Observer catalogObserver;
 
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
         binding = FragmentSearchBinding.inflate(inflater, container, false);
+        Handler mainHandler = new Handler(Looper.getMainLooper());
+        searchPipeline = new SearchPipeline(mainHandler::post, SEARCH_DEBOUNCE_MS);
         if (getArguments() != null) {
             initialQuery = getArguments().getString("initialQuery", null);
         }
@@ -40,63 +50,43 @@ public class SearchFragment extends Fragment {
     }
 
     private void fetchBooksFromFirebase() {
-        DatabaseReference dbRef = FirebaseDatabase.getInstance().getReference("ebooks");
-        dbRef.addValueEventListener(new ValueEventListener() {
-            @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                allBooks.clear();
-                for (DataSnapshot snap : snapshot.getChildren()) {
-                    Book book = safeMapToBook(snap);
-                    if (book != null) { book.id = snap.getKey(); allBooks.add(book); }
-                }
-                adapter.updateBooks(new ArrayList<>(allBooks));
-                String current = binding.searchInput.getText() != null ? binding.searchInput.getText().toString() : "";
-                if (current.isEmpty()) {
-                    binding.noResultsText.setVisibility(allBooks.isEmpty() ? View.VISIBLE : View.GONE);
-                } else {
-                    filterBooks(current);
-                }
+        catalogObserver = (books, change) -> {
+            if (binding == null) return;
+            allBooks.clear();
+            allBooks.addAll(books);
+            // The pipeline re-runs the current query itself once the index has caught up
+            if (change.isFullReload()) {
+                searchPipeline.rebuild(books);
+            } else {
+                // Re-index only the books this change names
+                List<com.svvaap.bookhive.Book> upserts = new ArrayList<>(change.getChanged());
+                upserts.addAll(change.getAdded());
+                List<String> removedIds = new ArrayList<>();
+                for (com.svvaap.bookhive.Book b : change.getRemoved()) removedIds.add(b.id);
+                searchPipeline.update(upserts, removedIds);
             }
-            @Override
-            public void onCancelled(@NonNull DatabaseError error) {}
-        });
-    }
-
-    private Book safeMapToBook(DataSnapshot snap) {
-        Object raw = snap.getValue();
-        if (!(raw instanceof java.util.Map)) return snap.getValue(Book.class);
-        java.util.Map map = (java.util.Map) raw;
-        Book b = new Book();
-        b.title = asString(map.get("title"));
-        b.author = asString(map.get("author"));
-        b.category = asString(map.get("category"));
-        b.language = asString(map.get("language"));
-        b.description = asString(map.get("description"));
-        b.coverImageUrl = asString(map.get("coverImageUrl"));
-        b.fileUrl = asString(map.get("fileUrl"));
-        b.visibility = asString(map.get("visibility"));
-        b.uploadDate = asString(map.get("uploadDate"));
-        b.price = asDouble(map.get("price"));
-        return b;
-    }
-
-    private String asString(Object v) {
-        return v == null ? null : String.valueOf(v);
-    }
-
-    private double asDouble(Object v) {
-        if (v instanceof Number) return ((Number) v).doubleValue();
-        if (v instanceof String) {
-            try { return Double.parseDouble((String) v); } catch (Exception ignored) {}
-        }
-        return 0d;
+            if (currentQuery().trim().isEmpty()) showAllBooks();
+        };
+        CatalogRepository.getInstance(requireContext()).observe(catalogObserver);
     }
 
     private void setupRecyclerView() {
-        adapter = new BookAdapter(new ArrayList<>(allBooks));
-        binding.searchResultsList.setLayoutManager(new LinearLayoutManager(getContext()));
-        binding.searchResultsList.setAdapter(adapter);
+        adapter = new BookGridAdapter(this::openBookDetails);
+        adapter.submitList(new ArrayList<>(allBooks));
+        adapter.attachTo(binding.searchResultsList, 1);
         binding.noResultsText.setVisibility(View.GONE);
+        binding.searchResultsList.addOnScrollListener(new androidx.recyclerview.widget.RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull androidx.recyclerview.widget.RecyclerView recyclerView, int dx, int dy) {
+                LinearLayoutManager lm = (LinearLayoutManager) recyclerView.getLayoutManager();
+                if (dy <= 0 || lm == null || !resultsMayHaveMore) return;
+                if (lm.findLastVisibleItemPosition() >= adapter.getItemCount() - 10) {
+                    resultsMayHaveMore = false;
+                    resultLimit += RESULT_PAGE_SIZE;
+                    runQuery(currentQuery(), false);
+                }
+            }
+        });
     }
 
     private void setupSearch() {
@@ -113,61 +103,56 @@ public class SearchFragment extends Fragment {
     }
 
     private void filterBooks(String query) {
-        List<com.svvaap.bookhive.Book> filtered = new ArrayList<>();
-        for (com.svvaap.bookhive.Book book : allBooks) {
-            String title = book.title != null ? book.title : "";
-            String author = book.author != null ? book.author : "";
-            if (title.toLowerCase().contains(query.toLowerCase()) ||
-                author.toLowerCase().contains(query.toLowerCase())) {
-                filtered.add(book);
-            }
+        if (query.trim().isEmpty()) {
+            // Nothing to match: show the catalog as is and drop any query still in flight
+            searchPipeline.cancel();
+            resultsMayHaveMore = false;
+            showAllBooks();
+            return;
         }
-        adapter.updateBooks(filtered);
-        binding.noResultsText.setVisibility(filtered.isEmpty() ? View.VISIBLE : View.GONE);
+        resultLimit = RESULT_PAGE_SIZE;
+        runQuery(query, true);
+    }
+
+    private void runQuery(String query, boolean debounce) {
+        // Word-prefix match on title/author, whole words in the description, near matches for
+        // misspelled names when nothing matches as typed, ranked by relevance; runs off the main
+        // thread and only the result for the latest text is delivered
+        SearchPipeline.Callback callback = (q, results) -> {
+            if (binding == null) return;
+            resultsMayHaveMore = results.size() >= resultLimit;
+            adapter.submitList(results);
+            binding.noResultsText.setVisibility(results.isEmpty() ? View.VISIBLE : View.GONE);
+        };
+        if (debounce) searchPipeline.submit(query, resultLimit, callback);
+        else searchPipeline.submitNow(query, resultLimit, callback);
+    }
+
+    private void showAllBooks() {
+        adapter.submitList(new ArrayList<>(allBooks));
+        binding.noResultsText.setVisibility(allBooks.isEmpty() ? View.VISIBLE : View.GONE);
+    }
+
+    private String currentQuery() {
+        return binding.searchInput.getText() != null ? binding.searchInput.getText().toString() : "";
     }
 
     @Override
     public void onDestroyView() {
         super.onDestroyView();
+        if (catalogObserver != null) {
+            CatalogRepository.getInstance(requireContext()).removeObserver(catalogObserver);
+            catalogObserver = null;
+        }
+        searchPipeline.shutdown();
         binding = null;
     }
 
-    // --- Adapter ---
-    class BookAdapter extends androidx.recyclerview.widget.RecyclerView.Adapter<BookAdapter.BookViewHolder> {
-        List<com.svvaap.bookhive.Book> books;
-        BookAdapter(List<com.svvaap.bookhive.Book> books) { this.books = books; }
-        void updateBooks(List<com.svvaap.bookhive.Book> newBooks) {
-            this.books = newBooks;
-            notifyDataSetChanged();
-        }
-        @NonNull
-        @Override
-        public BookViewHolder onCreateViewHolder(@NonNull ViewGroup parent, int viewType) {
-            ItemBookBinding b = ItemBookBinding.inflate(getLayoutInflater(), parent, false);
-            return new BookViewHolder(b);
-        }
-        @Override
-        public void onBindViewHolder(@NonNull BookViewHolder holder, int position) {
-            com.svvaap.bookhive.Book book = books.get(position);
-            holder.binding.bookTitle.setText(book.title);
-            holder.binding.bookAuthor.setText(book.author);
-            Glide.with(holder.binding.bookCover.getContext())
-                .load(book.coverImageUrl)
-                .placeholder(R.drawable.sample_book_cover)
-                .into(holder.binding.bookCover);
-            holder.itemView.setOnClickListener(v -> {
-                if (book.id != null) {
-                    Bundle bundle = new Bundle();
-                    bundle.putString("bookId", book.id);
-                    Navigation.findNavController(v).navigate(R.id.BookDetailFragment, bundle);
-                }
-            });
-        }
-        @Override
-        public int getItemCount() { return books.size(); }
-        class BookViewHolder extends androidx.recyclerview.widget.RecyclerView.ViewHolder {
-            ItemBookBinding binding;
-            BookViewHolder(ItemBookBinding b) { super(b.getRoot()); binding = b; }
-        }
+    private void openBookDetails(com.svvaap.bookhive.Book book) {
+        if (book.id == null) return;
+        Bundle bundle = new Bundle();
+        bundle.putString("bookId", book.id);
+        androidx.navigation.fragment.NavHostFragment.findNavController(this)
+                .navigate(R.id.BookDetailFragment, bundle);
     }
 } 
\ No newline at end of file
@@ -0,0 +1,175 @@
+package com.svvaap.bookhive;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+import android.os.SystemClock;
+import android.util.DisplayMetrics;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.svvaap.bookhive.data.CatalogRepository;
+import com.svvaap.bookhive.data.EntitlementService;
+import com.svvaap.bookhive.image.CoverLoader;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * What the home screen needs before it can draw something useful, started together while the
+ * splash is up: the signed-in user restored by Firebase Auth (with the owned set it keys), the
+ * first page of the cached catalog, and the covers of that page's first rows decoded into the
+ * memory cache. {@link Listener#onReady} fires once all three are done, or after
+ * {@link #CEILING_MS} at the latest, so a slow disk or network never holds the splash longer.
+ *
+ * <p>Each run is logged under {@code Startup} and kept in SharedPreferences
+ * ({@link #PREFS_TIMINGS}), as cold (first start in this process, timed from process start) or
+ * warm (timed from the splash's onCreate).
+ *
+ * <p>All calls and callbacks happen on the main thread.
+ */
+final class StartupSequence {
+    private static final String TAG = "Startup";
+    static final String PREFS_TIMINGS = "startup_timings";
+    private static final int KEPT_TIMINGS = 20;
+
+    /** The splash never stays up longer than this. */
+    static final long CEILING_MS = 1500;
+    // The first three rows of the home grid: about what one screen shows
+    private static final int WARM_COVERS = 3 * HomeFragment.LATEST_COLUMNS;
+
+    interface Listener {
+        void onReady();
+    }
+
+    private static boolean startedInProcess;
+
+    private final Context context;
+    private final Listener listener;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final Runnable ceiling = () -> finish(true);
+    private final boolean cold;
+    private final long startedAt;
+
+    private boolean authReady, catalogReady, coversReady;
+    private long authMs = -1, catalogMs = -1, coversMs = -1;
+    private int coversPending;
+    private boolean finished;
+
+    StartupSequence(@NonNull Context context, @NonNull Listener listener) {
+        this.context = context.getApplicationContext();
+        this.listener = listener;
+        cold = !startedInProcess;
+        startedInProcess = true;
+        startedAt = cold ? Process.getStartUptimeMillis() : SystemClock.uptimeMillis();
+    }
+
+    void start() {
+        mainHandler.postDelayed(ceiling, CEILING_MS);
+
+        // The first auth state callback comes once the persisted user has been restored
+        FirebaseAuth auth = FirebaseAuth.getInstance();
+        auth.addAuthStateListener(new FirebaseAuth.AuthStateListener() {
+            @Override
+            public void onAuthStateChanged(@NonNull FirebaseAuth a) {
+                a.removeAuthStateListener(this);
+                // Starts the owned-set subscription, seeded from its on-disk mirror
+                EntitlementService.getInstance(context);
+                authMs = elapsed();
+                authReady = true;
+                maybeFinish();
+            }
+        });
+
+        CatalogRepository.getInstance(context).peekNewest(HomeFragment.LATEST_PAGE_SIZE, books -> {
+            catalogMs = elapsed();
+            catalogReady = true;
+            warmCovers(books);
+            maybeFinish();
+        });
+    }
+
+    /** Stops waiting; the listener will not be called. */
+    void cancel() {
+        finished = true;
+        mainHandler.removeCallbacks(ceiling);
+    }
+
+    private void warmCovers(List<Book> newest) {
+        int[] size = homeCoverSize();
+        Runnable oneDone = () -> {
+            if (--coversPending == 0) {
+                coversMs = elapsed();
+                coversReady = true;
+                maybeFinish();
+            }
+        };
+        // Counted up front: a cover already in memory may report back before the loop ends
+        for (int i = 0; i < newest.size() && coversPending < WARM_COVERS; i++) {
+            if (CoverLoader.hasCover(newest.get(i).coverImageUrl)) coversPending++;
+        }
+        if (coversPending == 0) {
+            coversMs = elapsed();
+            coversReady = true;
+            return;
+        }
+        int started = 0;
+        for (int i = 0; i < newest.size() && started < coversPending; i++) {
+            Book book = newest.get(i);
+            if (!CoverLoader.hasCover(book.coverImageUrl)) continue;
+            started++;
+            CoverLoader.preload(context, book.coverImageUrl, size[0], size[1], oneDone);
+        }
+    }
+
+    /**
+     * The pixel size Glide will measure for a home grid cover: the screen less the home
+     * layout's 16dp side padding, split into columns, less each cell's 8dp padding, by the
+     * cover's fixed 160dp height. A pixel off still shares the CDN image and its disk cache
+     * entry, since those are keyed on sizes rounded to {@code CloudinaryUrls.SIZE_STEP}.
+     */
+    private int[] homeCoverSize() {
+        DisplayMetrics metrics = context.getResources().getDisplayMetrics();
+        int listWidth = metrics.widthPixels - Math.round(2 * 16 * metrics.density);
+        int width = listWidth / HomeFragment.LATEST_COLUMNS - Math.round(2 * 8 * metrics.density);
+        return new int[] {width, Math.round(160 * metrics.density)};
+    }
+
+    private void maybeFinish() {
+        if (authReady && catalogReady && coversReady) finish(false);
+    }
+
+    private void finish(boolean timedOut) {
+        if (finished) return;
+        finished = true;
+        mainHandler.removeCallbacks(ceiling);
+        record(timedOut);
+        listener.onReady();
+    }
+
+    private long elapsed() {
+        return SystemClock.uptimeMillis() - startedAt;
+    }
+
+    private void record(boolean timedOut) {
+        String line = String.format(Locale.US, "%s start ready in %d ms%s (auth %s, catalog %s, covers %s)",
+                cold ? "cold" : "warm", elapsed(), timedOut ? " at the ceiling" : "",
+                ms(authMs), ms(catalogMs), ms(coversMs));
+        Log.i(TAG, line);
+        // Newest first, bounded; read back with adb or a debugger to compare builds
+        SharedPreferences prefs = context.getSharedPreferences(PREFS_TIMINGS, Context.MODE_PRIVATE);
+        String kept = prefs.getString("runs", "");
+        String[] lines = kept.isEmpty() ? new String[0] : kept.split("\n");
+        StringBuilder runs = new StringBuilder(line);
+        for (int i = 0; i < lines.length && i < KEPT_TIMINGS - 1; i++) runs.append('\n').append(lines[i]);
+        prefs.edit().putString("runs", runs.toString()).apply();
+    }
+
+    private static String ms(long ms) {
+        return ms < 0 ? "pending" : ms + " ms";
+    }
+}
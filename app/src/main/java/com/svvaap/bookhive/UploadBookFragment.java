@@ -15,8 +15,8 @@ import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import com.google.android.material.textfield.TextInputEditText;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
+import com.svvaap.bookhive.data.BookHiveDataSource;
+import com.svvaap.bookhive.data.DataSources;
 
 import java.text.SimpleDateFormat;
 import java.util.*;
@@ -158,12 +158,12 @@ public class UploadBookFragment extends Fragment {
             bookData.put("fileUrl", pdfUrl);
             bookData.put("visibility", visibility);
             bookData.put("uploadDate", uploadDate);
+            bookData.put("updatedAt", BookHiveDataSource.SERVER_TIMESTAMP);
 
-            com.google.firebase.database.DatabaseReference dbRef = com.google.firebase.database.FirebaseDatabase.getInstance().getReference("ebooks");
             String bookId = "book" + System.currentTimeMillis();
-            dbRef.child(bookId).setValue(bookData).addOnCompleteListener(task -> {
+            DataSources.get().set(BookHiveDataSource.book(bookId), bookData, error -> {
                 buttonUploadBook.setEnabled(true);
-                if (task.isSuccessful()) {
+                if (error == null) {
                     Toast.makeText(requireContext(), "Book uploaded successfully!", Toast.LENGTH_LONG).show();
                     clearForm();
                 } else {
@@ -7,23 +7,20 @@ import android.view.ViewGroup;
 import androidx.annotation.NonNull;
 import androidx.fragment.app.Fragment;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.ListAdapter;
 import androidx.recyclerview.widget.RecyclerView;
 import com.svvaap.bookhive.databinding.FragmentViewOrdersBinding;
-import com.google.firebase.database.DataSnapshot;
-import com.google.firebase.database.DatabaseError;
-import com.google.firebase.database.DatabaseReference;
-import com.google.firebase.database.FirebaseDatabase;
-import com.google.firebase.database.ValueEventListener;
-import java.util.ArrayList;
+import com.svvaap.bookhive.admin.OrderRow;
+import com.svvaap.bookhive.data.BookHiveDataSource;
+import com.svvaap.bookhive.data.DataSources;
+import com.svvaap.bookhive.data.SnapshotProcessor;
 import java.util.List;
 import android.widget.TextView;
 
 public class ViewOrdersFragment extends Fragment {
     private FragmentViewOrdersBinding binding;
-    private List<Order> orders = new ArrayList<>();
     private OrderAdapter adapter;
-    private DatabaseReference ordersRef;
-    private ValueEventListener ordersListener;
+    private BookHiveDataSource.Registration ordersRegistration;
 
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
@@ -34,68 +31,69 @@ public class ViewOrdersFragment extends Fragment {
     }
 
     private void setupRecyclerView() {
-        adapter = new OrderAdapter(orders);
+        adapter = new OrderAdapter();
         binding.ordersRecyclerView.setLayoutManager(new LinearLayoutManager(getContext()));
         binding.ordersRecyclerView.setAdapter(adapter);
     }
 
     private void fetchOrders() {
-        ordersRef = FirebaseDatabase.getInstance().getReference("orders");
-        ordersListener = new ValueEventListener() {
+        ordersRegistration = DataSources.processor().observe(DataSources.get(), BookHiveDataSource.ORDERS,
+                OrderRow::list, new SnapshotProcessor.Listener<List<OrderRow>>() {
             @Override
-            public void onDataChange(@NonNull DataSnapshot snapshot) {
-                orders.clear();
-                for (DataSnapshot orderSnap : snapshot.getChildren()) {
-                    Order order = orderSnap.getValue(Order.class);
-                    if (order != null) {
-                        order.orderId = orderSnap.getKey();
-                        orders.add(order);
-                    }
-                }
-                adapter.notifyDataSetChanged();
+            public void onResult(List<OrderRow> orders) {
+                if (binding == null) return;
+                adapter.submitList(orders);
                 binding.noOrdersText.setVisibility(orders.isEmpty() ? View.VISIBLE : View.GONE);
             }
 
             @Override
-            public void onCancelled(@NonNull DatabaseError error) {
+            public void onError(Exception error) {
                 // Handle error
             }
-        };
-        ordersRef.addValueEventListener(ordersListener);
+        });
     }
 
     @Override
     public void onDestroyView() {
         super.onDestroyView();
-        if (ordersRef != null && ordersListener != null) {
-            ordersRef.removeEventListener(ordersListener);
+        if (ordersRegistration != null) {
+            ordersRegistration.remove();
+            ordersRegistration = null;
         }
         binding = null;
     }
 
-    // Order data model
-    public static class Order {
-        public String orderId;
-        public String userId;
-        public String userName;
-        public String userEmail;
-        public String bookId;
-        public String bookTitle;
-        public String bookAuthor;
-        public double bookPrice;
-        public String orderDate;
-        public String status; // "pending", "completed", "cancelled"
-        public String paymentMethod;
-
-        public Order() {}
-    }
+    private static final KeyedDiff<OrderRow> ORDER_DIFF = new KeyedDiff<OrderRow>() {
+        @Override
+        protected String key(OrderRow order) {
+            return order.orderId;
+        }
+
+        @Override
+        public boolean areContentsTheSame(@NonNull OrderRow a, @NonNull OrderRow b) {
+            return a.bookPrice == b.bookPrice
+                    && equal(a.userId, b.userId)
+                    && equal(a.userName, b.userName)
+                    && equal(a.userEmail, b.userEmail)
+                    && equal(a.bookId, b.bookId)
+                    && equal(a.bookTitle, b.bookTitle)
+                    && equal(a.bookAuthor, b.bookAuthor)
+                    && equal(a.orderDate, b.orderDate)
+                    && equal(a.status, b.status)
+                    && equal(a.paymentMethod, b.paymentMethod);
+        }
+    };
 
     // Order adapter
-    private class OrderAdapter extends RecyclerView.Adapter<OrderAdapter.OrderViewHolder> {
-        private List<Order> orderList;
+    private class OrderAdapter extends ListAdapter<OrderRow, OrderAdapter.OrderViewHolder> {
+        OrderAdapter() {
+            super(ORDER_DIFF);
+            setHasStableIds(true);
+        }
 
-        public OrderAdapter(List<Order> orderList) {
-            this.orderList = orderList;
+        @Override
+        public long getItemId(int position) {
+            return ORDER_DIFF.stableId(getItem(position));
         }
 
         @NonNull
@@ -107,15 +105,10 @@ public class ViewOrdersFragment extends Fragment {
 
         @Override
         public void onBindViewHolder(@NonNull OrderViewHolder holder, int position) {
-            Order order = orderList.get(position);
+            OrderRow order = getItem(position);
             holder.bind(order);
         }
 
-        @Override
-        public int getItemCount() {
-            return orderList.size();
-        }
-
         class OrderViewHolder extends RecyclerView.ViewHolder {
             private TextView orderIdText, userNameText, bookTitleText, orderDateText, statusText, priceText;
 
@@ -129,7 +122,7 @@ public class ViewOrdersFragment extends Fragment {
                 priceText = itemView.findViewById(R.id.book_price);
             }
 
-            public void bind(Order order) {
+            public void bind(OrderRow order) {
                 orderIdText.setText("Order #" + order.orderId);
                 userNameText.setText(order.userName != null ? order.userName : "Unknown User");
                 bookTitleText.setText(order.bookTitle != null ? order.bookTitle : "Unknown Book");
@@ -0,0 +1,122 @@
+package com.svvaap.bookhive.data;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.ValueEventListener;
+import com.svvaap.bookhive.Book;
+import com.svvaap.bookhive.BookCodec;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * One {@link CatalogRepository#fetchBooks} call: single-value reads of {@code ebooks/{id}}, with
+ * at most {@link #MAX_IN_FLIGHT} outstanding at a time, assembled in request order. Ids the cache
+ * could not answer are read in full. Cache hits are shown straight away and then revalidated:
+ * only their {@code updatedAt} is read, and the full node only when that differs, so an unchanged
+ * book costs a few bytes. Firebase delivers the results on the main thread, so no locking.
+ */
+class BatchBookFetch {
+    static final int MAX_IN_FLIGHT = 6;
+
+    private final DatabaseReference ebooksRef;
+    private final List<String> ids;
+    private final Map<String, Book> found;
+    private final Consumer<List<String>> onDeleted;
+    private final CatalogRepository.BooksCallback callback;
+    private final ArrayDeque<String> queue = new ArrayDeque<>();
+    private final List<String> deleted = new ArrayList<>();
+    private int inFlight;
+
+    /**
+     * @param ids       distinct ids, in the order results should come back
+     * @param found     cache hits, corrected and filled in further as reads complete
+     * @param onDeleted told, once everything is resolved, of the cache hits that no longer exist
+     */
+    BatchBookFetch(DatabaseReference ebooksRef, List<String> ids, Map<String, Book> found,
+                   Consumer<List<String>> onDeleted, CatalogRepository.BooksCallback callback) {
+        this.ebooksRef = ebooksRef;
+        this.ids = ids;
+        this.found = found;
+        this.onDeleted = onDeleted;
+        this.callback = callback;
+        queue.addAll(ids);
+    }
+
+    void start() {
+        if (queue.isEmpty()) {
+            callback.onBooks(assemble(), true);
+            return;
+        }
+        // Show what the cache had while the rest is on its way
+        if (!found.isEmpty()) callback.onBooks(assemble(), false);
+        pump();
+    }
+
+    private void pump() {
+        while (inFlight < MAX_IN_FLIGHT && !queue.isEmpty()) {
+            final String id = queue.poll();
+            inFlight++;
+            final Book cached = found.get(id);
+            if (cached == null) {
+                readBook(id);
+                continue;
+            }
+            ebooksRef.child(id).child("updatedAt").addListenerForSingleValueEvent(new ValueEventListener() {
+                @Override
+                public void onDataChange(@NonNull DataSnapshot snapshot) {
+                    Object stamp = snapshot.getValue();
+                    if (stamp != null && BookCodec.asLong(stamp) == cached.updatedAt) onReadDone();
+                    else readBook(id);
+                }
+                @Override
+                public void onCancelled(@NonNull DatabaseError error) {
+                    // Keep the cached copy
+                    onReadDone();
+                }
+            });
+        }
+    }
+
+    /** Reads the whole node; a missing node or a tombstone takes the book out of the result. */
+    private void readBook(final String id) {
+        ebooksRef.child(id).addListenerForSingleValueEvent(new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                Book book = BookCodec.decode(id, snapshot.getValue());
+                if (book != null) found.put(id, book);
+                else if (found.remove(id) != null) deleted.add(id);
+                onReadDone();
+            }
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                onReadDone();
+            }
+        });
+    }
+
+    private void onReadDone() {
+        inFlight--;
+        if (queue.isEmpty() && inFlight == 0) {
+            if (!deleted.isEmpty()) onDeleted.accept(deleted);
+            callback.onBooks(assemble(), true);
+        } else {
+            pump();
+        }
+    }
+
+    private List<Book> assemble() {
+        List<Book> books = new ArrayList<>(found.size());
+        for (String id : ids) {
+            Book b = found.get(id);
+            if (b != null) books.add(b);
+        }
+        return books;
+    }
+}
@@ -0,0 +1,162 @@
+package com.svvaap.bookhive.data;
+
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.sqlite.SQLiteDatabase;
+import android.database.sqlite.SQLiteOpenHelper;
+
+import androidx.annotation.NonNull;
+
+import com.svvaap.bookhive.Book;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * On-disk copy of the parsed catalog so screens can render before Firebase answers, and keep
+ * browsing with no network at all. Only {@link CatalogRepository} talks to it, always from its
+ * background disk executor.
+ */
+class CatalogCache extends SQLiteOpenHelper {
+    private static final String DB_NAME = "catalog_cache.db";
+    private static final int DB_VERSION = 2;
+
+    private static final String TABLE_BOOKS = "books";
+    private static final String[] COLUMNS = {
+            "id", "title", "author", "category", "language", "description",
+            "price", "coverImageUrl", "fileUrl", "visibility", "uploadDate", "updatedAt"
+    };
+    private static final int MAX_BOUND_IDS = 500;
+
+    CatalogCache(@NonNull Context context) {
+        super(context.getApplicationContext(), DB_NAME, null, DB_VERSION);
+    }
+
+    @Override
+    public void onCreate(SQLiteDatabase db) {
+        db.execSQL("CREATE TABLE " + TABLE_BOOKS + " ("
+                + "id TEXT PRIMARY KEY NOT NULL, "
+                + "title TEXT, author TEXT, category TEXT, language TEXT, description TEXT, "
+                + "price REAL NOT NULL DEFAULT 0, "
+                + "coverImageUrl TEXT, fileUrl TEXT, visibility TEXT, uploadDate TEXT, "
+                + "updatedAt INTEGER NOT NULL DEFAULT 0)");
+    }
+
+    @Override
+    public void onUpgrade(SQLiteDatabase db, int oldVersion, int newVersion) {
+        // Cached rows are disposable: the next sync repopulates them
+        db.execSQL("DROP TABLE IF EXISTS " + TABLE_BOOKS);
+        onCreate(db);
+    }
+
+    /** All cached books in key order, the same order the network listener delivers. */
+    @NonNull
+    List<Book> loadAll() {
+        List<Book> books = new ArrayList<>();
+        try (Cursor c = getReadableDatabase().query(TABLE_BOOKS, COLUMNS, null, null, null, null, "id")) {
+            while (c.moveToNext()) {
+                books.add(fromCursor(c));
+            }
+        }
+        return books;
+    }
+
+    /** Point lookups by key; ids with no cached row are simply absent from the result. */
+    @NonNull
+    Map<String, Book> loadByIds(@NonNull List<String> ids) {
+        Map<String, Book> books = new HashMap<>();
+        SQLiteDatabase db = getReadableDatabase();
+        // Stay well under SQLite's limit on bound parameters per statement
+        for (int from = 0; from < ids.size(); from += MAX_BOUND_IDS) {
+            List<String> chunk = ids.subList(from, Math.min(ids.size(), from + MAX_BOUND_IDS));
+            StringBuilder where = new StringBuilder("id IN (");
+            for (int i = 0; i < chunk.size(); i++) where.append(i == 0 ? "?" : ",?");
+            where.append(')');
+            try (Cursor c = db.query(TABLE_BOOKS, COLUMNS, where.toString(),
+                    chunk.toArray(new String[0]), null, null, null)) {
+                while (c.moveToNext()) {
+                    Book b = fromCursor(c);
+                    books.put(b.id, b);
+                }
+            }
+        }
+        return books;
+    }
+
+    /** Replaces the cached catalog with the given full snapshot. */
+    void replaceAll(@NonNull List<Book> books) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            db.delete(TABLE_BOOKS, null, null);
+            for (Book b : books) {
+                db.insert(TABLE_BOOKS, null, toValues(b));
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /** Drops the rows of books found to be deleted outside the live listener. */
+    void delete(@NonNull List<String> ids) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (String id : ids) {
+                db.delete(TABLE_BOOKS, "id = ?", new String[]{id});
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    /** Applies one incremental change set from the live listener. */
+    void apply(@NonNull CatalogChange change) {
+        SQLiteDatabase db = getWritableDatabase();
+        db.beginTransaction();
+        try {
+            for (Book b : change.getRemoved()) {
+                db.delete(TABLE_BOOKS, "id = ?", new String[]{b.id});
+            }
+            for (Book b : change.getChanged()) {
+                db.insertWithOnConflict(TABLE_BOOKS, null, toValues(b), SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            for (Book b : change.getAdded()) {
+                db.insertWithOnConflict(TABLE_BOOKS, null, toValues(b), SQLiteDatabase.CONFLICT_REPLACE);
+            }
+            db.setTransactionSuccessful();
+        } finally {
+            db.endTransaction();
+        }
+    }
+
+    private static Book fromCursor(Cursor c) {
+        Book b = new Book(c.getString(0), c.getString(1), c.getString(2), c.getString(3),
+                c.getString(4), c.getString(5), c.getDouble(6), c.getString(7),
+                c.getString(8), c.getString(9), c.getString(10));
+        b.updatedAt = c.getLong(11);
+        return b;
+    }
+
+    private static ContentValues toValues(Book b) {
+        ContentValues v = new ContentValues(COLUMNS.length);
+        v.put("id", b.id);
+        v.put("title", b.title);
+        v.put("author", b.author);
+        v.put("category", b.category);
+        v.put("language", b.language);
+        v.put("description", b.description);
+        v.put("price", b.price);
+        v.put("coverImageUrl", b.coverImageUrl);
+        v.put("fileUrl", b.fileUrl);
+        v.put("visibility", b.visibility);
+        v.put("uploadDate", b.uploadDate);
+        v.put("updatedAt", b.updatedAt);
+        return v;
+    }
+}
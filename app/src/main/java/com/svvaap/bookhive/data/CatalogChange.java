@@ -0,0 +1,57 @@
+package com.svvaap.bookhive.data;
+
+import androidx.annotation.NonNull;
+
+import com.svvaap.bookhive.Book;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Minimal change set emitted by {@link CatalogRepository} for one batch of child events.
+ * A {@link #isFullReload() full reload} means observers should rebuild from the whole list;
+ * otherwise only the books named here were touched.
+ */
+public class CatalogChange {
+    private static final CatalogChange FULL = new CatalogChange(true);
+
+    private final boolean fullReload;
+    final List<Book> added = new ArrayList<>();
+    final List<Book> changed = new ArrayList<>();
+    final List<Book> removed = new ArrayList<>();
+
+    CatalogChange(boolean fullReload) {
+        this.fullReload = fullReload;
+    }
+
+    static CatalogChange fullReload() {
+        return FULL;
+    }
+
+    public boolean isFullReload() {
+        return fullReload;
+    }
+
+    public boolean isEmpty() {
+        return !fullReload && added.isEmpty() && changed.isEmpty() && removed.isEmpty();
+    }
+
+    /** Books that were not in the catalog before this batch. */
+    @NonNull
+    public List<Book> getAdded() {
+        return Collections.unmodifiableList(added);
+    }
+
+    /** New versions of books that already existed (content or position changed). */
+    @NonNull
+    public List<Book> getChanged() {
+        return Collections.unmodifiableList(changed);
+    }
+
+    /** Last known versions of books that left the catalog. */
+    @NonNull
+    public List<Book> getRemoved() {
+        return Collections.unmodifiableList(removed);
+    }
+}
@@ -0,0 +1,692 @@
+package com.svvaap.bookhive.data;
+
+import android.content.Context;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+import com.svvaap.bookhive.Book;
+import com.svvaap.bookhive.BookCodec;
+import com.svvaap.bookhive.search.FacetIndex;
+import com.svvaap.bookhive.search.SuggestionTrie;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+
+/**
+ * Process-wide holder of the parsed {@code ebooks} catalog. Screens register an {@link Observer}
+ * instead of attaching their own listener: the first observer opens the single Firebase
+ * subscription and the last one to leave closes it, so moving between tabs reuses one download
+ * and one parsed snapshot.
+ *
+ * <p>The subscription is child-granular: each added/changed/removed event patches the key-ordered
+ * in-memory list in place and observers receive a {@link CatalogChange} naming only the books
+ * that moved, so a visibility toggle costs O(1) instead of a re-walk of the whole node. Events
+ * arriving in the same main-loop turn are coalesced into one change set. The main thread only
+ * queues each child's snapshot; turning it into a value and decoding the book happens on a
+ * background thread, and the decoded batch is applied back on the main thread in arrival order.
+ *
+ * <p>Every change is also written through to an on-disk {@link CatalogCache}. On a cold start
+ * the cached rows are published as soon as they are read, before the network answers, and the
+ * live sync then reconciles them in the background; with no network the cache is all there is.
+ * The fastest path is a memory-mapped {@link CatalogSnapshot} written newest-first, from which the
+ * first screenful is decoded and published before the rest of the records; the SQLite rows are
+ * the fallback when no valid snapshot exists.
+ *
+ * <p>Writers stamp every book with a server {@code updatedAt} and delete by leaving a tombstone,
+ * so the newest stamp seen is a resume cursor. Once the cache has produced one, the subscription
+ * is a delta query ({@code orderByChild("updatedAt").startAt(cursor)}) that transfers only books
+ * written since; without one (first run, or a catalog that predates the stamps) it falls back to a
+ * full sync of the node. The delta query needs {@code ".indexOn": "updatedAt"} on {@code ebooks}
+ * in the database rules, otherwise the server sends the whole node and filters on the client.
+ */
+public class CatalogRepository {
+
+    /** Keep the subscription alive briefly so a tab switch does not drop and re-download it. */
+    private static final long RELEASE_DELAY_MS = 30_000;
+
+    public interface Observer {
+        /**
+         * @param books  the whole catalog in key order; a live read-only view, copy it to keep it
+         * @param change what differs from the previous callback
+         */
+        void onCatalogChanged(@NonNull List<Book> books, @NonNull CatalogChange change);
+    }
+
+    public interface BooksCallback {
+        /**
+         * @param books    the books found so far, in request order; ids that do not exist are skipped
+         * @param complete false for an early delivery of cache hits, true once every id is resolved
+         */
+        void onBooks(@NonNull List<Book> books, boolean complete);
+    }
+
+    private static final String TAG = "CatalogRepository";
+    private static final String SNAPSHOT_FILE = "catalog.bin";
+    /** Records decoded and published before the remainder of the snapshot. */
+    private static final int SNAPSHOT_FIRST_PAGE = 30;
+    private static final long SNAPSHOT_WRITE_DELAY_MS = 5_000;
+
+    private static final java.util.Comparator<Book> KEY_ORDER = (a, b) -> a.id.compareTo(b.id);
+
+    private static volatile CatalogRepository instance;
+
+    private final DatabaseReference ebooksRef;
+    private final CatalogCache cache;
+    private final java.io.File snapshotFile;
+    private final Runnable snapshotWriteRunnable = this::writeSnapshot;
+    private final ExecutorService diskExecutor = Executors.newSingleThreadExecutor();
+    // Single-threaded, so decoded batches are posted back in the order their events arrived
+    private final ExecutorService decodeExecutor = Executors.newSingleThreadExecutor();
+    private final Runnable decodeRunnable = this::decodePending;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<Observer> observers = new ArrayList<>();
+    private final Runnable releaseRunnable = this::unsubscribe;
+    private final Runnable flushRunnable = this::flush;
+
+    private final List<Book> books = new ArrayList<>();
+    private final List<Book> booksView = Collections.unmodifiableList(books);
+    private final Map<String, Integer> positions = new HashMap<>();
+    // Built on demand; only touched on the disk executor
+    private SuggestionTrie suggestions;
+    private FacetIndex facets;
+    // The catalogVersion the facets were built from, -1 for the snapshot; disk executor only
+    private int facetsVersion = -1;
+    // Bumped on every dispatch, so facets built from an older catalog are rebuilt
+    private int catalogVersion;
+
+    // Pending change set, coalesced until the next flush
+    private final Map<String, Book> pendingAdded = new LinkedHashMap<>();
+    private final Map<String, Book> pendingChanged = new LinkedHashMap<>();
+    private final Map<String, Book> pendingRemoved = new LinkedHashMap<>();
+    private boolean flushScheduled;
+
+    private Query ebooksQuery;
+    private ChildEventListener ebooksListener;
+    private ValueEventListener initialLoadListener;
+    // Child events waiting for the decode executor; guarded by itself
+    private final List<ChildEvent> inbox = new ArrayList<>();
+    private boolean decodeScheduled;
+    // Bumped on unsubscribe so batches still being decoded for the old subscription are dropped
+    private int subscription;
+    private final Set<String> syncedKeys = new HashSet<>();
+    private boolean syncing;
+    private boolean loaded;
+    // The cursor comes from the cache, so the subscription waits for the cache read to finish
+    private boolean cacheReadStarted;
+    private boolean cacheRead;
+    private boolean subscribeOnCacheRead;
+    /** Highest {@code updatedAt} applied to {@link #books}, tombstones included. */
+    private long cursor;
+
+    // private constructor : singleton access
+    private CatalogRepository(Context context) {
+        ebooksRef = FirebaseDatabase.getInstance().getReference("ebooks");
+        cache = new CatalogCache(context);
+        snapshotFile = new java.io.File(context.getFilesDir(), SNAPSHOT_FILE);
+    }
+
+    public static CatalogRepository getInstance(@NonNull Context context) {
+        if (instance == null) {
+            synchronized (CatalogRepository.class) {
+                if (instance == null) {
+                    instance = new CatalogRepository(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Registers an observer and delivers the current snapshot right away if one is loaded.
+     * Must be paired with {@link #removeObserver(Observer)}, typically from onDestroyView.
+     */
+    public void observe(@NonNull Observer observer) {
+        if (observers.contains(observer)) return;
+        observers.add(observer);
+        mainHandler.removeCallbacks(releaseRunnable);
+        if (!cacheReadStarted) {
+            // Deferred to the first observer so peekNewest() alone never loads the whole catalog
+            cacheReadStarted = true;
+            loadFromCache();
+        }
+        subscribe();
+        if (loaded) observer.onCatalogChanged(booksView, CatalogChange.fullReload());
+    }
+
+    public void removeObserver(@NonNull Observer observer) {
+        observers.remove(observer);
+        if (observers.isEmpty()) {
+            mainHandler.removeCallbacks(releaseRunnable);
+            mainHandler.postDelayed(releaseRunnable, RELEASE_DELAY_MS);
+        }
+    }
+
+    /** Current parsed snapshot (read-only view, key order); empty until the first load. */
+    @NonNull
+    public List<Book> getBooks() {
+        return booksView;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    @Nullable
+    public Book findBook(@Nullable String bookId) {
+        if (bookId == null) return null;
+        Integer pos = positions.get(bookId);
+        return pos != null ? books.get(pos) : null;
+    }
+
+    /**
+     * Reads up to {@code limit} of the newest cached books straight from the snapshot, without
+     * loading the rest of the catalog or opening a subscription. Delivers an empty list on the
+     * main thread when there is no snapshot yet.
+     */
+    public void peekNewest(int limit, @NonNull Consumer<List<Book>> callback) {
+        peekNewest(0, limit, callback);
+    }
+
+    /** Like {@link #peekNewest(int, Consumer)}, skipping the newest {@code offset} books. */
+    public void peekNewest(int offset, int limit, @NonNull Consumer<List<Book>> callback) {
+        diskExecutor.execute(() -> {
+            List<Book> newest = new ArrayList<>();
+            if (snapshotFile.exists()) {
+                try {
+                    CatalogSnapshot snapshot = CatalogSnapshot.open(snapshotFile);
+                    int from = Math.min(offset, snapshot.size());
+                    newest = snapshot.books(from, Math.min(from + limit, snapshot.size()));
+                } catch (Exception e) {
+                    Log.w(TAG, "Catalog snapshot unreadable", e);
+                }
+            }
+            final List<Book> result = newest;
+            mainHandler.post(() -> callback.accept(result));
+        });
+    }
+
+    /**
+     * Title/author autocomplete built from the cached catalog, delivered on the main thread.
+     * Built on the disk executor on first use and kept until the snapshot is next rewritten;
+     * like {@link #peekNewest} it neither loads the catalog into memory nor opens a subscription.
+     * Delivers an empty trie when nothing is cached yet.
+     */
+    public void loadSuggestions(@NonNull Consumer<SuggestionTrie> callback) {
+        diskExecutor.execute(() -> {
+            if (suggestions == null) {
+                suggestions = new SuggestionTrie.Builder().addCatalog(readSnapshot()).build();
+            }
+            final SuggestionTrie result = suggestions;
+            mainHandler.post(() -> callback.accept(result));
+        });
+    }
+
+    /**
+     * Category/language/visibility/price facets of the catalog, newest book first, on the main
+     * thread. Built from the catalog in memory once it is loaded, so they follow every change an
+     * observer has been told about; before that from the snapshot, without loading the catalog.
+     * Cached until the catalog changes.
+     */
+    public void loadFacets(@NonNull Consumer<FacetIndex> callback) {
+        final List<Book> live = loaded ? new ArrayList<>(books) : null;
+        final int version = live != null ? catalogVersion : -1;
+        diskExecutor.execute(() -> {
+            if (facets == null || facetsVersion != version) {
+                if (live != null) Collections.sort(live, Book.NEWEST_FIRST);
+                facets = new FacetIndex(live != null ? live : readSnapshot());
+                facetsVersion = version;
+            }
+            final FacetIndex result = facets;
+            mainHandler.post(() -> callback.accept(result));
+        });
+    }
+
+    /** Runs on the disk executor. Every snapshot record, newest first; empty when there is none. */
+    private List<Book> readSnapshot() {
+        if (!snapshotFile.exists()) return Collections.emptyList();
+        try {
+            CatalogSnapshot snapshot = CatalogSnapshot.open(snapshotFile);
+            return snapshot.books(0, snapshot.size());
+        } catch (Exception e) {
+            Log.w(TAG, "Catalog snapshot unreadable", e);
+            return Collections.emptyList();
+        }
+    }
+
+    /**
+     * Resolves a handful of books by id without downloading the catalog. Ids already held in
+     * memory or in the disk cache are answered from there straight away and then revalidated
+     * against their {@code updatedAt}; the rest become point reads of {@code ebooks/{id}} with
+     * bounded parallelism (see {@link BatchBookFetch}). The callback runs on the main thread,
+     * once with the cache hits and once when every id is resolved, with changed books updated
+     * and deleted ones left out.
+     *
+     * <p>Fetched books are deliberately not written to the cache: its newest {@code updatedAt}
+     * is the delta-sync cursor, and a book stored out of band could move it past changes that
+     * were never applied. Books found deleted are evicted from it, which can only move the
+     * cursor back.
+     */
+    public void fetchBooks(@NonNull Collection<String> bookIds, @NonNull BooksCallback callback) {
+        final List<String> ids = new ArrayList<>(new LinkedHashSet<>(bookIds));
+        final Map<String, Book> found = new HashMap<>();
+        final List<String> misses = new ArrayList<>();
+        for (String id : ids) {
+            Book b = findBook(id);
+            if (b != null) found.put(id, b);
+            else misses.add(id);
+        }
+        if (misses.isEmpty()) {
+            new BatchBookFetch(ebooksRef, ids, found, this::evict, callback).start();
+            return;
+        }
+        diskExecutor.execute(() -> {
+            Map<String, Book> cached;
+            try {
+                cached = cache.loadByIds(misses);
+            } catch (Exception e) {
+                Log.w(TAG, "Catalog cache unreadable", e);
+                cached = Collections.emptyMap();
+            }
+            final Map<String, Book> hits = cached;
+            mainHandler.post(() -> {
+                found.putAll(hits);
+                new BatchBookFetch(ebooksRef, ids, found, this::evict, callback).start();
+            });
+        });
+    }
+
+    private void evict(List<String> bookIds) {
+        final List<String> gone = new ArrayList<>(bookIds);
+        diskExecutor.execute(() -> {
+            try {
+                cache.delete(gone);
+            } catch (Exception e) {
+                Log.w(TAG, "Failed to update catalog cache", e);
+            }
+        });
+    }
+
+    private void subscribe() {
+        if (ebooksListener != null) return;
+        if (!cacheRead) {
+            subscribeOnCacheRead = true;
+            return;
+        }
+        ebooksListener = new ChildEventListener() {
+            @Override
+            public void onChildAdded(@NonNull DataSnapshot snap, @Nullable String previousChildName) {
+                enqueue(new ChildEvent(subscription, snap.getKey(), snap, null));
+            }
+            @Override
+            public void onChildChanged(@NonNull DataSnapshot snap, @Nullable String previousChildName) {
+                enqueue(new ChildEvent(subscription, snap.getKey(), snap, null));
+            }
+            @Override
+            public void onChildRemoved(@NonNull DataSnapshot snap) {
+                enqueue(new ChildEvent(subscription, snap.getKey(), null, null));
+            }
+            @Override
+            public void onChildMoved(@NonNull DataSnapshot snap, @Nullable String previousChildName) {
+                // The list is kept in key order whatever order the query delivers in
+            }
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {}
+        };
+
+        if (cursor > 0) {
+            // startAt rather than startAfter: two writes can share a millisecond, and the book
+            // that set the cursor comes back as an unchanged revision that apply() skips
+            ebooksQuery = ebooksRef.orderByChild("updatedAt").startAt(cursor);
+            ebooksQuery.addChildEventListener(ebooksListener);
+            return;
+        }
+
+        ebooksQuery = ebooksRef;
+        ebooksQuery.addChildEventListener(ebooksListener);
+
+        // A value event on the same location fires only after every initial child event and is
+        // served from the data the child listener already synced, so it marks "initial sync done".
+        // On a re-subscribe the list is still populated; books not replayed were deleted meanwhile.
+        syncing = true;
+        syncedKeys.clear();
+        initialLoadListener = new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                initialLoadListener = null;
+                // Queued behind the child events, so it runs once they have all been applied
+                enqueue(new ChildEvent(subscription, null, null, () -> {
+                    dropUnsynced();
+                    syncedKeys.clear();
+                    syncing = false;
+                    loaded = true;
+                    clearPending();
+                    persist(CatalogChange.fullReload());
+                    dispatch(CatalogChange.fullReload());
+                }));
+            }
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                initialLoadListener = null;
+                syncing = false;
+            }
+        };
+        ebooksQuery.addListenerForSingleValueEvent(initialLoadListener);
+    }
+
+    private void loadFromCache() {
+        diskExecutor.execute(() -> {
+            List<Book> cached = loadFromSnapshot();
+            if (cached == null) {
+                try {
+                    cached = cache.loadAll();
+                } catch (Exception e) {
+                    Log.w(TAG, "Catalog cache unreadable", e);
+                    cached = new ArrayList<>();
+                }
+            }
+            publishCached(cached, true);
+        });
+    }
+
+    /**
+     * Runs on the disk executor. Publishes the first page straight away and returns every record,
+     * or null when there is no usable snapshot.
+     */
+    @Nullable
+    private List<Book> loadFromSnapshot() {
+        if (!snapshotFile.exists()) return null;
+        try {
+            CatalogSnapshot snapshot = CatalogSnapshot.open(snapshotFile);
+            int firstPage = Math.min(SNAPSHOT_FIRST_PAGE, snapshot.size());
+            List<Book> cached = snapshot.books(0, firstPage);
+            if (firstPage < snapshot.size()) {
+                publishCached(new ArrayList<>(cached), false);
+                cached.addAll(snapshot.books(firstPage, snapshot.size()));
+            }
+            return cached;
+        } catch (Exception e) {
+            Log.w(TAG, "Catalog snapshot unreadable, falling back to cache rows", e);
+            snapshotFile.delete();
+            return null;
+        }
+    }
+
+    /** @param complete whether {@code cached} is the whole cache, which then yields the cursor */
+    private void publishCached(List<Book> cached, boolean complete) {
+        long cachedCursor = 0;
+        for (Book b : cached) cachedCursor = Math.max(cachedCursor, b.updatedAt);
+        final long resumeFrom = cachedCursor;
+        Collections.sort(cached, KEY_ORDER);
+        mainHandler.post(() -> {
+            if (!cached.isEmpty()) {
+                books.clear();
+                positions.clear();
+                books.addAll(cached);
+                reindexFrom(0);
+                loaded = true;
+                dispatch(CatalogChange.fullReload());
+            }
+            if (!complete) return;
+            cacheRead = true;
+            cursor = Math.max(cursor, resumeFrom);
+            if (subscribeOnCacheRead) {
+                subscribeOnCacheRead = false;
+                if (!observers.isEmpty()) subscribe();
+            }
+        });
+    }
+
+    private void persist(CatalogChange change) {
+        final List<Book> snapshot = change.isFullReload() ? new ArrayList<>(books) : null;
+        diskExecutor.execute(() -> {
+            try {
+                if (snapshot != null) cache.replaceAll(snapshot);
+                else cache.apply(change);
+            } catch (Exception e) {
+                Log.w(TAG, "Failed to update catalog cache", e);
+            }
+        });
+        // Rewriting the snapshot is O(catalog); batch bursts of changes into one write
+        mainHandler.removeCallbacks(snapshotWriteRunnable);
+        if (change.isFullReload()) writeSnapshot();
+        else mainHandler.postDelayed(snapshotWriteRunnable, SNAPSHOT_WRITE_DELAY_MS);
+    }
+
+    private void writeSnapshot() {
+        // Newest first, so the first page decoded on the next launch is what Home shows first
+        final List<Book> newestFirst = new ArrayList<>(books);
+        diskExecutor.execute(() -> {
+            Collections.sort(newestFirst, Book.NEWEST_FIRST);
+            try {
+                CatalogSnapshot.write(snapshotFile, newestFirst);
+            } catch (Exception e) {
+                Log.w(TAG, "Failed to write catalog snapshot", e);
+            }
+            // Rebuilt from the new snapshot the next time they are asked for
+            suggestions = null;
+            facets = null;
+        });
+    }
+
+    private void unsubscribe() {
+        if (!observers.isEmpty()) return;
+        subscribeOnCacheRead = false;
+        if (ebooksListener == null) return;
+        ebooksQuery.removeEventListener(ebooksListener);
+        ebooksListener = null;
+        subscription++;
+        if (initialLoadListener != null) {
+            ebooksQuery.removeEventListener(initialLoadListener);
+            initialLoadListener = null;
+            syncing = false;
+        }
+        ebooksQuery = null;
+    }
+
+    // --- Decoding child events off the main thread ---
+
+    /** One child event from the subscription: a snapshot, a removal, or the end of the initial sync. */
+    private static final class ChildEvent {
+        final int subscription;
+        final String key;
+        /** Null for a removal or a marker. */
+        @Nullable
+        final DataSnapshot snap;
+        @Nullable
+        final Runnable marker;
+        // Filled in on the decode executor
+        Book book;
+        long updatedAt;
+
+        ChildEvent(int subscription, String key, @Nullable DataSnapshot snap, @Nullable Runnable marker) {
+            this.subscription = subscription;
+            this.key = key;
+            this.snap = snap;
+            this.marker = marker;
+        }
+    }
+
+    private void enqueue(ChildEvent event) {
+        synchronized (inbox) {
+            inbox.add(event);
+            if (decodeScheduled) return;
+            decodeScheduled = true;
+        }
+        decodeExecutor.execute(decodeRunnable);
+    }
+
+    /** Runs on the decode executor: decodes everything queued and applies it in one main-loop turn. */
+    private void decodePending() {
+        final List<ChildEvent> batch;
+        synchronized (inbox) {
+            batch = new ArrayList<>(inbox);
+            inbox.clear();
+            decodeScheduled = false;
+        }
+        for (ChildEvent e : batch) {
+            if (e.snap == null) continue;
+            Object value = e.snap.getValue();
+            e.updatedAt = BookCodec.updatedAt(value);
+            e.book = BookCodec.decode(e.key, value);
+        }
+        mainHandler.post(() -> {
+            for (ChildEvent e : batch) {
+                if (e.subscription != subscription) continue;
+                if (e.marker != null) e.marker.run();
+                else if (e.snap == null) remove(e.key);
+                else apply(e);
+            }
+        });
+    }
+
+    /** Applies one added/changed child: a new revision, or a tombstone that removes the book. */
+    private void apply(ChildEvent event) {
+        cursor = Math.max(cursor, event.updatedAt);
+        Book book = event.book;
+        if (book == null) {
+            remove(event.key);
+            return;
+        }
+        if (syncing) syncedKeys.add(book.id);
+        Book current = findBook(book.id);
+        if (current == null) {
+            insertSorted(book);
+            recordAdded(book);
+        } else if (book.updatedAt == 0 || book.updatedAt != current.updatedAt) {
+            replace(book);
+        }
+    }
+
+    // --- In-place patching of the ordered list ---
+
+    private void insertSorted(Book book) {
+        int index = Collections.binarySearch(books, book, KEY_ORDER);
+        if (index < 0) index = -index - 1;
+        if (index == books.size()) {
+            positions.put(book.id, books.size());
+            books.add(book);
+            return;
+        }
+        books.add(index, book);
+        reindexFrom(index);
+    }
+
+    private void replace(Book book) {
+        int pos = positions.get(book.id);
+        books.set(pos, book);
+        recordChanged(book);
+    }
+
+    private void remove(@Nullable String key) {
+        Integer pos = key != null ? positions.get(key) : null;
+        if (pos == null) return;
+        recordRemoved(removeAt(pos));
+    }
+
+    private Book removeAt(int index) {
+        Book removed = books.remove(index);
+        positions.remove(removed.id);
+        reindexFrom(index);
+        return removed;
+    }
+
+    private void dropUnsynced() {
+        int kept = 0;
+        for (int i = 0; i < books.size(); i++) {
+            Book b = books.get(i);
+            if (syncedKeys.contains(b.id)) books.set(kept++, b);
+            else positions.remove(b.id);
+        }
+        books.subList(kept, books.size()).clear();
+        reindexFrom(0);
+    }
+
+    private void reindexFrom(int index) {
+        for (int i = index; i < books.size(); i++) {
+            positions.put(books.get(i).id, i);
+        }
+    }
+
+    // --- Change-set bookkeeping ---
+
+    private void recordAdded(Book book) {
+        if (pendingRemoved.remove(book.id) != null) {
+            pendingChanged.put(book.id, book);
+        } else {
+            pendingAdded.put(book.id, book);
+        }
+        scheduleFlush();
+    }
+
+    private void recordChanged(Book book) {
+        if (pendingAdded.containsKey(book.id)) {
+            pendingAdded.put(book.id, book);
+        } else {
+            pendingChanged.put(book.id, book);
+        }
+        scheduleFlush();
+    }
+
+    private void recordRemoved(Book book) {
+        if (pendingAdded.remove(book.id) == null) {
+            pendingChanged.remove(book.id);
+            pendingRemoved.put(book.id, book);
+        }
+        scheduleFlush();
+    }
+
+    private void scheduleFlush() {
+        // Children streamed during the initial sync are announced as one full reload
+        if (syncing || flushScheduled) return;
+        flushScheduled = true;
+        mainHandler.post(flushRunnable);
+    }
+
+    private void flush() {
+        flushScheduled = false;
+        CatalogChange change = new CatalogChange(false);
+        change.added.addAll(pendingAdded.values());
+        change.changed.addAll(pendingChanged.values());
+        change.removed.addAll(pendingRemoved.values());
+        clearPending();
+        if (change.isEmpty()) return;
+        persist(change);
+        dispatch(change);
+    }
+
+    private void clearPending() {
+        pendingAdded.clear();
+        pendingChanged.clear();
+        pendingRemoved.clear();
+    }
+
+    private void dispatch(CatalogChange change) {
+        catalogVersion++;
+        // Copy so observers may unregister themselves from the callback
+        for (Observer o : new ArrayList<>(observers)) {
+            o.onCatalogChanged(booksView, change);
+        }
+    }
+}
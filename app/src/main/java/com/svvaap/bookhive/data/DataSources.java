@@ -0,0 +1,70 @@
+package com.svvaap.bookhive.data;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.Process;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.FirebaseDatabase;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The {@link BookHiveDataSource} screens read and write through: Firebase, unless
+ * {@link #install} put another one in its place (e.g. an {@link InMemoryDataSource} loaded with a
+ * generated dataset, for a scale run on a device without a Firebase project). Screens that show
+ * a whole node build their rows through {@link #processor()}.
+ */
+public final class DataSources {
+    /** Leaves a core to the UI thread; the lanes are per screen, so a few workers suffice. */
+    private static final int WORKERS = Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors() - 1));
+
+    private static volatile BookHiveDataSource source;
+    private static volatile SnapshotProcessor processor;
+
+    private DataSources() {}
+
+    @NonNull
+    public static BookHiveDataSource get() {
+        BookHiveDataSource s = source;
+        if (s == null) {
+            synchronized (DataSources.class) {
+                if (source == null) source = new FirebaseDataSource(FirebaseDatabase.getInstance());
+                s = source;
+            }
+        }
+        return s;
+    }
+
+    /** Builds view models on background workers and delivers them on the main thread. */
+    @NonNull
+    public static SnapshotProcessor processor() {
+        SnapshotProcessor p = processor;
+        if (p == null) {
+            synchronized (DataSources.class) {
+                if (processor == null) {
+                    AtomicInteger count = new AtomicInteger();
+                    ExecutorService workers = Executors.newFixedThreadPool(WORKERS, r -> {
+                        Thread t = new Thread(() -> {
+                            Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                            r.run();
+                        }, "snapshot-worker-" + count.incrementAndGet());
+                        t.setDaemon(true);
+                        return t;
+                    });
+                    processor = new SnapshotProcessor(workers, new Handler(Looper.getMainLooper())::post);
+                }
+                p = processor;
+            }
+        }
+        return p;
+    }
+
+    /** Replaces the data source; call before the first screen reads anything. */
+    public static void install(@NonNull BookHiveDataSource replacement) {
+        source = replacement;
+    }
+}
@@ -0,0 +1,185 @@
+package com.svvaap.bookhive.data;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.firebase.auth.FirebaseAuth;
+import com.google.firebase.auth.FirebaseUser;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The signed-in user's owned book ids, kept in memory so screens can ask {@link #isOwned(String)}
+ * without a round trip. There is one live child subscription on {@code purchases/{uid}} per
+ * signed-in user, opened on sign-in and closed on sign-out; each purchase patches the set and
+ * observers are told once per main-loop turn. The set is also mirrored to SharedPreferences so
+ * ownership is known on a cold start before the subscription answers. Child events only report
+ * what changes while subscribed, so a full read after subscribing drops any cached id the server
+ * no longer has, e.g. a purchase refunded while the app was closed.
+ *
+ * <p>All calls and callbacks happen on the main thread.
+ */
+public class EntitlementService {
+
+    public interface Listener {
+        /** @param owned the current owned ids; a live read-only view, copy it to keep it */
+        void onEntitlementsChanged(@NonNull Set<String> owned);
+    }
+
+    private static final String PREFS_PURCHASES = "purchased_books";
+
+    private static volatile EntitlementService instance;
+
+    private final SharedPreferences prefs;
+    private final Handler mainHandler = new Handler(Looper.getMainLooper());
+    private final List<Listener> listeners = new ArrayList<>();
+    private final Runnable dispatchRunnable = this::dispatch;
+
+    private final Set<String> owned = new HashSet<>();
+    private final Set<String> ownedView = Collections.unmodifiableSet(owned);
+
+    @Nullable
+    private String uid;
+    @Nullable
+    private BookHiveDataSource.Registration purchases;
+    private boolean dispatchScheduled;
+
+    // private constructor : singleton access
+    private EntitlementService(Context context) {
+        prefs = context.getSharedPreferences(PREFS_PURCHASES, Context.MODE_PRIVATE);
+        FirebaseAuth auth = FirebaseAuth.getInstance();
+        // Fires once right away with the current user, then on every sign-in and sign-out
+        auth.addAuthStateListener(a -> {
+            FirebaseUser user = a.getCurrentUser();
+            switchUser(user != null ? user.getUid() : null);
+        });
+        FirebaseUser user = auth.getCurrentUser();
+        switchUser(user != null ? user.getUid() : null);
+    }
+
+    public static EntitlementService getInstance(@NonNull Context context) {
+        if (instance == null) {
+            synchronized (EntitlementService.class) {
+                if (instance == null) {
+                    instance = new EntitlementService(context.getApplicationContext());
+                }
+            }
+        }
+        return instance;
+    }
+
+    /** False when signed out or when the user does not own {@code bookId}. */
+    public boolean isOwned(@Nullable String bookId) {
+        return bookId != null && owned.contains(bookId);
+    }
+
+    @NonNull
+    public Set<String> getOwnedIds() {
+        return ownedView;
+    }
+
+    /** Whether a user is signed in; when not, the owned set is always empty. */
+    public boolean isSignedIn() {
+        return uid != null;
+    }
+
+    /**
+     * Registers a listener and delivers the current set right away. Must be paired with
+     * {@link #removeListener(Listener)}, typically from onDestroyView.
+     */
+    public void addListener(@NonNull Listener listener) {
+        if (listeners.contains(listener)) return;
+        listeners.add(listener);
+        listener.onEntitlementsChanged(ownedView);
+    }
+
+    public void removeListener(@NonNull Listener listener) {
+        listeners.remove(listener);
+    }
+
+    private void switchUser(@Nullable String newUid) {
+        if (newUid == null ? uid == null : newUid.equals(uid)) return;
+        if (purchases != null) {
+            purchases.remove();
+            purchases = null;
+        }
+        uid = newUid;
+        owned.clear();
+        if (newUid != null) {
+            Set<String> cached = prefs.getStringSet(newUid, null);
+            if (cached != null) owned.addAll(cached);
+            subscribe(newUid);
+        }
+        scheduleDispatch();
+    }
+
+    private void subscribe(String userId) {
+        final BookHiveDataSource.Registration registration = DataSources.get().observeChildren(
+                BookHiveDataSource.purchases(userId),
+                new BookHiveDataSource.ChildListener() {
+                    @Override
+                    public void onChild(String bookId, Object value) {
+                        apply(bookId, value);
+                    }
+                    @Override
+                    public void onError(Exception error) {}
+                });
+        purchases = registration;
+        // Made after the subscription, so it answers once the initial child events are in
+        DataSources.get().get(BookHiveDataSource.purchases(userId), new BookHiveDataSource.ValueListener() {
+            @Override
+            public void onValue(Object value) {
+                // Ignored when the user has changed since
+                if (purchases == registration) reconcile(value);
+            }
+            @Override
+            public void onError(Exception error) {}
+        });
+    }
+
+    /** Purchases are stored as {@code purchases/{uid}/{bookId} = true}; removal reports null. */
+    private void apply(String bookId, @Nullable Object value) {
+        boolean changed = Boolean.TRUE.equals(value)
+                ? owned.add(bookId)
+                : owned.remove(bookId);
+        if (changed) scheduleDispatch();
+    }
+
+    /** Makes the owned set exactly the purchases in a full read of {@code purchases/{uid}}. */
+    private void reconcile(@Nullable Object value) {
+        Set<String> server = new HashSet<>();
+        if (value instanceof Map) {
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+                if (Boolean.TRUE.equals(e.getValue())) server.add((String) e.getKey());
+            }
+        }
+        boolean changed = owned.retainAll(server);
+        changed |= owned.addAll(server);
+        if (changed) scheduleDispatch();
+    }
+
+    private void scheduleDispatch() {
+        // The initial sync replays every purchase as its own child event; announce them once
+        if (dispatchScheduled) return;
+        dispatchScheduled = true;
+        mainHandler.post(dispatchRunnable);
+    }
+
+    private void dispatch() {
+        dispatchScheduled = false;
+        if (uid != null) prefs.edit().putStringSet(uid, new HashSet<>(owned)).apply();
+        for (Listener l : new ArrayList<>(listeners)) {
+            l.onEntitlementsChanged(ownedView);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.svvaap.bookhive.data;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.google.firebase.database.ChildEventListener;
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.ServerValue;
+import com.google.firebase.database.ValueEventListener;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link BookHiveDataSource} over the Firebase Realtime Database. Listeners are called on the
+ * main thread, where Firebase delivers, unless given an executor. Snapshots are handed over as
+ * plain values with children in key order, the order {@link DataSnapshot#getChildren()} walks
+ * them in, and {@link #SERVER_TIMESTAMP} is written as {@link ServerValue#TIMESTAMP}.
+ *
+ * <p>A {@link DataSnapshot} is immutable, so with an executor the main thread only passes it on
+ * and the walk that turns it into a value runs on the executor.
+ */
+public final class FirebaseDataSource implements BookHiveDataSource {
+    private final FirebaseDatabase database;
+
+    public FirebaseDataSource(@NonNull FirebaseDatabase database) {
+        this.database = database;
+    }
+
+    @Override
+    public void get(String path, ValueListener listener) {
+        database.getReference(path).addListenerForSingleValueEvent(valueEvents(Runnable::run, listener));
+    }
+
+    @Override
+    public Registration observe(String path, ValueListener listener) {
+        return observe(path, Runnable::run, listener);
+    }
+
+    @Override
+    public Registration observe(String path, Executor executor, ValueListener listener) {
+        DatabaseReference ref = database.getReference(path);
+        ValueEventListener events = ref.addValueEventListener(valueEvents(executor, listener));
+        return () -> ref.removeEventListener(events);
+    }
+
+    @Override
+    public Registration observeChildren(String path, ChildListener listener) {
+        DatabaseReference ref = database.getReference(path);
+        ChildEventListener events = ref.addChildEventListener(new ChildEventListener() {
+            @Override
+            public void onChildAdded(@NonNull DataSnapshot snap, @Nullable String previousChildName) {
+                listener.onChild(snap.getKey(), valueOf(snap));
+            }
+
+            @Override
+            public void onChildChanged(@NonNull DataSnapshot snap, @Nullable String previousChildName) {
+                listener.onChild(snap.getKey(), valueOf(snap));
+            }
+
+            @Override
+            public void onChildRemoved(@NonNull DataSnapshot snap) {
+                listener.onChild(snap.getKey(), null);
+            }
+
+            @Override
+            public void onChildMoved(@NonNull DataSnapshot snap, @Nullable String previousChildName) {}
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                listener.onError(error.toException());
+            }
+        });
+        return () -> ref.removeEventListener(events);
+    }
+
+    @Override
+    public void set(String path, Object value, Completion completion) {
+        database.getReference(path).setValue(toFirebase(value)).addOnCompleteListener(task -> {
+            if (completion != null) completion.onComplete(task.getException());
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void update(String path, Map<String, Object> children, Completion completion) {
+        database.getReference(path).updateChildren((Map<String, Object>) toFirebase(children)).addOnCompleteListener(task -> {
+            if (completion != null) completion.onComplete(task.getException());
+        });
+    }
+
+    private static ValueEventListener valueEvents(Executor executor, ValueListener listener) {
+        return new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                executor.execute(() -> listener.onValue(valueOf(snapshot)));
+            }
+
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {
+                executor.execute(() -> listener.onError(error.toException()));
+            }
+        };
+    }
+
+    /** Like {@link DataSnapshot#getValue()}, with maps that keep the snapshot's key order. */
+    static Object valueOf(DataSnapshot snapshot) {
+        if (!snapshot.hasChildren()) return snapshot.getValue();
+        Map<String, Object> out = new LinkedHashMap<>();
+        for (DataSnapshot child : snapshot.getChildren()) out.put(child.getKey(), valueOf(child));
+        return out;
+    }
+
+    private static Object toFirebase(Object value) {
+        if (value == SERVER_TIMESTAMP) return ServerValue.TIMESTAMP;
+        if (!(value instanceof Map)) return value;
+        Map<String, Object> out = new HashMap<>();
+        for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+            out.put(String.valueOf(e.getKey()), toFirebase(e.getValue()));
+        }
+        return out;
+    }
+}
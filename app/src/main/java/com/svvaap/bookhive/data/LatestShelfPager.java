@@ -0,0 +1,223 @@
+package com.svvaap.bookhive.data;
+
+import androidx.annotation.NonNull;
+
+import com.google.firebase.database.DataSnapshot;
+import com.google.firebase.database.DatabaseError;
+import com.google.firebase.database.DatabaseReference;
+import com.google.firebase.database.FirebaseDatabase;
+import com.google.firebase.database.Query;
+import com.google.firebase.database.ValueEventListener;
+import com.svvaap.bookhive.Book;
+import com.svvaap.bookhive.BookCodec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Newest-first window over {@code ebooks} for the "New Uploads" shelf. The server does the
+ * ordering and the limiting: the first page is a live
+ * {@code orderByChild("uploadDate").limitToLast(pageSize)} query, and each {@link #loadMore()}
+ * fetches the next older page once with {@code endBefore(oldest)}. Transfer and memory grow with
+ * how far the user scrolls, not with the size of the catalog. Needs
+ * {@code ".indexOn": ["uploadDate"]} on {@code ebooks} in the database rules.
+ *
+ * <p>Until the first page arrives from the network the shelf shows the cached catalog snapshot
+ * instead, and {@link #loadMore()} pages through that, so the shelf can be browsed to the end
+ * offline. The network's first page replaces whatever was shown from the cache.
+ *
+ * <p>All calls and callbacks happen on the main thread.
+ */
+public class LatestShelfPager {
+
+    public interface Listener {
+        /**
+         * @param books   everything loaded so far, newest first
+         * @param hasMore whether {@link #loadMore()} can still return older books
+         */
+        void onShelfChanged(@NonNull List<Book> books, boolean hasMore);
+    }
+
+    private final DatabaseReference ebooksRef;
+    private final CatalogRepository cache;
+    private final int pageSize;
+    private final Listener listener;
+
+    private Query headQuery;
+    private ValueEventListener headListener;
+    private List<Book> head = new ArrayList<>();
+    private final List<Book> tail = new ArrayList<>();
+    private boolean headLoaded;
+    private boolean hasMore;
+    private boolean loadingMore;
+    // The oldest child read so far, tombstones included; the next page is read from below it, so
+    // a page that decodes to no books still moves the cursor
+    private String cursorDate;
+    private String cursorKey;
+    // Bumped by stop() so page reads still in flight are ignored when they land
+    private int generation;
+
+    public LatestShelfPager(@NonNull CatalogRepository cache, int pageSize, @NonNull Listener listener) {
+        this.ebooksRef = FirebaseDatabase.getInstance().getReference("ebooks");
+        this.cache = cache;
+        this.pageSize = pageSize;
+        this.listener = listener;
+    }
+
+    public void start() {
+        if (headListener != null) return;
+        headQuery = ordered().limitToLast(pageSize);
+        headListener = new ValueEventListener() {
+            @Override
+            public void onDataChange(@NonNull DataSnapshot snapshot) {
+                onHeadChanged(snapshot);
+            }
+            @Override
+            public void onCancelled(@NonNull DatabaseError error) {}
+        };
+        headQuery.addValueEventListener(headListener);
+        final int requested = generation;
+        cache.peekNewest(0, pageSize, cached -> {
+            if (requested == generation) seed(cached);
+        });
+    }
+
+    public void stop() {
+        generation++;
+        loadingMore = false;
+        if (headListener != null) {
+            headQuery.removeEventListener(headListener);
+            headListener = null;
+            headQuery = null;
+        }
+    }
+
+    /** Shows the newest cached books until the first page arrives from the network. */
+    private void seed(List<Book> cached) {
+        if (headLoaded || cached.isEmpty()) return;
+        head = new ArrayList<>(cached);
+        hasMore = cached.size() >= pageSize;
+        publish();
+    }
+
+    /** Fetches the next older page; a no-op while one is in flight or when there is nothing left. */
+    public void loadMore() {
+        if (headListener == null || loadingMore || !hasMore) return;
+        if (!headLoaded) {
+            loadMoreCached();
+            return;
+        }
+        if (cursorKey == null) return;
+
+        loadingMore = true;
+        final int requested = generation;
+        ordered().endBefore(cursorDate, cursorKey).limitToLast(pageSize)
+                .addListenerForSingleValueEvent(new ValueEventListener() {
+                    @Override
+                    public void onDataChange(@NonNull DataSnapshot snapshot) {
+                        if (requested != generation) return;
+                        loadingMore = false;
+                        moveCursor(snapshot);
+                        Set<String> shown = ids(head);
+                        shown.addAll(ids(tail));
+                        int added = 0;
+                        for (Book b : parse(snapshot)) {
+                            if (shown.contains(b.id)) continue;
+                            tail.add(b);
+                            added++;
+                        }
+                        // A page of nothing but tombstones ends the shelf rather than being re-read
+                        hasMore = added > 0 && snapshot.getChildrenCount() >= pageSize;
+                        publish();
+                    }
+                    @Override
+                    public void onCancelled(@NonNull DatabaseError error) {
+                        if (requested == generation) loadingMore = false;
+                    }
+                });
+    }
+
+    /** The next slice of the cached snapshot, which is stored newest first. */
+    private void loadMoreCached() {
+        loadingMore = true;
+        final int requested = generation;
+        cache.peekNewest(head.size() + tail.size(), pageSize, cached -> {
+            if (requested != generation) return;
+            loadingMore = false;
+            if (headLoaded) return;
+            Set<String> shown = ids(head);
+            shown.addAll(ids(tail));
+            for (Book b : cached) {
+                if (!shown.contains(b.id)) tail.add(b);
+            }
+            hasMore = cached.size() >= pageSize;
+            publish();
+        });
+    }
+
+    private void onHeadChanged(DataSnapshot snapshot) {
+        List<Book> fresh = parse(snapshot);
+        boolean full = snapshot.getChildrenCount() >= pageSize;
+        // Books paged in from the cache were only standing in for the network
+        if (!headLoaded) tail.clear();
+        if (headLoaded && !tail.isEmpty() && !fresh.isEmpty()) {
+            // A newer upload pushes the oldest head books out of the live window; they now
+            // belong at the top of the tail rather than disappearing from the shelf
+            Book newOldest = fresh.get(fresh.size() - 1);
+            Set<String> freshIds = ids(fresh);
+            List<Book> displaced = new ArrayList<>();
+            for (Book b : head) {
+                if (!freshIds.contains(b.id) && Book.NEWEST_FIRST.compare(b, newOldest) > 0) displaced.add(b);
+            }
+            tail.addAll(0, displaced);
+            tail.removeIf(b -> freshIds.contains(b.id));
+        }
+        if (!headLoaded || tail.isEmpty()) {
+            hasMore = full;
+            moveCursor(snapshot);
+        }
+        headLoaded = true;
+        head = fresh;
+        publish();
+    }
+
+    /** Children arrive oldest first, so the first one is the oldest of the page. */
+    private void moveCursor(DataSnapshot page) {
+        for (DataSnapshot child : page.getChildren()) {
+            cursorDate = BookCodec.asString(child.child("uploadDate").getValue());
+            cursorKey = child.getKey();
+            return;
+        }
+    }
+
+    private Query ordered() {
+        return ebooksRef.orderByChild("uploadDate");
+    }
+
+    /** Children arrive oldest first; the shelf wants newest first. Tombstones are skipped. */
+    private static List<Book> parse(DataSnapshot snapshot) {
+        List<Book> books = new ArrayList<>();
+        for (DataSnapshot child : snapshot.getChildren()) {
+            Book b = BookCodec.decode(child.getKey(), child.getValue());
+            if (b != null) books.add(b);
+        }
+        Collections.reverse(books);
+        return books;
+    }
+
+    private static Set<String> ids(List<Book> books) {
+        Set<String> ids = new HashSet<>();
+        for (Book b : books) ids.add(b.id);
+        return ids;
+    }
+
+    private void publish() {
+        List<Book> shelf = new ArrayList<>(head.size() + tail.size());
+        shelf.addAll(head);
+        shelf.addAll(tail);
+        listener.onShelfChanged(Collections.unmodifiableList(shelf), hasMore);
+    }
+}
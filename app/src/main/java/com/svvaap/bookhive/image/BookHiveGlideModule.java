@@ -0,0 +1,56 @@
+package com.svvaap.bookhive.image;
+
+import android.content.Context;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.Registry;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.load.DecodeFormat;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.load.engine.cache.LruResourceCache;
+import com.bumptech.glide.load.engine.cache.MemorySizeCalculator;
+import com.bumptech.glide.module.AppGlideModule;
+import com.bumptech.glide.request.RequestOptions;
+
+import java.io.InputStream;
+
+/**
+ * App-wide Glide setup, shared by every screen that shows covers.
+ *
+ * <ul>
+ *   <li>Covers are opaque, so bitmaps decode as RGB_565: half the memory of ARGB_8888, which is
+ *   twice as many covers in the same memory cache.
+ *   <li>The memory cache holds three screens of bitmaps, so switching between Home, Search and
+ *   Catalogue finds the covers it just showed.
+ *   <li>A dedicated disk cache: with the CDN resizing, an entry is a few KB rather than the
+ *   full upload, so 64 MB holds thousands of covers.
+ * </ul>
+ */
+@GlideModule
+public final class BookHiveGlideModule extends AppGlideModule {
+    static final String DISK_CACHE_NAME = "covers";
+    static final long DISK_CACHE_BYTES = 64L * 1024 * 1024;
+
+    @Override
+    public void applyOptions(@NonNull Context context, @NonNull GlideBuilder builder) {
+        MemorySizeCalculator sizes = new MemorySizeCalculator.Builder(context)
+                .setMemoryCacheScreens(3)
+                .build();
+        builder.setMemoryCache(new LruResourceCache(sizes.getMemoryCacheSize()));
+        builder.setDiskCache(new InternalCacheDiskCacheFactory(context, DISK_CACHE_NAME, DISK_CACHE_BYTES));
+        builder.setDefaultRequestOptions(new RequestOptions().format(DecodeFormat.PREFER_RGB_565));
+    }
+
+    @Override
+    public void registerComponents(@NonNull Context context, @NonNull Glide glide, @NonNull Registry registry) {
+        registry.prepend(Cover.class, InputStream.class, new CoverModelLoader.Factory());
+    }
+
+    @Override
+    public boolean isManifestParsingEnabled() {
+        return false;
+    }
+}
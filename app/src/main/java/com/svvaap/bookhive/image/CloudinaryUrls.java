@@ -0,0 +1,55 @@
+package com.svvaap.bookhive.image;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rewrites Cloudinary delivery URLs so the CDN does the resizing: a cover stored at full upload
+ * size is fetched as {@code c_fill,w_..,h_..,f_auto,q_auto}, cropped to the cell, in whatever
+ * format and quality the CDN judges best. Any other URL is returned unchanged.
+ *
+ * <p>Requested sizes are rounded up to a multiple of {@link #SIZE_STEP} pixels, so cells that
+ * differ by a few pixels between screens and devices share one derived image, both in the CDN's
+ * cache and on the device.
+ */
+public final class CloudinaryUrls {
+    static final int SIZE_STEP = 50;
+    /** No cover is shown larger than this; it bounds the derived images the CDN keeps. */
+    static final int MAX_SIZE = 1600;
+
+    // https://res.cloudinary.com/<cloud>/image/upload/[<transformations>/][v<version>/]<public id>
+    private static final Pattern UPLOAD = Pattern.compile(
+            "^(https?://res\\.cloudinary\\.com/[^/]+/image/upload/)(.*)$");
+    private static final Pattern VERSION = Pattern.compile("(^|/)(v\\d+/)");
+
+    private CloudinaryUrls() {}
+
+    public static boolean isCloudinary(String url) {
+        return url != null && UPLOAD.matcher(url).matches();
+    }
+
+    /**
+     * {@code url} delivered at {@code width} x {@code height} pixels (rounded up, aspect kept),
+     * or {@code url} itself when it is not a Cloudinary upload or the size is not known.
+     */
+    public static String sized(String url, int width, int height) {
+        if (url == null || width <= 0 || height <= 0) return url;
+        Matcher m = UPLOAD.matcher(url);
+        if (!m.matches()) return url;
+
+        int w = Math.min(roundUp(width), MAX_SIZE);
+        int h = Math.max(1, Math.min(Math.round((float) height * w / width), MAX_SIZE));
+        String transformation = "c_fill,w_" + w + ",h_" + h + ",f_auto,q_auto/";
+
+        // Resizing goes last, after any transformation already in the URL, i.e. right before
+        // the version; without a version, first is the only place known not to be the public id
+        String rest = m.group(2);
+        Matcher version = VERSION.matcher(rest);
+        int at = version.find() ? version.start(2) : 0;
+        return m.group(1) + rest.substring(0, at) + transformation + rest.substring(at);
+    }
+
+    private static int roundUp(int size) {
+        return (size + SIZE_STEP - 1) / SIZE_STEP * SIZE_STEP;
+    }
+}
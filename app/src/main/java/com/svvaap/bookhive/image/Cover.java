@@ -0,0 +1,32 @@
+package com.svvaap.bookhive.image;
+
+import androidx.annotation.NonNull;
+
+/**
+ * A book cover to load through Glide. Wrapping the URL routes the load through
+ * {@link CoverModelLoader}, which asks the CDN for the target's size instead of the original.
+ */
+public final class Cover {
+    final String url;
+
+    public Cover(@NonNull String url) {
+        this.url = url;
+    }
+
+    // Glide keys its memory cache on the model, so equal URLs must be equal covers
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Cover && url.equals(((Cover) o).url);
+    }
+
+    @Override
+    public int hashCode() {
+        return url.hashCode();
+    }
+
+    @NonNull
+    @Override
+    public String toString() {
+        return url;
+    }
+}
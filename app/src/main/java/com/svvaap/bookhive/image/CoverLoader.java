@@ -0,0 +1,85 @@
+package com.svvaap.bookhive.image;
+
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+import android.widget.ImageView;
+
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestBuilder;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
+import com.svvaap.bookhive.R;
+
+/**
+ * Loads book covers into image views. Cloudinary covers are fetched already cropped to the
+ * view's pixel size ({@link CloudinaryUrls}), so both the download and the decode are sized for
+ * the cell rather than for the original upload; other URLs load as they are and Glide
+ * downsamples them on decode.
+ */
+public final class CoverLoader {
+
+    private CoverLoader() {}
+
+    /** Shows the cover at {@code url} in {@code view}, or the placeholder cover when there is none. */
+    public static void load(ImageView view, @Nullable String url) {
+        if (!hasCover(url)) {
+            Glide.with(view).clear(view);
+            view.setImageResource(R.drawable.sample_book_cover);
+            return;
+        }
+        request(Glide.with(view), url)
+                .placeholder(R.drawable.sample_book_cover)
+                .error(R.drawable.sample_book_cover)
+                .into(view);
+    }
+
+    /**
+     * The request behind {@link #load}, minus placeholders. Every cover view crops to fill, and
+     * saying so here rather than leaving it to the view's scale type keeps the memory cache key
+     * identical for a {@link CoverPreloader preload} and the bind that later shows it.
+     */
+    static RequestBuilder<Drawable> request(RequestManager glide, String url) {
+        return glide.load(new Cover(url)).centerCrop();
+    }
+
+    /**
+     * Fetches and decodes a cover into the memory cache ahead of a {@link #load} into a view of
+     * {@code width} x {@code height} pixels. {@code done} runs on the main thread once the cover
+     * is ready or has failed; not at all when there is no cover to load.
+     */
+    public static void preload(Context context, String url, int width, int height, Runnable done) {
+        if (!hasCover(url)) return;
+        request(Glide.with(context.getApplicationContext()), url)
+                .addListener(new RequestListener<Drawable>() {
+                    @Override
+                    public boolean onLoadFailed(@Nullable GlideException e, Object model, @NonNull Target<Drawable> target, boolean isFirstResource) {
+                        done.run();
+                        return false;
+                    }
+
+                    @Override
+                    public boolean onResourceReady(@NonNull Drawable resource, @NonNull Object model, Target<Drawable> target, @NonNull DataSource dataSource, boolean isFirstResource) {
+                        done.run();
+                        return false;
+                    }
+                })
+                .preload(width, height);
+    }
+
+    /** Cancels any load into {@code view}, e.g. when its cell is recycled. */
+    public static void clear(ImageView view) {
+        // Any request manager can clear a view; the application's is safe during activity teardown
+        Glide.with(view.getContext().getApplicationContext()).clear(view);
+    }
+
+    // Cart rows read a missing cover field with String.valueOf, which gives "null"
+    public static boolean hasCover(@Nullable String url) {
+        return url != null && !url.trim().isEmpty() && !"null".equals(url);
+    }
+}
@@ -0,0 +1,48 @@
+package com.svvaap.bookhive.image;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.load.Options;
+import com.bumptech.glide.load.model.GlideUrl;
+import com.bumptech.glide.load.model.ModelCache;
+import com.bumptech.glide.load.model.ModelLoader;
+import com.bumptech.glide.load.model.ModelLoaderFactory;
+import com.bumptech.glide.load.model.MultiModelLoaderFactory;
+import com.bumptech.glide.load.model.stream.BaseGlideUrlLoader;
+
+import java.io.InputStream;
+
+/**
+ * Fetches a {@link Cover} at the size of the view it is loaded into. Glide measures the target
+ * before fetching, so the URL is only built once the cell's pixel size is known; the disk cache
+ * then holds the small derived image rather than the full upload.
+ */
+final class CoverModelLoader extends BaseGlideUrlLoader<Cover> {
+    // Rebinding the same cell size asks for the same URL many times over
+    private static final ModelCache<Cover, GlideUrl> URLS = new ModelCache<>(200);
+
+    private CoverModelLoader(ModelLoader<GlideUrl, InputStream> urlLoader) {
+        super(urlLoader, URLS);
+    }
+
+    @Override
+    protected String getUrl(Cover cover, int width, int height, Options options) {
+        return CloudinaryUrls.sized(cover.url, width, height);
+    }
+
+    @Override
+    public boolean handles(@NonNull Cover cover) {
+        return true;
+    }
+
+    static final class Factory implements ModelLoaderFactory<Cover, InputStream> {
+        @NonNull
+        @Override
+        public ModelLoader<Cover, InputStream> build(@NonNull MultiModelLoaderFactory multiFactory) {
+            return new CoverModelLoader(multiFactory.build(GlideUrl.class, InputStream.class));
+        }
+
+        @Override
+        public void teardown() {}
+    }
+}
@@ -0,0 +1,206 @@
+package com.svvaap.bookhive.image;
+
+import android.content.Context;
+import android.graphics.drawable.Drawable;
+import android.net.ConnectivityManager;
+import android.net.NetworkCapabilities;
+import android.view.View;
+
+import androidx.annotation.IdRes;
+import androidx.annotation.NonNull;
+import androidx.annotation.Nullable;
+import androidx.recyclerview.widget.GridLayoutManager;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+import com.bumptech.glide.Glide;
+import com.bumptech.glide.RequestManager;
+import com.bumptech.glide.load.DataSource;
+import com.bumptech.glide.load.engine.GlideException;
+import com.bumptech.glide.request.RequestListener;
+import com.bumptech.glide.request.target.Target;
+
+import java.util.ArrayDeque;
+
+/**
+ * Warms the cover cache for the rows about to scroll into view, so a fling lands on covers
+ * that are already decoded rather than on placeholders. Covers are preloaded through
+ * {@link CoverLoader#request} at the pixel size of the list's cover views, which gives the same
+ * memory cache key as the bind that shows them later.
+ *
+ * <p>How far ahead it looks, and how many covers it fetches at once, follow the network: generous
+ * on Wi-Fi, modest on metered links, nothing with Data Saver on or offline. Loads past that
+ * limit wait in a queue, nearest row first, and the queue is dropped when the scroll direction
+ * changes. The policy is re-read whenever a new scroll starts.
+ *
+ * <p>Main thread only.
+ */
+public final class CoverPreloader extends RecyclerView.OnScrollListener {
+
+    /** Where the preloader reads the list's covers from, by adapter position. */
+    public interface Covers {
+        int getItemCount();
+
+        @Nullable
+        String coverUrl(int position);
+    }
+
+    /** Rows to look ahead and covers to fetch concurrently. */
+    static final class Policy {
+        static final Policy NONE = new Policy(0, 0);
+        static final Policy SLOW = new Policy(2, 2);
+        static final Policy METERED = new Policy(3, 4);
+        static final Policy UNMETERED = new Policy(6, 8);
+
+        final int rowsAhead;
+        final int maxInFlight;
+
+        Policy(int rowsAhead, int maxInFlight) {
+            this.rowsAhead = rowsAhead;
+            this.maxInFlight = maxInFlight;
+        }
+    }
+
+    // Below this a metered link cannot keep ahead of a fling anyway; keep bandwidth for the screen
+    private static final int SLOW_LINK_KBPS = 1500;
+
+    private final Context context;
+    private final RequestManager glide;
+    private final Covers covers;
+    @IdRes private final int coverViewId;
+    private final ArrayDeque<String> queue = new ArrayDeque<>();
+    private final RequestListener<Drawable> onDone = new RequestListener<Drawable>() {
+        @Override
+        public boolean onLoadFailed(@Nullable GlideException e, Object model, @NonNull Target<Drawable> target, boolean isFirstResource) {
+            finished();
+            return false;
+        }
+
+        @Override
+        public boolean onResourceReady(@NonNull Drawable resource, @NonNull Object model, Target<Drawable> target, @NonNull DataSource dataSource, boolean isFirstResource) {
+            finished();
+            return false;
+        }
+    };
+
+    private Policy policy = Policy.NONE;
+    private int inFlight;
+    private int width, height;
+    // Positions already queued while scrolling the current way, [from, to), or -1 for none
+    private int preloadedFrom = -1, preloadedTo = -1;
+    private boolean scrollingDown = true;
+    private int lastCount = -1;
+
+    private CoverPreloader(RecyclerView list, Covers covers, @IdRes int coverViewId) {
+        this.context = list.getContext().getApplicationContext();
+        this.glide = Glide.with(list);
+        this.covers = covers;
+        this.coverViewId = coverViewId;
+    }
+
+    /**
+     * Preloads covers of {@code list} as it scrolls. {@code coverViewId} is the cover's image
+     * view inside a cell; the list needs a {@link LinearLayoutManager} or a subclass.
+     */
+    public static CoverPreloader attach(RecyclerView list, Covers covers, @IdRes int coverViewId) {
+        CoverPreloader preloader = new CoverPreloader(list, covers, coverViewId);
+        preloader.policy = policyFor(list.getContext());
+        list.addOnScrollListener(preloader);
+        return preloader;
+    }
+
+    @Override
+    public void onScrollStateChanged(@NonNull RecyclerView list, int newState) {
+        if (newState == RecyclerView.SCROLL_STATE_DRAGGING) policy = policyFor(context);
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView list, int dx, int dy) {
+        if (dy == 0 || policy.rowsAhead == 0) return;
+        if (!(list.getLayoutManager() instanceof LinearLayoutManager)) return;
+        LinearLayoutManager layout = (LinearLayoutManager) list.getLayoutManager();
+        if (width <= 0 && !measureCover(list)) return;
+
+        int first = layout.findFirstVisibleItemPosition();
+        int last = layout.findLastVisibleItemPosition();
+        if (first == RecyclerView.NO_POSITION) return;
+        int span = layout instanceof GridLayoutManager ? ((GridLayoutManager) layout).getSpanCount() : 1;
+        int ahead = policy.rowsAhead * span;
+        int count = covers.getItemCount();
+
+        boolean down = dy > 0;
+        if (down != scrollingDown || count != lastCount) {
+            // Covers queued for the other direction, or for a list since replaced, are not
+            // about to be seen any more
+            scrollingDown = down;
+            lastCount = count;
+            queue.clear();
+            preloadedFrom = preloadedTo = -1;
+        }
+        if (down) {
+            int from = Math.max(last + 1, preloadedTo);
+            int to = Math.min(count, last + 1 + ahead);
+            for (int i = from; i < to; i++) enqueue(i);
+            if (to > from) preloadedTo = to;
+        } else {
+            int to = preloadedFrom >= 0 ? Math.min(first, preloadedFrom) : first;
+            int from = Math.max(0, first - ahead);
+            for (int i = to - 1; i >= from; i--) enqueue(i);
+            if (to > from) preloadedFrom = from;
+        }
+        pump();
+    }
+
+    private void enqueue(int position) {
+        String url = covers.coverUrl(position);
+        if (CoverLoader.hasCover(url)) queue.add(url);
+    }
+
+    private void pump() {
+        while (inFlight < policy.maxInFlight && !queue.isEmpty()) {
+            inFlight++;
+            CoverLoader.request(glide, queue.poll())
+                    .addListener(onDone)
+                    .preload(width, height);
+        }
+    }
+
+    private void finished() {
+        inFlight--;
+        pump();
+    }
+
+    /** Takes the preload size from a laid-out cover, as Glide will size the bind's load. */
+    private boolean measureCover(RecyclerView list) {
+        for (int i = 0; i < list.getChildCount(); i++) {
+            View cover = list.getChildAt(i).findViewById(coverViewId);
+            if (cover == null) continue;
+            int w = cover.getWidth() - cover.getPaddingLeft() - cover.getPaddingRight();
+            int h = cover.getHeight() - cover.getPaddingTop() - cover.getPaddingBottom();
+            if (w > 0 && h > 0) {
+                width = w;
+                height = h;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    static Policy policyFor(Context context) {
+        ConnectivityManager connectivity = (ConnectivityManager) context.getSystemService(Context.CONNECTIVITY_SERVICE);
+        NetworkCapabilities caps = connectivity != null
+                ? connectivity.getNetworkCapabilities(connectivity.getActiveNetwork())
+                : null;
+        if (caps == null) return Policy.NONE;
+        boolean dataSaver = connectivity.getRestrictBackgroundStatus()
+                == ConnectivityManager.RESTRICT_BACKGROUND_STATUS_ENABLED;
+        return policyFor(caps.hasCapability(NetworkCapabilities.NET_CAPABILITY_NOT_METERED),
+                dataSaver, caps.getLinkDownstreamBandwidthKbps());
+    }
+
+    static Policy policyFor(boolean unmetered, boolean dataSaver, int downstreamKbps) {
+        if (unmetered) return Policy.UNMETERED;
+        if (dataSaver) return Policy.NONE;
+        return downstreamKbps > 0 && downstreamKbps < SLOW_LINK_KBPS ? Policy.SLOW : Policy.METERED;
+    }
+}
@@ -0,0 +1,46 @@
+package com.svvaap.bookhive.image;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class CloudinaryUrlsTest {
+    private static final String UPLOAD = "https://res.cloudinary.com/demo/image/upload/";
+
+    @Test
+    public void insertsSizeFormatAndQuality_beforeTheVersion() {
+        assertEquals(UPLOAD + "c_fill,w_300,h_450,f_auto,q_auto/v1712345/covers/abc.jpg",
+                CloudinaryUrls.sized(UPLOAD + "v1712345/covers/abc.jpg", 300, 450));
+    }
+
+    @Test
+    public void roundsSizesUp_keepingTheAspect() {
+        // 3-column cell on one device, and a few pixels narrower on another: one derived image
+        assertEquals(UPLOAD + "c_fill,w_350,h_467,f_auto,q_auto/v1/a.jpg",
+                CloudinaryUrls.sized(UPLOAD + "v1/a.jpg", 327, 436));
+        assertEquals(UPLOAD + "c_fill,w_350,h_467,f_auto,q_auto/v1/a.jpg",
+                CloudinaryUrls.sized(UPLOAD + "v1/a.jpg", 330, 440));
+        assertEquals(UPLOAD + "c_fill,w_1600,h_1600,f_auto,q_auto/v1/a.jpg",
+                CloudinaryUrls.sized(UPLOAD + "v1/a.jpg", 4000, 4000));
+    }
+
+    @Test
+    public void resizesAfterExistingTransformations() {
+        assertEquals(UPLOAD + "e_grayscale/c_fill,w_100,h_150,f_auto,q_auto/v9/a.png",
+                CloudinaryUrls.sized(UPLOAD + "e_grayscale/v9/a.png", 100, 150));
+        assertEquals(UPLOAD + "c_fill,w_100,h_150,f_auto,q_auto/folder/a.png",
+                CloudinaryUrls.sized(UPLOAD + "folder/a.png", 100, 150));
+    }
+
+    @Test
+    public void leavesOtherUrlsAndUnknownSizesAlone() {
+        String other = "https://example.com/image/upload/v1/a.jpg";
+        assertEquals(other, CloudinaryUrls.sized(other, 300, 450));
+        assertFalse(CloudinaryUrls.isCloudinary(other));
+        assertNull(CloudinaryUrls.sized(null, 300, 450));
+        // Glide passes Target.SIZE_ORIGINAL (Integer.MIN_VALUE) when asked for the original
+        assertEquals(UPLOAD + "v1/a.jpg", CloudinaryUrls.sized(UPLOAD + "v1/a.jpg", Integer.MIN_VALUE, Integer.MIN_VALUE));
+        String raw = "https://res.cloudinary.com/demo/raw/upload/v1/book.pdf";
+        assertEquals(raw, CloudinaryUrls.sized(raw, 300, 450));
+    }
+}
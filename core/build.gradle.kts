@@ -0,0 +1,89 @@
+plugins {
+    `java-library`
+    alias(libs.plugins.jmh)
+}
+
+// Plain Java, no Android: the app module compiles against it, and the JVM tests and JMH
+// benchmarks run without an emulator
+java {
+    sourceCompatibility = JavaVersion.VERSION_1_8
+    targetCompatibility = JavaVersion.VERSION_1_8
+}
+
+// The search code and its tests have accented literals; compile them the same on every platform
+tasks.withType<JavaCompile> {
+    options.encoding = "UTF-8"
+}
+
+dependencies {
+    testImplementation(libs.junit)
+}
+
+val jmhResults = layout.buildDirectory.file("reports/jmh/results.json")
+val jmhBaseline = layout.projectDirectory.file("jmh-baseline.json")
+
+// ./gradlew :core:jmh runs the suite in src/jmh; -PjmhInclude=<regex> narrows it to matching benchmarks
+jmh {
+    jmhVersion.set(libs.versions.jmh)
+    // The synthetic catalogs come from the test sources
+    includeTests.set(true)
+    fork.set(1)
+    warmupIterations.set(3)
+    warmup.set("2s")
+    iterations.set(5)
+    timeOnIteration.set("2s")
+    // The 1M-book catalog with its search index
+    jvmArgs.set(listOf("-Xmx4g"))
+    resultFormat.set("JSON")
+    resultsFile.set(jmhResults)
+    project.findProperty("jmhInclude")?.let { includes.set(listOf(it.toString())) }
+}
+
+// The regression gate. Timings depend on the machine, so it is not part of an everyday build:
+// .github/workflows/benchmarks.yml runs it on every pull request against a baseline recorded on
+// the same runner from the target branch. Locally it compares against the committed baseline;
+// benchmarks the baseline has no score for are not compared.
+tasks.register("jmhCheck") {
+    group = "verification"
+    description = "Runs the JMH suite and fails when a benchmark is slower than jmh-baseline.json allows."
+    dependsOn("jmh")
+    doLast {
+        val baseline = jmhBaseline.asFile
+        if (!baseline.exists()) {
+            throw GradleException("No ${baseline.name} to compare against; record one with ./gradlew :core:jmhBaseline")
+        }
+        // Every benchmark reports average time per operation, so higher is slower
+        val tolerance = (project.findProperty("jmhTolerance") ?: "0.25").toString().toDouble()
+        val before = jmhScores(baseline)
+        val regressions = jmhScores(jmhResults.get().asFile).mapNotNull { (name, score) ->
+            val was = before[name] ?: return@mapNotNull null
+            if (score > was * (1 + tolerance)) "  $name: ${"%.3f".format(was)} -> ${"%.3f".format(score)}" else null
+        }
+        if (regressions.isNotEmpty()) {
+            throw GradleException("Benchmarks more than ${(tolerance * 100).toInt()}% slower than ${baseline.name}:\n"
+                    + regressions.joinToString("\n"))
+        }
+    }
+}
+
+tasks.register<Copy>("jmhBaseline") {
+    group = "verification"
+    description = "Runs the JMH suite and keeps its results as jmh-baseline.json."
+    dependsOn("jmh")
+    from(jmhResults)
+    into(layout.projectDirectory)
+    rename { "jmh-baseline.json" }
+}
+
+/** Score per benchmark and parameter set, from a JMH JSON result file. */
+fun jmhScores(file: File): Map<String, Double> {
+    @Suppress("UNCHECKED_CAST")
+    val runs = groovy.json.JsonSlurper().parse(file) as List<Map<String, Any?>>
+    return runs.associate { run ->
+        val params = (run["params"] as Map<*, *>?).orEmpty().entries
+                .sortedBy { it.key.toString() }
+                .joinToString(",") { "${it.key}=${it.value}" }
+        val score = ((run["primaryMetric"] as Map<*, *>)["score"] as Number).toDouble()
+        "${run["benchmark"]}($params)" to score
+    }
+}
@@ -0,0 +1,59 @@
+package com.svvaap.bookhive.jmh;
+
+import com.svvaap.bookhive.SyntheticDataset;
+import com.svvaap.bookhive.admin.FeedbackReport;
+import com.svvaap.bookhive.admin.OrderRow;
+import com.svvaap.bookhive.admin.UserRow;
+import com.svvaap.bookhive.data.MemoryDatabase;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The admin list screens' models, each built from its whole node as the snapshot workers do:
+ * orders, users, and feedback newest first. The nodes come from a {@link SyntheticDataset}
+ * scaled to {@code books}; at 1M books that whole database does not fit the suite's heap.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AdminBenchmark {
+    @Param({"1000", "10000", "100000"})
+    public int books;
+
+    private Object orders;
+    private Object users;
+    private Object feedbacks;
+
+    @Setup
+    public void setUp() {
+        MemoryDatabase db = SyntheticDataset.database(SyntheticDataset.Config.scaled(books));
+        orders = db.get("orders");
+        users = db.get("users");
+        feedbacks = db.get("feedbacks");
+    }
+
+    @Benchmark
+    public List<OrderRow> orderRows() {
+        return OrderRow.list(orders);
+    }
+
+    @Benchmark
+    public List<UserRow> userRows() {
+        return UserRow.list(users);
+    }
+
+    @Benchmark
+    public FeedbackReport feedbackReport() {
+        return FeedbackReport.decode(feedbacks);
+    }
+}
@@ -0,0 +1,37 @@
+package com.svvaap.bookhive.jmh;
+
+import com.svvaap.bookhive.SyntheticBooks;
+import com.svvaap.bookhive.sales.SalesReport;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** The sales analytics screen's {@link SalesReport}, over as many orders as there are books. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AggregateBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int books;
+
+    private List<SalesReport.Order> orders;
+
+    @Setup
+    public void setUp() {
+        orders = SyntheticBooks.orders(SyntheticBooks.books(books), books);
+    }
+
+    @Benchmark
+    public SalesReport salesReport() {
+        return SalesReport.of(orders);
+    }
+}
@@ -0,0 +1,56 @@
+package com.svvaap.bookhive.jmh;
+
+import com.svvaap.bookhive.Book;
+import com.svvaap.bookhive.SyntheticBooks;
+import com.svvaap.bookhive.search.FacetIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** Facet filtering through {@link FacetIndex}: building it, and one filter with its chip counts. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class FilterBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int books;
+
+    private List<Book> catalog;
+    private FacetIndex index;
+    private final Map<FacetIndex.Field, List<String>> filter = new EnumMap<>(FacetIndex.Field.class);
+
+    @Setup
+    public void setUp() {
+        catalog = SyntheticBooks.books(books);
+        index = new FacetIndex(catalog);
+        filter.put(FacetIndex.Field.CATEGORY, Arrays.asList("Fiction", "Science"));
+        filter.put(FacetIndex.Field.LANGUAGE, Collections.singletonList("English"));
+        filter.put(FacetIndex.Field.PRICE_BAND, Collections.singletonList(FacetIndex.BAND_100_TO_299));
+    }
+
+    @Benchmark
+    public FacetIndex build() {
+        return new FacetIndex(catalog);
+    }
+
+    /** Two categories, one language, one price band, then the counts for the category chips. */
+    @Benchmark
+    public Map<String, Integer> selectAndCount() {
+        BitSet selection = index.select(filter);
+        return index.counts(FacetIndex.Field.CATEGORY, selection);
+    }
+}
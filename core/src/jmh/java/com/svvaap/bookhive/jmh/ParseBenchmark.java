@@ -0,0 +1,61 @@
+package com.svvaap.bookhive.jmh;
+
+import com.svvaap.bookhive.Book;
+import com.svvaap.bookhive.BookCodec;
+import com.svvaap.bookhive.SyntheticBooks;
+import com.svvaap.bookhive.data.CatalogSnapshot;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/** The whole catalog into {@link Book}s: from Firebase records, and from the on-disk snapshot. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ParseBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int books;
+
+    private String[] ids;
+    private List<Map<String, Object>> values;
+    private ByteBuffer snapshot;
+
+    @Setup
+    public void setUp() {
+        values = SyntheticBooks.ebookValues(books);
+        ids = new String[books];
+        List<Book> decoded = new ArrayList<>(books);
+        for (int i = 0; i < books; i++) {
+            ids[i] = "book" + i;
+            decoded.add(BookCodec.decode(ids[i], values.get(i)));
+        }
+        snapshot = CatalogSnapshot.encode(decoded);
+    }
+
+    /** As a full sync decodes the {@code ebooks} node. */
+    @Benchmark
+    public void decodeRecords(Blackhole bh) {
+        for (int i = 0; i < ids.length; i++) bh.consume(BookCodec.decode(ids[i], values.get(i)));
+    }
+
+    /** As a cold start reads the catalog back, descriptions included. */
+    @Benchmark
+    public List<Book> readSnapshot() throws IOException {
+        CatalogSnapshot s = CatalogSnapshot.wrap(snapshot);
+        return s.books(0, s.size());
+    }
+}
@@ -0,0 +1,61 @@
+package com.svvaap.bookhive.jmh;
+
+import com.svvaap.bookhive.SyntheticBooks;
+import com.svvaap.bookhive.search.SearchIndex;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Text search through {@link SearchIndex}, with the query cache off so every call does the full
+ * match: a set of typical queries ranked for the first page, and a misspelt one matched fuzzily.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SearchBenchmark {
+    private static final int PAGE = 20;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int books;
+
+    private SearchIndex index;
+    private String[] queries;
+    private String misspelt;
+
+    @Setup
+    public void setUp() {
+        index = new SearchIndex(0);
+        index.rebuild(SyntheticBooks.books(books));
+        String common = SyntheticBooks.word(7);
+        String rare = SyntheticBooks.word(1_234);
+        String surname = SyntheticBooks.word(300 + 42);
+        queries = new String[] {
+                common,                                     // a short, frequent word
+                rare.substring(0, rare.length() - 1),       // a prefix, mid-word
+                common + " " + SyntheticBooks.word(11),     // two words
+                surname,                                    // an author
+        };
+        // One letter dropped from a title word
+        misspelt = rare.substring(0, 2) + rare.substring(3);
+    }
+
+    @Benchmark
+    public void rankFirstPage(Blackhole bh) {
+        for (String q : queries) bh.consume(index.topDocs(q, PAGE));
+    }
+
+    @Benchmark
+    public int[] fuzzyMatch() {
+        return index.fuzzyMatch(misspelt);
+    }
+}
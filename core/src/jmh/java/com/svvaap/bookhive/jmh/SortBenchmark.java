@@ -0,0 +1,44 @@
+package com.svvaap.bookhive.jmh;
+
+import com.svvaap.bookhive.Book;
+import com.svvaap.bookhive.SyntheticBooks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/** The catalog in {@link Book#NEWEST_FIRST} order, as written to the snapshot, from key order. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SortBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int books;
+
+    private List<Book> unsorted;
+
+    @Setup
+    public void setUp() {
+        unsorted = SyntheticBooks.books(books);
+        // Push keys in the database are not in upload order either
+        Collections.shuffle(unsorted, new Random(42));
+    }
+
+    @Benchmark
+    public List<Book> newestFirst() {
+        List<Book> copy = new ArrayList<>(unsorted);
+        Collections.sort(copy, Book.NEWEST_FIRST);
+        return copy;
+    }
+}
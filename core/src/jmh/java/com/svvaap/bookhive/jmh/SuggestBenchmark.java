@@ -0,0 +1,55 @@
+package com.svvaap.bookhive.jmh;
+
+import com.svvaap.bookhive.Book;
+import com.svvaap.bookhive.SyntheticBooks;
+import com.svvaap.bookhive.search.SuggestionTrie;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Search suggestions through {@link SuggestionTrie}: building it from the catalog, and the
+ * completions for every keystroke of typing a title and an author name.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SuggestBenchmark {
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int books;
+
+    private List<Book> catalog;
+    private SuggestionTrie trie;
+    private String[] keystrokes;
+
+    @Setup
+    public void setUp() {
+        catalog = SyntheticBooks.books(books);
+        trie = new SuggestionTrie.Builder().addCatalog(catalog).build();
+        Book typed = catalog.get(catalog.size() / 2);
+        String title = typed.title, author = typed.author;
+        keystrokes = new String[title.length() + author.length()];
+        for (int i = 0; i < title.length(); i++) keystrokes[i] = title.substring(0, i + 1);
+        for (int i = 0; i < author.length(); i++) keystrokes[title.length() + i] = author.substring(0, i + 1);
+    }
+
+    @Benchmark
+    public SuggestionTrie build() {
+        return new SuggestionTrie.Builder().addCatalog(catalog).build();
+    }
+
+    @Benchmark
+    public void typeTitleAndAuthor(Blackhole bh) {
+        for (String prefix : keystrokes) bh.consume(trie.complete(prefix, SuggestionTrie.MAX_SUGGESTIONS));
+    }
+}
@@ -1,6 +1,23 @@
 package com.svvaap.bookhive;
 
+import java.util.Comparator;
+
 public class Book {
+    /**
+     * uploadDate descending, then key descending; books without a date go last. Upload dates are
+     * ISO-8601, so string order is time order. This is the server's order for the latest shelf,
+     * reversed.
+     */
+    public static final Comparator<Book> NEWEST_FIRST = (a, b) -> {
+        if (a.uploadDate == null || b.uploadDate == null) {
+            if (a.uploadDate != b.uploadDate) return a.uploadDate == null ? 1 : -1;
+        } else {
+            int c = b.uploadDate.compareTo(a.uploadDate);
+            if (c != 0) return c;
+        }
+        return b.id.compareTo(a.id);
+    };
+
     public String id;
     public String title;
     public String author;
@@ -12,6 +29,8 @@ public class Book {
     public String fileUrl;
     public String visibility;
     public String uploadDate;
+    /** Server timestamp of the last write to this book; 0 for books written before it existed. */
+    public long updatedAt;
 
     public Book() {}
 
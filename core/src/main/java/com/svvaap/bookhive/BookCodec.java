@@ -0,0 +1,126 @@
+package com.svvaap.bookhive;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The one place that turns an {@code ebooks/{id}} value, as {@code DataSnapshot.getValue()} hands
+ * it over, into a {@link Book}. Decoding is typed and tolerant: strings are taken as-is instead of
+ * going through {@code String.valueOf}, numeric fields accept both numbers and the string prices
+ * that {@code UploadBookFragment} writes, and low-cardinality values (category, language,
+ * visibility) are interned so a large catalog shares one instance of each.
+ *
+ * Deleted books are not removed from the database but marked as tombstones
+ * ({@code deleted: true} and a fresh {@code updatedAt}) so a delta sync can see the deletion;
+ * {@link #decode} treats them like a missing node.
+ *
+ * Safe to call from any thread.
+ */
+public final class BookCodec {
+    /** Upper bound on pooled values, so free-form data cannot grow the pool without limit. */
+    private static final int MAX_POOLED = 512;
+    private static final Map<String, String> POOL = new ConcurrentHashMap<>();
+
+    private BookCodec() {}
+
+    /**
+     * @param id    the node key, copied to {@link Book#id}
+     * @param value the node value; anything other than a map (missing, primitive) or a
+     *              tombstone yields null
+     */
+    public static Book decode(String id, Object value) {
+        if (!(value instanceof Map) || isTombstone(value)) return null;
+        Map<?, ?> map = (Map<?, ?>) value;
+        Book b = new Book();
+        b.id = id;
+        b.title = asString(map.get("title"));
+        b.author = asString(map.get("author"));
+        b.category = intern(asString(map.get("category")));
+        b.language = intern(asString(map.get("language")));
+        b.description = asString(map.get("description"));
+        b.coverImageUrl = asString(map.get("coverImageUrl"));
+        b.fileUrl = asString(map.get("fileUrl"));
+        b.visibility = intern(asString(map.get("visibility")));
+        b.uploadDate = asString(map.get("uploadDate"));
+        b.price = asDouble(map.get("price"));
+        b.updatedAt = asLong(map.get("updatedAt"));
+        return b;
+    }
+
+    /** True for the {@code {deleted: true, ...}} marker a deletion leaves behind. */
+    public static boolean isTombstone(Object value) {
+        return value instanceof Map && Boolean.TRUE.equals(((Map<?, ?>) value).get("deleted"));
+    }
+
+    /** The node's {@code updatedAt} stamp, tombstones included; 0 when it has none. */
+    public static long updatedAt(Object value) {
+        return value instanceof Map ? asLong(((Map<?, ?>) value).get("updatedAt")) : 0L;
+    }
+
+    public static String asString(Object v) {
+        if (v == null) return null;
+        if (v instanceof String) return (String) v;
+        return String.valueOf(v);
+    }
+
+    public static long asLong(Object v) {
+        if (v instanceof Number) return ((Number) v).longValue();
+        if (v instanceof String) return (long) parseDouble((String) v);
+        return 0L;
+    }
+
+    public static double asDouble(Object v) {
+        if (v instanceof Number) return ((Number) v).doubleValue();
+        if (v instanceof String) return parseDouble((String) v);
+        return 0d;
+    }
+
+    /**
+     * Parses prices like "199" or "49.99" without going through {@link Double#parseDouble}; other
+     * shapes fall back to it. Unparseable input yields 0, matching the old per-fragment helpers.
+     */
+    static double parseDouble(String s) {
+        int start = 0, end = s.length();
+        while (start < end && s.charAt(start) <= ' ') start++;
+        while (end > start && s.charAt(end - 1) <= ' ') end--;
+        if (start == end) return 0d;
+
+        long digits = 0;
+        int fractionDigits = -1;
+        int count = 0;
+        for (int i = start; i < end; i++) {
+            char c = s.charAt(i);
+            if (c >= '0' && c <= '9') {
+                // 15 significant digits stay exact in a double, so the division below rounds once
+                if (++count > 15) return slowParse(s);
+                digits = digits * 10 + (c - '0');
+                if (fractionDigits >= 0) fractionDigits++;
+            } else if (c == '.' && fractionDigits < 0) {
+                fractionDigits = 0;
+            } else {
+                return slowParse(s);
+            }
+        }
+        if (count == 0) return 0d;
+        if (fractionDigits <= 0) return digits;
+        return digits / POWERS_OF_TEN[fractionDigits];
+    }
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+    private static double slowParse(String s) {
+        try { return Double.parseDouble(s.trim()); } catch (Exception ignored) {}
+        return 0d;
+    }
+
+    static String intern(String v) {
+        if (v == null) return null;
+        String pooled = POOL.get(v);
+        if (pooled != null) return pooled;
+        if (POOL.size() >= MAX_POOLED) return v;
+        pooled = POOL.putIfAbsent(v, v);
+        return pooled != null ? pooled : v;
+    }
+}
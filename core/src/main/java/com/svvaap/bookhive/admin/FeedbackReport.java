@@ -0,0 +1,82 @@
+package com.svvaap.bookhive.admin;
+
+import com.svvaap.bookhive.BookCodec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The feedback screen's contents: every feedback, newest first, with the average rating.
+ * Dates are ISO-8601 strings, so they sort as text; feedback without a date goes last.
+ * Immutable.
+ */
+public final class FeedbackReport {
+
+    /** Newest date first, undated last. */
+    private static final Comparator<Feedback> NEWEST_FIRST = (a, b) -> {
+        if (a.date == null) return b.date == null ? 0 : 1;
+        if (b.date == null) return -1;
+        return b.date.compareTo(a.date);
+    };
+
+    /** One feedback. */
+    public static final class Feedback {
+        public final String feedbackId;
+        public final String userId;
+        public final String userName;
+        public final String bookId;
+        public final String bookTitle;
+        public final String comment;
+        /** 1 to 5 stars. */
+        public final double rating;
+        public final String date;
+        /** "pending", "reviewed" or "resolved". */
+        public final String status;
+
+        private Feedback(String feedbackId, Map<?, ?> m) {
+            this.feedbackId = feedbackId;
+            userId = BookCodec.asString(m.get("userId"));
+            userName = BookCodec.asString(m.get("userName"));
+            bookId = BookCodec.asString(m.get("bookId"));
+            bookTitle = BookCodec.asString(m.get("bookTitle"));
+            comment = BookCodec.asString(m.get("comment"));
+            rating = BookCodec.asDouble(m.get("rating"));
+            date = BookCodec.asString(m.get("date"));
+            status = BookCodec.asString(m.get("status"));
+        }
+
+        /** The feedback in a snapshot value of {@code feedbacks/{id}}; null when it is not one. */
+        public static Feedback decode(String feedbackId, Object value) {
+            return value instanceof Map ? new Feedback(feedbackId, (Map<?, ?>) value) : null;
+        }
+    }
+
+    /** Newest first. */
+    public final List<Feedback> feedbacks;
+    /** Mean rating, 0 when there is no feedback. */
+    public final double averageRating;
+
+    private FeedbackReport(List<Feedback> feedbacks, double averageRating) {
+        this.feedbacks = Collections.unmodifiableList(feedbacks);
+        this.averageRating = averageRating;
+    }
+
+    /** The report over a snapshot value of {@code feedbacks}. */
+    public static FeedbackReport decode(Object value) {
+        Map<?, ?> children = value instanceof Map ? (Map<?, ?>) value : Collections.emptyMap();
+        List<Feedback> feedbacks = new ArrayList<>(children.size());
+        double totalRating = 0;
+        for (Map.Entry<?, ?> e : children.entrySet()) {
+            Feedback feedback = Feedback.decode((String) e.getKey(), e.getValue());
+            if (feedback == null) continue;
+            feedbacks.add(feedback);
+            totalRating += feedback.rating;
+        }
+        // Stable, so feedback with the same date stays in key order
+        Collections.sort(feedbacks, NEWEST_FIRST);
+        return new FeedbackReport(feedbacks, feedbacks.isEmpty() ? 0 : totalRating / feedbacks.size());
+    }
+}
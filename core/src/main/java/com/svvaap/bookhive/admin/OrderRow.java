@@ -0,0 +1,55 @@
+package com.svvaap.bookhive.admin;
+
+import com.svvaap.bookhive.BookCodec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/** One order as the admin order list shows it. Immutable. */
+public final class OrderRow {
+    public final String orderId;
+    public final String userId;
+    public final String userName;
+    public final String userEmail;
+    public final String bookId;
+    public final String bookTitle;
+    public final String bookAuthor;
+    public final double bookPrice;
+    public final String orderDate;
+    /** "pending", "completed" or "cancelled". */
+    public final String status;
+    public final String paymentMethod;
+
+    private OrderRow(String orderId, Map<?, ?> m) {
+        this.orderId = orderId;
+        userId = BookCodec.asString(m.get("userId"));
+        userName = BookCodec.asString(m.get("userName"));
+        userEmail = BookCodec.asString(m.get("userEmail"));
+        bookId = BookCodec.asString(m.get("bookId"));
+        bookTitle = BookCodec.asString(m.get("bookTitle"));
+        bookAuthor = BookCodec.asString(m.get("bookAuthor"));
+        bookPrice = BookCodec.asDouble(m.get("bookPrice"));
+        orderDate = BookCodec.asString(m.get("orderDate"));
+        status = BookCodec.asString(m.get("status"));
+        paymentMethod = BookCodec.asString(m.get("paymentMethod"));
+    }
+
+    /** The order in a snapshot value of {@code orders/{orderId}}; null when it is not one. */
+    public static OrderRow decode(String orderId, Object value) {
+        return value instanceof Map ? new OrderRow(orderId, (Map<?, ?>) value) : null;
+    }
+
+    /** Every order in a snapshot value of {@code orders}, in key order. */
+    public static List<OrderRow> list(Object orders) {
+        if (!(orders instanceof Map)) return Collections.emptyList();
+        Map<?, ?> children = (Map<?, ?>) orders;
+        List<OrderRow> rows = new ArrayList<>(children.size());
+        for (Map.Entry<?, ?> e : children.entrySet()) {
+            OrderRow row = decode((String) e.getKey(), e.getValue());
+            if (row != null) rows.add(row);
+        }
+        return Collections.unmodifiableList(rows);
+    }
+}
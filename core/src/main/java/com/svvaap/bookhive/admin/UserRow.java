@@ -0,0 +1,47 @@
+package com.svvaap.bookhive.admin;
+
+import com.svvaap.bookhive.BookCodec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+/** One user as the admin user list shows it. Immutable. */
+public final class UserRow {
+    public final String userId;
+    public final String name;
+    public final String email;
+    public final String photoUrl;
+    /** "active" or "suspended". */
+    public final String status;
+    public final String joinDate;
+    public final int totalPurchases;
+
+    private UserRow(String userId, Map<?, ?> m) {
+        this.userId = userId;
+        name = BookCodec.asString(m.get("name"));
+        email = BookCodec.asString(m.get("email"));
+        photoUrl = BookCodec.asString(m.get("photoUrl"));
+        status = BookCodec.asString(m.get("status"));
+        joinDate = BookCodec.asString(m.get("joinDate"));
+        totalPurchases = (int) BookCodec.asLong(m.get("totalPurchases"));
+    }
+
+    /** The user in a snapshot value of {@code users/{uid}}; null when it is not one. */
+    public static UserRow decode(String userId, Object value) {
+        return value instanceof Map ? new UserRow(userId, (Map<?, ?>) value) : null;
+    }
+
+    /** Every user in a snapshot value of {@code users}, in key order. */
+    public static List<UserRow> list(Object users) {
+        if (!(users instanceof Map)) return Collections.emptyList();
+        Map<?, ?> children = (Map<?, ?>) users;
+        List<UserRow> rows = new ArrayList<>(children.size());
+        for (Map.Entry<?, ?> e : children.entrySet()) {
+            UserRow row = decode((String) e.getKey(), e.getValue());
+            if (row != null) rows.add(row);
+        }
+        return Collections.unmodifiableList(rows);
+    }
+}
@@ -0,0 +1,102 @@
+package com.svvaap.bookhive.data;
+
+import java.util.Map;
+import java.util.concurrent.Executor;
+
+/**
+ * The BookHive database as the app reads and writes it, behind an interface so the same data
+ * paths run against Firebase on a device and against {@link InMemoryDataSource} on a plain JVM.
+ *
+ * <p>Nodes are addressed by slash-separated paths under the six trees below; the static helpers
+ * build the per-user and per-book ones. Values are what {@code DataSnapshot.getValue()} returns:
+ * maps (iterating in key order), strings, booleans, {@link Long}s for whole numbers and
+ * {@link Double}s otherwise, or null for a missing node. A value handed to a listener belongs to it.
+ *
+ * <p>Listeners are called on the source's callback executor, the main thread for Firebase, in
+ * the order the changes were made. Writes may be made from any thread.
+ */
+public interface BookHiveDataSource {
+    /** {@code ebooks/{bookId}}: the catalog, prices stored as strings. */
+    String EBOOKS = "ebooks";
+    /** {@code orders/{orderId}}. */
+    String ORDERS = "orders";
+    /** {@code purchases/{uid}/{bookId} = true}. */
+    String PURCHASES = "purchases";
+    /** {@code carts/{uid}/{bookId} = {title, price}}. */
+    String CARTS = "carts";
+    /** {@code users/{uid}}. */
+    String USERS = "users";
+    /** {@code feedbacks/{feedbackId}}. */
+    String FEEDBACKS = "feedbacks";
+
+    /** Written in place of a value, replaced by the server's clock in milliseconds. */
+    Object SERVER_TIMESTAMP = new Object() {
+        @Override
+        public String toString() {
+            return "SERVER_TIMESTAMP";
+        }
+    };
+
+    /** A node's whole value, once or on every change. */
+    interface ValueListener {
+        void onValue(Object value);
+
+        void onError(Exception error);
+    }
+
+    /** Each child of a node as it is added, changed or removed. */
+    interface ChildListener {
+        /** @param value the child's new value, or null when it was removed */
+        void onChild(String key, Object value);
+
+        void onError(Exception error);
+    }
+
+    interface Completion {
+        /** @param error why the write failed, or null when it succeeded */
+        void onComplete(Exception error);
+    }
+
+    /** Stops a subscription; further changes are not reported. Idempotent. */
+    interface Registration {
+        void remove();
+    }
+
+    /** Reads {@code path} once. */
+    void get(String path, ValueListener listener);
+
+    /** Reports the value of {@code path} now and again after every change under it. */
+    Registration observe(String path, ValueListener listener);
+
+    /**
+     * Like {@link #observe(String, ValueListener)}, but the listener runs on {@code executor}.
+     * Firebase also turns each snapshot into a value there rather than on the main thread; see
+     * {@link SnapshotProcessor}.
+     */
+    Registration observe(String path, Executor executor, ValueListener listener);
+
+    /** Reports every child of {@code path} now, then each child that is added, changed or removed. */
+    Registration observeChildren(String path, ChildListener listener);
+
+    /** Replaces the value at {@code path}; null removes it. {@code completion} may be null. */
+    void set(String path, Object value, Completion completion);
+
+    /** Sets each of {@code children} under {@code path}, leaving the others. {@code completion} may be null. */
+    void update(String path, Map<String, Object> children, Completion completion);
+
+    static String book(String bookId) {
+        return EBOOKS + "/" + bookId;
+    }
+
+    static String purchases(String uid) {
+        return PURCHASES + "/" + uid;
+    }
+
+    static String cart(String uid) {
+        return CARTS + "/" + uid;
+    }
+
+    static String user(String uid) {
+        return USERS + "/" + uid;
+    }
+}
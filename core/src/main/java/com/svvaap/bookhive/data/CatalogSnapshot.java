@@ -0,0 +1,246 @@
+package com.svvaap.bookhive.data;
+
+import com.svvaap.bookhive.Book;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact, versioned binary image of the catalog, read through a {@link MappedByteBuffer} so a
+ * screen can decode just the records it shows instead of rebuilding the whole {@code List<Book>}.
+ *
+ * <pre>
+ * header   magic "BHCS", version, recordCount, stringCount, stringTableOffset, descriptionsOffset
+ * records  recordCount x RECORD_SIZE bytes:
+ *          id, title, author, category, language, coverImageUrl, fileUrl, visibility, uploadDate
+ *          (string-table indexes, -1 for null), price (double), updatedAt (long),
+ *          descOffset, descLength (-1 for null)
+ * strings  int[stringCount + 1] offsets, then UTF-8 bytes; each distinct value stored once
+ * descs    UTF-8 bytes addressed by (descOffset, descLength), decoded only on demand
+ * </pre>
+ *
+ * A reader is not thread-safe; each thread should open its own.
+ */
+public final class CatalogSnapshot {
+    static final int MAGIC = 0x42484353; // "BHCS"
+    static final int VERSION = 2;
+
+    private static final int HEADER_SIZE = 6 * 4;
+    private static final int STRING_FIELDS = 9;
+    static final int RECORD_SIZE = STRING_FIELDS * 4 + 8 + 8 + 4 + 4;
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+    private final ByteBuffer buffer;
+    private final int recordCount;
+    private final int stringCount;
+    private final int stringTableOffset;
+    private final int stringDataOffset;
+    private final int descriptionsOffset;
+    private final String[] strings;
+    private final ByteBuffer view;
+    private byte[] scratch = new byte[256];
+
+    private CatalogSnapshot(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        this.view = buffer.duplicate();
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("Not a catalog snapshot");
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Unsupported snapshot version " + buffer.getInt(4));
+        }
+        recordCount = buffer.getInt(8);
+        stringCount = buffer.getInt(12);
+        stringTableOffset = buffer.getInt(16);
+        descriptionsOffset = buffer.getInt(20);
+        stringDataOffset = stringTableOffset + (stringCount + 1) * 4;
+        if (recordCount < 0 || stringCount < 0 || descriptionsOffset > buffer.capacity()
+                || HEADER_SIZE + (long) recordCount * RECORD_SIZE > stringTableOffset) {
+            throw new IOException("Corrupt catalog snapshot header");
+        }
+        strings = new String[stringCount];
+    }
+
+    /** Maps an existing snapshot file read-only. */
+    public static CatalogSnapshot open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+             FileChannel channel = raf.getChannel()) {
+            // The mapping stays valid after the channel is closed
+            return new CatalogSnapshot(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        }
+    }
+
+    /** Wraps an in-memory image, e.g. one produced by {@link #encode(List)}. */
+    public static CatalogSnapshot wrap(ByteBuffer buffer) throws IOException {
+        return new CatalogSnapshot(buffer.duplicate());
+    }
+
+    public int size() {
+        return recordCount;
+    }
+
+    /** Decodes record {@code index} without touching its description. */
+    public Book book(int index) {
+        return book(index, false);
+    }
+
+    public Book book(int index, boolean withDescription) {
+        int base = recordBase(index);
+        Book b = new Book();
+        b.id = string(buffer.getInt(base));
+        b.title = string(buffer.getInt(base + 4));
+        b.author = string(buffer.getInt(base + 8));
+        b.category = string(buffer.getInt(base + 12));
+        b.language = string(buffer.getInt(base + 16));
+        b.coverImageUrl = string(buffer.getInt(base + 20));
+        b.fileUrl = string(buffer.getInt(base + 24));
+        b.visibility = string(buffer.getInt(base + 28));
+        b.uploadDate = string(buffer.getInt(base + 32));
+        b.price = buffer.getDouble(base + 36);
+        b.updatedAt = buffer.getLong(base + 44);
+        if (withDescription) b.description = description(index);
+        return b;
+    }
+
+    /** Decodes records {@code [from, to)} with their descriptions. */
+    public List<Book> books(int from, int to) {
+        List<Book> out = new ArrayList<>(Math.max(0, to - from));
+        for (int i = from; i < to; i++) out.add(book(i, true));
+        return out;
+    }
+
+    public String title(int index) {
+        return string(buffer.getInt(recordBase(index) + 4));
+    }
+
+    public String author(int index) {
+        return string(buffer.getInt(recordBase(index) + 8));
+    }
+
+    public String coverImageUrl(int index) {
+        return string(buffer.getInt(recordBase(index) + 20));
+    }
+
+    public String description(int index) {
+        int base = recordBase(index);
+        int length = buffer.getInt(base + 56);
+        if (length < 0) return null;
+        return decode(descriptionsOffset + buffer.getInt(base + 52), length);
+    }
+
+    private int recordBase(int index) {
+        if (index < 0 || index >= recordCount) throw new IndexOutOfBoundsException("record " + index);
+        return HEADER_SIZE + index * RECORD_SIZE;
+    }
+
+    private String string(int idx) {
+        if (idx < 0) return null;
+        String s = strings[idx];
+        if (s == null) {
+            int start = buffer.getInt(stringTableOffset + idx * 4);
+            int end = buffer.getInt(stringTableOffset + (idx + 1) * 4);
+            s = decode(stringDataOffset + start, end - start);
+            strings[idx] = s;
+        }
+        return s;
+    }
+
+    private String decode(int offset, int length) {
+        if (scratch.length < length) scratch = new byte[Math.max(length, scratch.length * 2)];
+        view.position(offset);
+        view.get(scratch, 0, length);
+        return new String(scratch, 0, length, UTF_8);
+    }
+
+    // --- Writing ---
+
+    /** Writes {@code books} to {@code file} atomically (temp file + rename). */
+    public static void write(File file, List<Book> books) throws IOException {
+        ByteBuffer image = encode(books);
+        File tmp = new File(file.getPath() + ".tmp");
+        try (FileOutputStream out = new FileOutputStream(tmp)) {
+            out.getChannel().write(image);
+            out.getFD().sync();
+        }
+        if (!tmp.renameTo(file)) {
+            tmp.delete();
+            throw new IOException("Could not replace " + file);
+        }
+    }
+
+    public static ByteBuffer encode(List<Book> books) {
+        Map<String, Integer> index = new HashMap<>();
+        List<byte[]> stringBytes = new ArrayList<>();
+        int[] refs = new int[books.size() * STRING_FIELDS];
+        byte[][] descs = new byte[books.size()][];
+        int stringDataSize = 0;
+        int descDataSize = 0;
+
+        for (int i = 0; i < books.size(); i++) {
+            Book b = books.get(i);
+            String[] fields = {b.id, b.title, b.author, b.category, b.language,
+                    b.coverImageUrl, b.fileUrl, b.visibility, b.uploadDate};
+            for (int f = 0; f < STRING_FIELDS; f++) {
+                String v = fields[f];
+                int ref = -1;
+                if (v != null) {
+                    Integer known = index.get(v);
+                    if (known == null) {
+                        byte[] bytes = v.getBytes(UTF_8);
+                        known = stringBytes.size();
+                        index.put(v, known);
+                        stringBytes.add(bytes);
+                        stringDataSize += bytes.length;
+                    }
+                    ref = known;
+                }
+                refs[i * STRING_FIELDS + f] = ref;
+            }
+            if (b.description != null) {
+                descs[i] = b.description.getBytes(UTF_8);
+                descDataSize += descs[i].length;
+            }
+        }
+
+        int stringTableOffset = HEADER_SIZE + books.size() * RECORD_SIZE;
+        int descriptionsOffset = stringTableOffset + (stringBytes.size() + 1) * 4 + stringDataSize;
+        ByteBuffer out = ByteBuffer.allocate(descriptionsOffset + descDataSize);
+        out.putInt(MAGIC).putInt(VERSION).putInt(books.size()).putInt(stringBytes.size())
+                .putInt(stringTableOffset).putInt(descriptionsOffset);
+
+        int descCursor = 0;
+        for (int i = 0; i < books.size(); i++) {
+            for (int f = 0; f < STRING_FIELDS; f++) out.putInt(refs[i * STRING_FIELDS + f]);
+            out.putDouble(books.get(i).price);
+            out.putLong(books.get(i).updatedAt);
+            if (descs[i] != null) {
+                out.putInt(descCursor).putInt(descs[i].length);
+                descCursor += descs[i].length;
+            } else {
+                out.putInt(0).putInt(-1);
+            }
+        }
+
+        int cursor = 0;
+        for (byte[] s : stringBytes) {
+            out.putInt(cursor);
+            cursor += s.length;
+        }
+        out.putInt(cursor);
+        for (byte[] s : stringBytes) out.put(s);
+        for (byte[] d : descs) if (d != null) out.put(d);
+
+        out.flip();
+        return out;
+    }
+}
@@ -0,0 +1,400 @@
+package com.svvaap.bookhive.data;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * A {@link BookHiveDataSource} over a {@link MemoryDatabase}, for running the app's data paths on
+ * a JVM: in tests, in benchmarks, or loaded with a generated dataset for scale runs.
+ *
+ * <p>It can stand in for a slow or unreliable network. With a {@link Builder#latency latency},
+ * every operation completes that long after it was made, and operations still complete in the
+ * order they were made, as they do against one Firebase client. With a
+ * {@link Builder#faultRate fault rate}, that share of operations fails with an
+ * {@link IOException} instead; {@link #failUnder} fails every operation on a subtree. Latency
+ * jitter and random faults are drawn from a seeded generator in operation order, so the same
+ * sequence of calls gives the same outcome.
+ *
+ * <p>Without latency, operations complete before the call returns. Listeners are called on the
+ * callback executor, the calling thread by default; use a serial one so changes stay in order.
+ * A failed read cancels the subscription it started, as with Firebase.
+ */
+public final class InMemoryDataSource implements BookHiveDataSource {
+
+    public static final class Builder {
+        private MemoryDatabase database = new MemoryDatabase();
+        private Executor callbackExecutor = Runnable::run;
+        private long latencyMs, jitterMs;
+        private double faultRate;
+        private long seed = 42;
+        private LongSupplier clock = System::currentTimeMillis;
+
+        /** The data to serve, e.g. from a generated dataset; empty by default. */
+        public Builder database(MemoryDatabase database) {
+            this.database = database;
+            return this;
+        }
+
+        public Builder callbackExecutor(Executor executor) {
+            this.callbackExecutor = executor;
+            return this;
+        }
+
+        /** Every operation takes {@code latencyMs} plus up to {@code jitterMs} to complete. */
+        public Builder latency(long latencyMs, long jitterMs) {
+            this.latencyMs = latencyMs;
+            this.jitterMs = jitterMs;
+            return this;
+        }
+
+        /** Share of operations, 0 to 1, that fail. */
+        public Builder faultRate(double rate) {
+            this.faultRate = rate;
+            return this;
+        }
+
+        public Builder seed(long seed) {
+            this.seed = seed;
+            return this;
+        }
+
+        /** What {@link #SERVER_TIMESTAMP} is written as. */
+        public Builder clock(LongSupplier clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public InMemoryDataSource build() {
+            return new InMemoryDataSource(this);
+        }
+    }
+
+    private final MemoryDatabase db;
+    private final Executor callbackExecutor;
+    private final long latencyMs, jitterMs;
+    private final double faultRate;
+    private final Random random;
+    private final LongSupplier clock;
+    private final ScheduledExecutorService scheduler;
+
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final List<String> failingPaths = new CopyOnWriteArrayList<>();
+    // Delayed operations in the order they were made, each due no earlier than the one before
+    // it; a single timer drains them, so they can never complete out of order. Guarded by this.
+    private final ArrayDeque<Pending> pending = new ArrayDeque<>();
+    private long lastDueNanos;
+    private boolean drainScheduled;
+
+    private InMemoryDataSource(Builder b) {
+        db = b.database;
+        callbackExecutor = b.callbackExecutor;
+        latencyMs = b.latencyMs;
+        jitterMs = b.jitterMs;
+        faultRate = b.faultRate;
+        random = new Random(b.seed);
+        clock = b.clock;
+        scheduler = latencyMs > 0 || jitterMs > 0
+                ? Executors.newSingleThreadScheduledExecutor(r -> {
+                    Thread t = new Thread(r, "in-memory-data-source");
+                    t.setDaemon(true);
+                    return t;
+                })
+                : null;
+    }
+
+    /** The data served; writes made through it directly are not reported to listeners. */
+    public MemoryDatabase database() {
+        return db;
+    }
+
+    /** Fails every later operation on {@code path} or below it, until {@link #clearFaults}. */
+    public void failUnder(String path) {
+        failingPaths.add(normalize(path));
+    }
+
+    public void clearFaults() {
+        failingPaths.clear();
+    }
+
+    /** Stops the latency scheduler; operations still pending are dropped. */
+    public void shutdown() {
+        if (scheduler != null) scheduler.shutdownNow();
+    }
+
+    @Override
+    public void get(String path, ValueListener listener) {
+        String p = normalize(path);
+        run(p, () -> {
+            Object value = db.get(p);
+            callbackExecutor.execute(() -> listener.onValue(value));
+        }, error -> callbackExecutor.execute(() -> listener.onError(error)));
+    }
+
+    @Override
+    public Registration observe(String path, ValueListener listener) {
+        return observe(path, callbackExecutor, listener);
+    }
+
+    @Override
+    public Registration observe(String path, Executor executor, ValueListener listener) {
+        Subscription s = new Subscription(normalize(path), executor, listener, null);
+        subscribe(s);
+        return s;
+    }
+
+    @Override
+    public Registration observeChildren(String path, ChildListener listener) {
+        Subscription s = new Subscription(normalize(path), callbackExecutor, null, listener);
+        subscribe(s);
+        return s;
+    }
+
+    @Override
+    public void set(String path, Object value, Completion completion) {
+        String p = normalize(path);
+        Object resolved = resolveTimestamps(value);
+        write(p, () -> db.set(p, resolved), completion);
+    }
+
+    @Override
+    public void update(String path, Map<String, Object> children, Completion completion) {
+        String p = normalize(path);
+        Object resolved = resolveTimestamps(children);
+        write(p, () -> {
+            Map<?, ?> m = (Map<?, ?>) resolved;
+            for (Map.Entry<?, ?> e : m.entrySet()) db.set(child(p, (String) e.getKey()), e.getValue());
+        }, completion);
+    }
+
+    private void subscribe(Subscription s) {
+        run(s.path, () -> {
+            if (!s.active) return;
+            subscriptions.add(s);
+            Object value = db.get(s.path);
+            s.executor.execute(() -> s.deliver(value));
+        }, error -> {
+            s.active = false;
+            s.executor.execute(() -> s.fail(error));
+        });
+    }
+
+    private void write(String path, Runnable apply, Completion completion) {
+        run(path, () -> {
+            // What each affected subscription saw before, to report only what changed. A write
+            // below a subscription can only change the part of it at the written path, or the
+            // one child it is under, so only that much is compared.
+            List<Subscription> affected = new ArrayList<>();
+            List<String> scopes = new ArrayList<>();
+            List<Object> before = new ArrayList<>();
+            for (Subscription s : subscriptions) {
+                if (!s.active || !related(path, s.path)) continue;
+                String scope = s.path;
+                if (isBelow(path, s.path)) scope = s.values != null ? path : childOn(path, s.path);
+                affected.add(s);
+                scopes.add(scope);
+                before.add(db.get(scope));
+            }
+            apply.run();
+            for (int i = 0; i < affected.size(); i++) notify(affected.get(i), scopes.get(i), before.get(i));
+            if (completion != null) callbackExecutor.execute(() -> completion.onComplete(null));
+        }, error -> {
+            if (completion != null) callbackExecutor.execute(() -> completion.onComplete(error));
+        });
+    }
+
+    private void notify(Subscription s, String scope, Object before) {
+        Object after = db.get(scope);
+        if (Objects.equals(before, after)) return;
+        if (s.values != null) {
+            Object value = scope.equals(s.path) ? after : db.get(s.path);
+            s.executor.execute(() -> s.deliver(value));
+        } else if (!scope.equals(s.path)) {
+            String key = scope.substring(scope.lastIndexOf('/') + 1);
+            s.executor.execute(() -> s.deliverChild(key, after));
+        } else {
+            Map<?, ?> was = before instanceof Map ? (Map<?, ?>) before : Collections.emptyMap();
+            Map<?, ?> now = after instanceof Map ? (Map<?, ?>) after : Collections.emptyMap();
+            Set<Object> keys = new LinkedHashSet<>(was.keySet());
+            keys.addAll(now.keySet());
+            for (Object key : keys) {
+                Object value = now.get(key);
+                if (!Objects.equals(was.get(key), value)) {
+                    s.executor.execute(() -> s.deliverChild((String) key, value));
+                }
+            }
+        }
+    }
+
+    /**
+     * Runs {@code op} after the configured latency, or {@code onError} when the operation is
+     * picked to fail. Operations are serialized and complete in the order they were made.
+     */
+    private void run(String path, Runnable op, ErrorHandler onError) {
+        Runnable task;
+        synchronized (this) {
+            boolean fail = faultRate > 0 && random.nextDouble() < faultRate;
+            task = () -> {
+                synchronized (InMemoryDataSource.this) {
+                    if (fail || failing(path)) {
+                        onError.onError(new IOException("Injected fault on " + path));
+                    } else {
+                        op.run();
+                    }
+                }
+            };
+            if (scheduler != null) {
+                long now = System.nanoTime();
+                long jitter = jitterMs > 0 ? (long) (random.nextDouble() * jitterMs) : 0;
+                long due = now + TimeUnit.MILLISECONDS.toNanos(latencyMs + jitter);
+                // Compared as a difference, as nanoTime values may overflow
+                if (pending.isEmpty() || due - lastDueNanos > 0) lastDueNanos = due;
+                pending.add(new Pending(lastDueNanos, task));
+                scheduleDrain(lastDueNanos - now);
+                return;
+            }
+        }
+        task.run();
+    }
+
+    /** Runs every pending operation that is due, oldest first, then waits for the next one. */
+    private void drain() {
+        while (true) {
+            Pending next;
+            synchronized (this) {
+                drainScheduled = false;
+                next = pending.peek();
+                if (next == null) return;
+                long wait = next.dueNanos - System.nanoTime();
+                if (wait > 0) {
+                    scheduleDrain(wait);
+                    return;
+                }
+                pending.poll();
+            }
+            next.task.run();
+        }
+    }
+
+    // Holding the lock
+    private void scheduleDrain(long delayNanos) {
+        if (drainScheduled) return;
+        drainScheduled = true;
+        scheduler.schedule(this::drain, delayNanos, TimeUnit.NANOSECONDS);
+    }
+
+    private boolean failing(String path) {
+        for (String p : failingPaths) {
+            if (p.isEmpty() || path.equals(p) || path.startsWith(p + "/")) return true;
+        }
+        return false;
+    }
+
+    private Object resolveTimestamps(Object value) {
+        if (value == SERVER_TIMESTAMP) return clock.getAsLong();
+        if (!(value instanceof Map)) return value;
+        Map<String, Object> out = new HashMap<>();
+        for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+            out.put(String.valueOf(e.getKey()), resolveTimestamps(e.getValue()));
+        }
+        return out;
+    }
+
+    /** Whether a write at one path can change the value at the other: one contains the other. */
+    private static boolean related(String a, String b) {
+        return a.isEmpty() || b.isEmpty() || a.equals(b) || a.startsWith(b + "/") || b.startsWith(a + "/");
+    }
+
+    /** Whether {@code path} is strictly below {@code ancestor}. */
+    private static boolean isBelow(String path, String ancestor) {
+        return !path.equals(ancestor) && (ancestor.isEmpty() || path.startsWith(ancestor + "/"));
+    }
+
+    /** The child of {@code ancestor} that {@code path}, below it, is in. */
+    private static String childOn(String path, String ancestor) {
+        int from = ancestor.isEmpty() ? 0 : ancestor.length() + 1;
+        int slash = path.indexOf('/', from);
+        return slash < 0 ? path : path.substring(0, slash);
+    }
+
+    private static String child(String path, String key) {
+        return path.isEmpty() ? key : path + "/" + key;
+    }
+
+    private static String normalize(String path) {
+        StringBuilder sb = new StringBuilder();
+        for (String s : path.split("/")) {
+            if (s.isEmpty()) continue;
+            if (sb.length() > 0) sb.append('/');
+            sb.append(s);
+        }
+        return sb.toString();
+    }
+
+    private interface ErrorHandler {
+        void onError(Exception error);
+    }
+
+    private static final class Pending {
+        final long dueNanos;
+        final Runnable task;
+
+        Pending(long dueNanos, Runnable task) {
+            this.dueNanos = dueNanos;
+            this.task = task;
+        }
+    }
+
+    private final class Subscription implements Registration {
+        final String path;
+        final Executor executor;
+        final ValueListener values;
+        final ChildListener children;
+        volatile boolean active = true;
+
+        Subscription(String path, Executor executor, ValueListener values, ChildListener children) {
+            this.path = path;
+            this.executor = executor;
+            this.values = values;
+            this.children = children;
+        }
+
+        void deliver(Object value) {
+            if (!active) return;
+            if (values != null) {
+                values.onValue(value);
+            } else if (value instanceof Map) {
+                for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) children.onChild((String) e.getKey(), e.getValue());
+            }
+        }
+
+        void deliverChild(String key, Object value) {
+            if (active) children.onChild(key, value);
+        }
+
+        void fail(Exception error) {
+            if (values != null) values.onError(error);
+            else children.onError(error);
+        }
+
+        @Override
+        public void remove() {
+            active = false;
+            subscriptions.remove(this);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.svvaap.bookhive.data;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A Realtime Database tree held in memory, for running data paths on a plain JVM at sizes no
+ * test project holds. Nodes are addressed by slash-separated paths ({@code "carts/u1/book7"}) and
+ * hold what the database holds: maps, strings, booleans and numbers. Writes are normalized the way
+ * the database stores them: whole numbers come back as {@link Long}, other numbers as
+ * {@link Double}, children in key order, and a node left without children is removed.
+ *
+ * <p>Reads return a copy in the shapes {@code DataSnapshot.getValue()} produces (maps of the same
+ * values, here iterating in key order), so the caller may keep or modify it. Thread-safe.
+ */
+public final class MemoryDatabase {
+    private final TreeMap<String, Object> root = new TreeMap<>();
+
+    /** The value at {@code path}, copied; null when there is none. {@code ""} is the root. */
+    public synchronized Object get(String path) {
+        return copyOut(node(segments(path)));
+    }
+
+    /** Number of children at {@code path}; 0 for a leaf or a missing node. */
+    public synchronized int childCount(String path) {
+        Object node = node(segments(path));
+        return node instanceof Map ? ((Map<?, ?>) node).size() : 0;
+    }
+
+    /** Child keys at {@code path}, in order. */
+    public synchronized List<String> keys(String path) {
+        Object node = node(segments(path));
+        return node instanceof Map ? new ArrayList<>(asNode(node).keySet()) : new ArrayList<String>();
+    }
+
+    /** Replaces the value at {@code path}; null removes it. */
+    public synchronized void set(String path, Object value) {
+        String[] segments = segments(path);
+        Object stored = copyIn(value);
+        if (segments.length == 0) {
+            root.clear();
+            if (stored instanceof Map) root.putAll(asNode(stored));
+            return;
+        }
+        List<TreeMap<String, Object>> parents = new ArrayList<>(segments.length);
+        TreeMap<String, Object> parent = root;
+        for (int i = 0; i < segments.length - 1; i++) {
+            parents.add(parent);
+            Object child = parent.get(segments[i]);
+            if (!(child instanceof TreeMap)) {
+                if (stored == null) return;
+                child = new TreeMap<String, Object>();
+                parent.put(segments[i], child);
+            }
+            parent = asNode(child);
+        }
+        String key = segments[segments.length - 1];
+        if (stored != null) {
+            parent.put(key, stored);
+            return;
+        }
+        parent.remove(key);
+        // Prune the parents the removal left empty, as the database does
+        for (int i = segments.length - 2; i >= 0 && parent.isEmpty(); i--) {
+            parent = parents.get(i);
+            parent.remove(segments[i]);
+        }
+    }
+
+    /** Sets each child of {@code path} named in {@code children}, leaving the others. */
+    public synchronized void update(String path, Map<String, ?> children) {
+        String prefix = segments(path).length == 0 ? "" : path + "/";
+        for (Map.Entry<String, ?> e : children.entrySet()) set(prefix + e.getKey(), e.getValue());
+    }
+
+    private Object node(String[] segments) {
+        Object node = root;
+        for (String segment : segments) {
+            if (!(node instanceof TreeMap)) return null;
+            node = asNode(node).get(segment);
+        }
+        return node;
+    }
+
+    private static String[] segments(String path) {
+        List<String> out = new ArrayList<>();
+        for (String s : path.split("/")) {
+            if (!s.isEmpty()) out.add(s);
+        }
+        return out.toArray(new String[0]);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static TreeMap<String, Object> asNode(Object node) {
+        return (TreeMap<String, Object>) node;
+    }
+
+    private static Object copyIn(Object value) {
+        if (value instanceof Map) {
+            TreeMap<String, Object> out = new TreeMap<>();
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+                Object v = copyIn(e.getValue());
+                if (v != null) out.put(String.valueOf(e.getKey()), v);
+            }
+            return out.isEmpty() ? null : out;
+        }
+        if (value instanceof Number) {
+            double d = ((Number) value).doubleValue();
+            if (d == Math.rint(d) && !Double.isInfinite(d) && Math.abs(d) < 0x1p63) return (long) d;
+            return d;
+        }
+        if (value == null || value instanceof String || value instanceof Boolean) return value;
+        throw new IllegalArgumentException("Not a database value: " + value.getClass().getName());
+    }
+
+    private static Object copyOut(Object node) {
+        if (!(node instanceof TreeMap)) return node;
+        Map<String, Object> out = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> e : asNode(node).entrySet()) out.put(e.getKey(), copyOut(e.getValue()));
+        return out;
+    }
+}
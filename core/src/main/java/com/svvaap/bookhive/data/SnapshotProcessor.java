@@ -0,0 +1,127 @@
+package com.svvaap.bookhive.data;
+
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Builds view models from database snapshots off the UI thread. A subscription hands each raw
+ * snapshot to a worker, where it is turned into a value and then into the model, and only the
+ * finished model is posted to the result executor (the main thread in the app). The listener
+ * there does nothing but show it.
+ *
+ * <p>Each subscription processes one snapshot at a time, in order. When snapshots arrive faster
+ * than they are processed, those still waiting are skipped in favour of the newest: only the
+ * latest state of a node is worth building. Different subscriptions run in parallel on the
+ * worker pool.
+ *
+ * <p>Models must be immutable or at least not touched again by the builder, since they cross
+ * threads. After {@link BookHiveDataSource.Registration#remove()} is called on the result
+ * thread, nothing more is delivered.
+ */
+public final class SnapshotProcessor {
+
+    public interface Listener<T> {
+        void onResult(T model);
+
+        void onError(Exception error);
+    }
+
+    private final Executor workers;
+    private final Executor results;
+
+    /**
+     * @param workers where snapshots are converted and models built
+     * @param results where listeners are called
+     */
+    public SnapshotProcessor(Executor workers, Executor results) {
+        this.workers = workers;
+        this.results = results;
+    }
+
+    /**
+     * Subscribes to {@code path}, building a model with {@code build} from its value (null when
+     * the node is missing) now and after every change.
+     */
+    public <T> BookHiveDataSource.Registration observe(BookHiveDataSource source, String path,
+                                                       Function<Object, T> build, Listener<T> listener) {
+        Stream<T> stream = new Stream<>(listener);
+        stream.source = source.observe(path, stream, new BookHiveDataSource.ValueListener() {
+            @Override
+            public void onValue(Object value) {
+                T model;
+                try {
+                    model = build.apply(value);
+                } catch (RuntimeException e) {
+                    stream.post(null, e);
+                    return;
+                }
+                stream.post(model, null);
+            }
+
+            @Override
+            public void onError(Exception error) {
+                stream.post(null, error);
+            }
+        });
+        return stream;
+    }
+
+    /** A subscription's serial lane on the worker pool, keeping only the newest pending task. */
+    private final class Stream<T> implements Executor, BookHiveDataSource.Registration {
+        private final Listener<T> listener;
+        private final Runnable drain = this::drain;
+        volatile BookHiveDataSource.Registration source;
+        private volatile boolean active = true;
+        private Runnable pending;
+        private boolean running;
+
+        Stream(Listener<T> listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            synchronized (this) {
+                pending = task;
+                if (running) return;
+                running = true;
+            }
+            workers.execute(drain);
+        }
+
+        private void drain() {
+            while (active) {
+                Runnable task;
+                synchronized (this) {
+                    task = pending;
+                    pending = null;
+                    if (task == null) {
+                        running = false;
+                        return;
+                    }
+                }
+                task.run();
+            }
+            synchronized (this) {
+                pending = null;
+                running = false;
+            }
+        }
+
+        void post(T model, Exception error) {
+            if (!active) return;
+            results.execute(() -> {
+                if (!active) return;
+                if (error != null) listener.onError(error);
+                else listener.onResult(model);
+            });
+        }
+
+        @Override
+        public void remove() {
+            active = false;
+            BookHiveDataSource.Registration s = source;
+            if (s != null) s.remove();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.svvaap.bookhive.sales;
+
+import com.svvaap.bookhive.BookCodec;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Revenue per book over the completed orders: one row per book, highest revenue first and
+ * ranked from 1, with the totals across all of them. Built in one pass over the orders, with a
+ * hash lookup per order for its book's row.
+ *
+ * <p>Books with equal revenue keep the order of their first sale. Orders without a book id
+ * cannot be told apart, so each one is a row of its own. Immutable.
+ */
+public final class SalesReport {
+    public static final String STATUS_COMPLETED = "completed";
+
+    private static final Comparator<Tally> BY_REVENUE = (a, b) -> Double.compare(b.revenue, a.revenue);
+
+    /** The fields of one order under {@code orders} that the report reads. */
+    public static final class Order {
+        public String bookId;
+        public String bookTitle;
+        public String bookAuthor;
+        public double bookPrice;
+        public String status;
+
+        public Order() {}
+
+        public Order(String bookId, String bookTitle, String bookAuthor, double bookPrice, String status) {
+            this.bookId = bookId;
+            this.bookTitle = bookTitle;
+            this.bookAuthor = bookAuthor;
+            this.bookPrice = bookPrice;
+            this.status = status;
+        }
+
+        /**
+         * The order in a snapshot value of {@code orders/{id}}, tolerating prices stored as
+         * strings; null when the value is not an order.
+         */
+        public static Order decode(Object value) {
+            if (!(value instanceof Map)) return null;
+            Map<?, ?> m = (Map<?, ?>) value;
+            return new Order(
+                    BookCodec.asString(m.get("bookId")),
+                    BookCodec.asString(m.get("bookTitle")),
+                    BookCodec.asString(m.get("bookAuthor")),
+                    BookCodec.asDouble(m.get("bookPrice")),
+                    BookCodec.asString(m.get("status")));
+        }
+    }
+
+    /** One book's row. */
+    public static final class BookSale {
+        public final String bookId;
+        public final String bookTitle;
+        public final String bookAuthor;
+        public final int salesCount;
+        public final double revenue;
+        /** 1 for the highest revenue. */
+        public final int rank;
+
+        BookSale(String bookId, String bookTitle, String bookAuthor, int salesCount, double revenue, int rank) {
+            this.bookId = bookId;
+            this.bookTitle = bookTitle;
+            this.bookAuthor = bookAuthor;
+            this.salesCount = salesCount;
+            this.revenue = revenue;
+            this.rank = rank;
+        }
+    }
+
+    /** A book's running totals while the orders are read. */
+    private static final class Tally {
+        final Order firstSale;
+        int salesCount;
+        double revenue;
+
+        Tally(Order firstSale) {
+            this.firstSale = firstSale;
+        }
+    }
+
+    /** Highest revenue first. */
+    public final List<BookSale> books;
+    public final double totalRevenue;
+    public final int totalOrders;
+
+    private SalesReport(List<BookSale> books, double totalRevenue, int totalOrders) {
+        this.books = Collections.unmodifiableList(books);
+        this.totalRevenue = totalRevenue;
+        this.totalOrders = totalOrders;
+    }
+
+    /** The report over {@code orders}; null orders and orders not completed are skipped. */
+    public static SalesReport of(Iterable<Order> orders) {
+        Map<String, Tally> byBookId = new HashMap<>();
+        List<Tally> tallies = new ArrayList<>();
+        double totalRevenue = 0;
+        int totalOrders = 0;
+        for (Order order : orders) {
+            if (order == null || !STATUS_COMPLETED.equalsIgnoreCase(order.status)) continue;
+            totalRevenue += order.bookPrice;
+            totalOrders++;
+
+            Tally tally = order.bookId != null ? byBookId.get(order.bookId) : null;
+            if (tally == null) {
+                tally = new Tally(order);
+                tallies.add(tally);
+                if (order.bookId != null) byBookId.put(order.bookId, tally);
+            }
+            tally.salesCount++;
+            tally.revenue += order.bookPrice;
+        }
+        // Stable, so ties stay in order of first sale
+        Collections.sort(tallies, BY_REVENUE);
+        List<BookSale> books = new ArrayList<>(tallies.size());
+        for (Tally t : tallies) {
+            Order first = t.firstSale;
+            books.add(new BookSale(first.bookId, first.bookTitle, first.bookAuthor,
+                    t.salesCount, t.revenue, books.size() + 1));
+        }
+        return new SalesReport(books, totalRevenue, totalOrders);
+    }
+
+    /** The report over a snapshot value of {@code orders}. */
+    public static SalesReport decode(Object value) {
+        Map<?, ?> children = value instanceof Map ? (Map<?, ?>) value : Collections.emptyMap();
+        List<Order> orders = new ArrayList<>(children.size());
+        for (Object order : children.values()) orders.add(Order.decode(order));
+        return of(orders);
+    }
+}
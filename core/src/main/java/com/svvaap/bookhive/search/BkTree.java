@@ -0,0 +1,147 @@
+package com.svvaap.bookhive.search;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Burkhard-Keller tree over a term vocabulary under Levenshtein distance. Each child edge is
+ * labelled with its distance to the parent term, so by the triangle inequality a lookup within
+ * {@code k} edits of {@code q} only descends into edges labelled {@code d(q, node) ± k}; on a
+ * typical vocabulary a 1–2 edit lookup touches a small fraction of the terms.
+ *
+ * <p>Terms cannot be removed; callers filter stale terms out of the results and rebuild the tree
+ * when they pile up. Not thread-safe.
+ */
+final class BkTree {
+
+    /** A vocabulary term within the requested distance of the query. */
+    static final class Hit {
+        final String term;
+        final int distance;
+
+        Hit(String term, int distance) {
+            this.term = term;
+            this.distance = distance;
+        }
+    }
+
+    private Node root;
+    private int size;
+
+    int size() {
+        return size;
+    }
+
+    void clear() {
+        root = null;
+        size = 0;
+    }
+
+    /** Adds a term; returns false if it was already present. */
+    boolean add(String term) {
+        if (root == null) {
+            root = new Node(term);
+            size = 1;
+            return true;
+        }
+        Node node = root;
+        while (true) {
+            int d = distance(term, node.term, Integer.MAX_VALUE);
+            if (d == 0) return false;
+            Node child = node.child(d);
+            if (child == null) {
+                node.addChild(d, new Node(term));
+                size++;
+                return true;
+            }
+            node = child;
+        }
+    }
+
+    /** Terms within {@code maxDistance} edits of {@code query}, in no particular order. */
+    List<Hit> search(String query, int maxDistance) {
+        List<Hit> out = new ArrayList<>();
+        if (root == null) return out;
+        List<Node> stack = new ArrayList<>();
+        stack.add(root);
+        while (!stack.isEmpty()) {
+            Node node = stack.remove(stack.size() - 1);
+            // Past this bound neither the node nor any child edge can qualify, so the exact
+            // distance is not needed and the DP may stop early
+            int limit = (node.childCount > 0 ? node.edges[node.childCount - 1] : 0) + maxDistance;
+            int d = distance(query, node.term, limit);
+            if (d <= maxDistance) out.add(new Hit(node.term, d));
+            int lo = d - maxDistance, hi = d + maxDistance;
+            for (int i = 0; i < node.childCount; i++) {
+                int edge = node.edges[i];
+                if (edge > hi) break;
+                if (edge >= lo) stack.add(node.children[i]);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Levenshtein distance, or once it is known to exceed {@code limit}, some lower bound of it
+     * that also exceeds {@code limit}. Two-row DP over the shorter string.
+     */
+    static int distance(String a, String b, int limit) {
+        if (a.length() < b.length()) {
+            String t = a;
+            a = b;
+            b = t;
+        }
+        int n = a.length(), m = b.length();
+        if (n - m > limit) return n - m;
+        int[] prev = new int[m + 1];
+        int[] cur = new int[m + 1];
+        for (int j = 0; j <= m; j++) prev[j] = j;
+        for (int i = 1; i <= n; i++) {
+            cur[0] = i;
+            int rowMin = i;
+            char ca = a.charAt(i - 1);
+            for (int j = 1; j <= m; j++) {
+                int sub = prev[j - 1] + (ca == b.charAt(j - 1) ? 0 : 1);
+                int v = Math.min(sub, Math.min(prev[j], cur[j - 1]) + 1);
+                cur[j] = v;
+                if (v < rowMin) rowMin = v;
+            }
+            if (rowMin > limit) return rowMin;
+            int[] t = prev;
+            prev = cur;
+            cur = t;
+        }
+        return prev[m];
+    }
+
+    /** Children are kept sorted by edge distance so a lookup can stop at the upper bound. */
+    private static final class Node {
+        final String term;
+        int[] edges = new int[2];
+        Node[] children = new Node[2];
+        int childCount;
+
+        Node(String term) {
+            this.term = term;
+        }
+
+        Node child(int edge) {
+            int pos = Arrays.binarySearch(edges, 0, childCount, edge);
+            return pos >= 0 ? children[pos] : null;
+        }
+
+        void addChild(int edge, Node child) {
+            int pos = -Arrays.binarySearch(edges, 0, childCount, edge) - 1;
+            if (childCount == edges.length) {
+                edges = Arrays.copyOf(edges, childCount * 2);
+                children = Arrays.copyOf(children, childCount * 2);
+            }
+            System.arraycopy(edges, pos, edges, pos + 1, childCount - pos);
+            System.arraycopy(children, pos, children, pos + 1, childCount - pos);
+            edges[pos] = edge;
+            children[pos] = child;
+            childCount++;
+        }
+    }
+}
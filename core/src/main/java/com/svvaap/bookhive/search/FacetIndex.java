@@ -0,0 +1,137 @@
+package com.svvaap.bookhive.search;
+
+import com.svvaap.bookhive.Book;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Bitmap index over the facets a book list is filtered by: category, language, visibility and
+ * price band. Each value of each facet owns a bitmap with one bit per book, so a filter is a few
+ * word-wise ORs (values within a facet) and ANDs (across facets) instead of a pass over the
+ * books, and the count shown next to a chip is the cardinality of one more AND.
+ *
+ * <p>Bitmaps are plain {@link BitSet}s: at a few hundred thousand books each is a few dozen KB
+ * and a facet has only a handful of values, so compression would save little. Values are
+ * matched case-insensitively; missing values are indexed as {@code ""}. Immutable: build a new
+ * index when the list changes. Docs keep the order of the list they were built from.
+ */
+public final class FacetIndex {
+
+    public enum Field { CATEGORY, LANGUAGE, VISIBILITY, PRICE_BAND }
+
+    /** Price band values, in ascending price order. */
+    public static final String BAND_FREE = "free";
+    public static final String BAND_UNDER_100 = "under 100";
+    public static final String BAND_100_TO_299 = "100-299";
+    public static final String BAND_300_TO_499 = "300-499";
+    public static final String BAND_500_PLUS = "500+";
+
+    private static final BitSet EMPTY = new BitSet();
+
+    private final List<Book> docs;
+    private final Map<Field, Map<String, BitSet>> bitmaps = new EnumMap<>(Field.class);
+    private final BitSet all = new BitSet();
+
+    public FacetIndex(List<Book> books) {
+        docs = new ArrayList<>(books);
+        for (Field f : Field.values()) bitmaps.put(f, new HashMap<>());
+        for (int doc = 0; doc < docs.size(); doc++) {
+            Book b = docs.get(doc);
+            all.set(doc);
+            add(Field.CATEGORY, b.category, doc);
+            add(Field.LANGUAGE, b.language, doc);
+            add(Field.VISIBILITY, b.visibility, doc);
+            add(Field.PRICE_BAND, priceBand(b.price), doc);
+        }
+    }
+
+    public int size() {
+        return docs.size();
+    }
+
+    /** Every doc; a fresh bitmap the caller may modify. */
+    public BitSet all() {
+        return (BitSet) all.clone();
+    }
+
+    /** Docs whose {@code field} equals any of {@code values}; every doc when none are given. */
+    public BitSet select(Field field, Collection<String> values) {
+        if (values == null || values.isEmpty()) return all();
+        BitSet out = new BitSet(docs.size());
+        for (String v : values) out.or(bitmap(field, v));
+        return out;
+    }
+
+    /** Docs matching every facet of {@code filter}: OR within a facet, AND across facets. */
+    public BitSet select(Map<Field, ? extends Collection<String>> filter) {
+        BitSet out = all();
+        for (Map.Entry<Field, ? extends Collection<String>> e : filter.entrySet()) {
+            if (e.getValue() == null || e.getValue().isEmpty()) continue;
+            out.and(select(e.getKey(), e.getValue()));
+            if (out.isEmpty()) break;
+        }
+        return out;
+    }
+
+    /** How many docs of {@code within} (all docs when null) have {@code field} equal to {@code value}. */
+    public int count(Field field, String value, BitSet within) {
+        BitSet values = bitmap(field, value);
+        if (within == null) return values.cardinality();
+        BitSet both = (BitSet) values.clone();
+        both.and(within);
+        return both.cardinality();
+    }
+
+    /** Count per (lower-cased) value of {@code field} within {@code within}, or all docs when null. */
+    public Map<String, Integer> counts(Field field, BitSet within) {
+        Map<String, Integer> out = new HashMap<>();
+        for (String value : bitmaps.get(field).keySet()) {
+            int n = count(field, value, within);
+            if (n > 0) out.put(value, n);
+        }
+        return out;
+    }
+
+    /** The books behind {@code selection}, in index order, at most {@code limit}. */
+    public List<Book> books(BitSet selection, int limit) {
+        if (limit <= 0) return Collections.emptyList();
+        List<Book> out = new ArrayList<>(Math.min(limit, selection.cardinality()));
+        for (int doc = selection.nextSetBit(0); doc >= 0 && out.size() < limit; doc = selection.nextSetBit(doc + 1)) {
+            out.add(docs.get(doc));
+        }
+        return out;
+    }
+
+    public static String priceBand(double price) {
+        if (price <= 0) return BAND_FREE;
+        if (price < 100) return BAND_UNDER_100;
+        if (price < 300) return BAND_100_TO_299;
+        if (price < 500) return BAND_300_TO_499;
+        return BAND_500_PLUS;
+    }
+
+    private BitSet bitmap(Field field, String value) {
+        BitSet b = bitmaps.get(field).get(key(value));
+        return b != null ? b : EMPTY;
+    }
+
+    private void add(Field field, String value, int doc) {
+        Map<String, BitSet> byValue = bitmaps.get(field);
+        String key = key(value);
+        BitSet b = byValue.get(key);
+        if (b == null) byValue.put(key, b = new BitSet());
+        b.set(doc);
+    }
+
+    private static String key(String value) {
+        return value == null ? "" : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
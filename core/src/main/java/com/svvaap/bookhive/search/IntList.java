@@ -0,0 +1,116 @@
+package com.svvaap.bookhive.search;
+
+import java.util.Arrays;
+
+/**
+ * Growable, ascending array of doc ids: the posting list. Appends are O(1), which is the common
+ * case because new documents get the highest id; sorted inserts and removals shift the tail.
+ */
+final class IntList {
+    private int[] values;
+    private int size;
+
+    IntList() {
+        this(4);
+    }
+
+    IntList(int capacity) {
+        values = new int[Math.max(1, capacity)];
+    }
+
+    /** A list holding {@code ascending}, which must be sorted without duplicates. */
+    static IntList of(int[] ascending) {
+        IntList list = new IntList(ascending.length);
+        System.arraycopy(ascending, 0, list.values, 0, ascending.length);
+        list.size = ascending.length;
+        return list;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int get(int index) {
+        return values[index];
+    }
+
+    /** Keeps the list ascending; a value already present is not added twice. */
+    void insert(int value) {
+        if (size == 0 || values[size - 1] < value) {
+            ensureCapacity(size + 1);
+            values[size++] = value;
+            return;
+        }
+        int pos = Arrays.binarySearch(values, 0, size, value);
+        if (pos >= 0) return;
+        pos = -pos - 1;
+        ensureCapacity(size + 1);
+        System.arraycopy(values, pos, values, pos + 1, size - pos);
+        values[pos] = value;
+        size++;
+    }
+
+    boolean remove(int value) {
+        int pos = Arrays.binarySearch(values, 0, size, value);
+        if (pos < 0) return false;
+        System.arraycopy(values, pos + 1, values, pos, size - pos - 1);
+        size--;
+        return true;
+    }
+
+    boolean contains(int value) {
+        return Arrays.binarySearch(values, 0, size, value) >= 0;
+    }
+
+    int[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    private void ensureCapacity(int needed) {
+        if (needed > values.length) values = Arrays.copyOf(values, Math.max(needed, values.length * 2));
+    }
+
+    // --- Set operations on ascending arrays ---
+
+    static int[] union(int[] a, int[] b) {
+        if (a.length == 0) return b;
+        if (b.length == 0) return a;
+        int[] out = new int[a.length + b.length];
+        int i = 0, j = 0, n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) out[n++] = a[i++];
+            else if (a[i] > b[j]) out[n++] = b[j++];
+            else { out[n++] = a[i++]; j++; }
+        }
+        while (i < a.length) out[n++] = a[i++];
+        while (j < b.length) out[n++] = b[j++];
+        return n == out.length ? out : Arrays.copyOf(out, n);
+    }
+
+    /**
+     * Walks the shorter array and gallops through the longer one, so a rare term intersected
+     * with a common one costs O(small * log(large)) rather than O(small + large).
+     */
+    static int[] intersect(int[] a, int[] b) {
+        if (a.length > b.length) { int[] t = a; a = b; b = t; }
+        int[] out = new int[a.length];
+        int n = 0, lo = 0;
+        for (int value : a) {
+            int step = 1, hi = lo;
+            while (hi < b.length && b[hi] < value) {
+                lo = hi + 1;
+                hi += step;
+                step <<= 1;
+            }
+            int pos = Arrays.binarySearch(b, lo, Math.min(hi + 1, b.length), value);
+            if (pos >= 0) {
+                out[n++] = value;
+                lo = pos + 1;
+            } else {
+                lo = -pos - 1;
+            }
+            if (lo >= b.length) break;
+        }
+        return Arrays.copyOf(out, n);
+    }
+}
@@ -0,0 +1,99 @@
+package com.svvaap.bookhive.search;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache of match results for search-as-you-type, keyed by the normalised query tokens.
+ * Typing only ever narrows a query, so the result for "harr" can be refined from the cached
+ * result for "har" instead of the postings of the whole index: {@link #nearest} finds the
+ * smallest cached result whose every token is a prefix of some token of the new query.
+ *
+ * <p>Entries are kept exact as the index changes: {@link #onDocIndexed} re-tests one doc against
+ * each cached query and {@link #onDocRemoved} drops it, so a catalog update costs a few checks
+ * per cached query instead of invalidating the cache. Confined to the owning index's thread.
+ */
+final class QueryCache {
+
+    interface DocMatcher {
+        /** Whether the doc matches every one of {@code tokens}. */
+        boolean matches(int docId, String[] tokens);
+    }
+
+    static final class CachedResult {
+        final String[] tokens;
+        final IntList docs;
+
+        CachedResult(String[] tokens, IntList docs) {
+            this.tokens = tokens;
+            this.docs = docs;
+        }
+    }
+
+    private final Map<String, CachedResult> entries;
+
+    QueryCache(final int capacity) {
+        entries = new LinkedHashMap<String, CachedResult>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResult> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    /** The cache key of a deduplicated, sorted token array. */
+    static String key(String[] tokens) {
+        return String.join(" ", tokens);
+    }
+
+    CachedResult get(String key) {
+        return entries.get(key);
+    }
+
+    void put(String key, String[] tokens, int[] docs) {
+        entries.put(key, new CachedResult(tokens, IntList.of(docs)));
+    }
+
+    /**
+     * The cached entry with the fewest docs whose result is a superset of the name matches of
+     * {@code tokens}, or null. Docs matching a new token only through the description are not
+     * covered (description terms match whole words, not prefixes); callers add those.
+     */
+    CachedResult nearest(String[] tokens) {
+        CachedResult best = null;
+        for (CachedResult e : entries.values()) {
+            if ((best == null || e.docs.size() < best.docs.size()) && covers(e.tokens, tokens)) best = e;
+        }
+        return best;
+    }
+
+    void onDocIndexed(int docId, DocMatcher matcher) {
+        for (CachedResult e : entries.values()) {
+            if (matcher.matches(docId, e.tokens)) e.docs.insert(docId);
+            else e.docs.remove(docId);
+        }
+    }
+
+    void onDocRemoved(int docId) {
+        for (CachedResult e : entries.values()) e.docs.remove(docId);
+    }
+
+    void clear() {
+        entries.clear();
+    }
+
+    /** Whether each cached token is a prefix of some query token. */
+    private static boolean covers(String[] cached, String[] query) {
+        for (String c : cached) {
+            boolean found = false;
+            for (String q : query) {
+                if (q.startsWith(c)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) return false;
+        }
+        return true;
+    }
+}
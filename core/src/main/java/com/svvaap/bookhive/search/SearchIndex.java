@@ -0,0 +1,626 @@
+package com.svvaap.bookhive.search;
+
+import com.svvaap.bookhive.Book;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * In-memory inverted index over the catalog. Each book gets a dense int doc id, and each key maps
+ * to an ascending posting list of doc ids:
+ * <ul>
+ *   <li>every prefix (edge n-gram, up to {@link #MAX_PREFIX} chars) of every title and author
+ *   token, so "har" finds "Harry" and "Harari" while the user is still typing. These live in a
+ *   character trie rather than a map, so indexing a token walks it once instead of allocating
+ *   and hashing a string per prefix;</li>
+ *   <li>every whole description token.</li>
+ * </ul>
+ * A query is tokenised the same way; each query token must prefix a title/author token or equal
+ * a description token, and the per-token candidate lists are intersected smallest first. The
+ * cost depends on the size of the posting lists involved, not on the size of the catalog.
+ *
+ * <p>{@link #rank} orders the matches by BM25F: each query token contributes its inverse
+ * document frequency times a saturated term frequency, where the title, author and description
+ * frequencies are each normalised by that field's length and weighted by a per-field boost, so a
+ * title hit outranks the same word in a long description. Only the requested top K are kept, in a
+ * bounded heap, so ranking costs O(matches · log K) rather than a sort of every match.
+ *
+ * <p>Match results are kept in a small {@link QueryCache}: a query that extends a cached one
+ * ("harr" after "har") is answered by re-checking the cached docs rather than intersecting
+ * postings again, and the cache is patched doc by doc as the index changes.
+ *
+ * <p>A query that matches nothing falls back to {@link #fuzzyMatch}: query tokens may then be
+ * a few edits away from a title/author token ("rowlnig" finds "Rowling"). Near terms come from a
+ * {@link BkTree} over the title/author vocabulary, so the fallback does not scan the catalog.
+ *
+ * <p>Updates are incremental ({@link #put}, {@link #remove}), so a catalog change touches only
+ * the postings of the books it names. Not thread-safe: confine an index to one thread.
+ */
+public final class SearchIndex {
+    /** Longer query tokens are looked up by this prefix and then verified against the doc. */
+    static final int MAX_PREFIX = 6;
+    /** Recent queries kept for refinement; a typing session rarely needs more. */
+    static final int DEFAULT_QUERY_CACHE_SIZE = 32;
+    /** Relative cost of re-checking one doc against one token versus reading one posting. */
+    private static final int REFINE_COST_RATIO = 32;
+
+    // BM25 parameters: term frequency saturation and strength of field length normalisation
+    static final float K1 = 1.2f;
+    static final float B = 0.75f;
+    static final float TITLE_BOOST = 3f;
+    static final float AUTHOR_BOOST = 2f;
+    static final float DESCRIPTION_BOOST = 1f;
+
+    private static final int[] NONE = new int[0];
+
+    private final Map<String, Integer> docIdsByBookId = new HashMap<>();
+    private final List<Book> docs = new ArrayList<>();
+    // Normalised title + author tokens per doc, for verifying prefixes longer than MAX_PREFIX
+    private final List<String[]> nameTokens = new ArrayList<>();
+    // Per-field tokens in order, repeats kept, for term frequencies and field lengths
+    private final List<String[]> titleTokens = new ArrayList<>();
+    private final List<String[]> authorTokens = new ArrayList<>();
+    private int[] descriptionLengths = new int[16];
+    private long titleLengthSum, authorLengthSum, descriptionLengthSum;
+    private IntList freeDocIds = new IntList();
+    private PrefixNode prefixRoot = new PrefixNode();
+    private final Map<String, IntList> termPostings = new HashMap<>();
+    // Title/author vocabulary with the number of docs using each term, and a BK-tree over it.
+    // The tree cannot delete, so terms whose count drops to zero stay in it until a rebuild.
+    private final Map<String, int[]> nameTermCounts = new HashMap<>();
+    private final BkTree nameTerms = new BkTree();
+    private final QueryCache queryCache;
+
+    public SearchIndex() {
+        this(DEFAULT_QUERY_CACHE_SIZE);
+    }
+
+    /** @param queryCacheSize recent match results kept for refinement; 0 disables the cache */
+    public SearchIndex(int queryCacheSize) {
+        queryCache = queryCacheSize > 0 ? new QueryCache(queryCacheSize) : null;
+    }
+
+    public int size() {
+        return docIdsByBookId.size();
+    }
+
+    public void clear() {
+        docIdsByBookId.clear();
+        docs.clear();
+        nameTokens.clear();
+        titleTokens.clear();
+        authorTokens.clear();
+        titleLengthSum = authorLengthSum = descriptionLengthSum = 0;
+        freeDocIds = new IntList();
+        prefixRoot = new PrefixNode();
+        termPostings.clear();
+        nameTermCounts.clear();
+        nameTerms.clear();
+        if (queryCache != null) queryCache.clear();
+    }
+
+    /** Rebuilds the index from {@code books}; doc ids follow the collection's order. */
+    public void rebuild(Collection<Book> books) {
+        clear();
+        for (Book b : books) put(b);
+    }
+
+    /** Adds a book, or re-indexes it if a book with the same id is already present. */
+    public void put(Book book) {
+        if (book == null || book.id == null) return;
+        Integer existing = docIdsByBookId.get(book.id);
+        int docId;
+        if (existing != null) {
+            docId = existing;
+            unindex(docId);
+        } else if (freeDocIds.size() > 0) {
+            docId = freeDocIds.get(0);
+            freeDocIds.remove(docId);
+        } else {
+            docId = docs.size();
+            docs.add(null);
+            nameTokens.add(null);
+            titleTokens.add(null);
+            authorTokens.add(null);
+            if (docId == descriptionLengths.length) {
+                descriptionLengths = Arrays.copyOf(descriptionLengths, docId * 2);
+            }
+        }
+        docIdsByBookId.put(book.id, docId);
+        docs.set(docId, book);
+        index(docId, book);
+        if (queryCache != null) queryCache.onDocIndexed(docId, this::matchesAll);
+    }
+
+    public boolean remove(String bookId) {
+        Integer docId = bookId != null ? docIdsByBookId.remove(bookId) : null;
+        if (docId == null) return false;
+        unindex(docId);
+        docs.set(docId, null);
+        nameTokens.set(docId, null);
+        titleTokens.set(docId, null);
+        authorTokens.set(docId, null);
+        freeDocIds.insert(docId);
+        if (queryCache != null) queryCache.onDocRemoved(docId);
+        return true;
+    }
+
+    /** The book behind a doc id returned by {@link #match}. */
+    public Book book(int docId) {
+        return docs.get(docId);
+    }
+
+    /** Doc id of an indexed book, or -1. */
+    public int docId(String bookId) {
+        Integer docId = bookId != null ? docIdsByBookId.get(bookId) : null;
+        return docId != null ? docId : -1;
+    }
+
+    /** Upper bound (exclusive) of the doc ids in use, for callers sizing per-doc arrays. */
+    public int docIdLimit() {
+        return docs.size();
+    }
+
+    /**
+     * Matching books in doc id order. An empty query matches every book. When nothing matches
+     * exactly, returns the {@link #fuzzyMatch} results instead, closest first.
+     */
+    public List<Book> search(String query) {
+        int[] ids = match(query);
+        if (ids.length == 0) ids = fuzzyMatch(query);
+        List<Book> out = new ArrayList<>(ids.length);
+        for (int id : ids) out.add(docs.get(id));
+        return out;
+    }
+
+    /**
+     * Up to {@code limit} matching books, most relevant first (see the class doc). An empty
+     * query returns books in doc id order; the fuzzy fallback keeps its own edit-count order.
+     */
+    public List<Book> rank(String query, int limit) {
+        int[] ids = topDocs(query, limit);
+        List<Book> out = new ArrayList<>(ids.length);
+        for (int id : ids) out.add(docs.get(id));
+        return out;
+    }
+
+    /** Doc ids behind {@link #rank}. */
+    public int[] topDocs(String query, int limit) {
+        if (limit <= 0) return NONE;
+        String[] tokens = queryTokens(query);
+        if (tokens.length == 0) return truncate(allDocIds(), limit);
+
+        int[] ids = matchTokens(tokens);
+        if (ids.length == 0) return truncate(fuzzyMatch(query), limit);
+
+        int n = size();
+        float avgTitle = average(titleLengthSum, n);
+        float avgAuthor = average(authorLengthSum, n);
+        float avgDescription = average(descriptionLengthSum, n);
+        float[] idf = new float[tokens.length];
+        IntList[] descriptionPostings = new IntList[tokens.length];
+        for (int t = 0; t < tokens.length; t++) {
+            int df = documentFrequency(tokens[t]);
+            idf[t] = (float) Math.log(1 + (n - df + 0.5) / (df + 0.5));
+            descriptionPostings[t] = termPostings.get(tokens[t]);
+        }
+
+        TopDocs top = new TopDocs(Math.min(limit, ids.length));
+        for (int id : ids) {
+            String[] title = titleTokens.get(id);
+            String[] author = authorTokens.get(id);
+            float titleNorm = 1 - B + B * title.length / avgTitle;
+            float authorNorm = 1 - B + B * author.length / avgAuthor;
+            float descriptionNorm = 1 - B + B * descriptionLengths[id] / avgDescription;
+            float score = 0;
+            for (int t = 0; t < idf.length; t++) {
+                String token = tokens[t];
+                float tf = TITLE_BOOST * prefixCount(title, token) / titleNorm
+                        + AUTHOR_BOOST * prefixCount(author, token) / authorNorm;
+                // Description postings record presence only, so that field's tf is 0 or 1
+                if (descriptionPostings[t] != null && descriptionPostings[t].contains(id)) {
+                    tf += DESCRIPTION_BOOST / descriptionNorm;
+                }
+                score += idf[t] * tf * (K1 + 1) / (tf + K1);
+            }
+            top.offer(id, score);
+        }
+        return top.toSortedArray();
+    }
+
+    /** Ascending doc ids of the books matching every token of {@code query}. */
+    public int[] match(String query) {
+        String[] tokens = queryTokens(query);
+        if (tokens.length == 0) return allDocIds();
+        return matchTokens(tokens);
+    }
+
+    /** Distinct normalised tokens, sorted so equal queries share a cache key. */
+    private static String[] queryTokens(String query) {
+        return new TreeSet<>(Tokenizer.tokens(query)).toArray(new String[0]);
+    }
+
+    private int[] matchTokens(String[] tokens) {
+        if (queryCache == null) return intersectCandidates(tokens);
+        String key = QueryCache.key(tokens);
+        QueryCache.CachedResult cached = queryCache.get(key);
+        if (cached != null) return cached.docs.toArray();
+        QueryCache.CachedResult base = queryCache.nearest(tokens);
+        int[] result = base != null && refineIsCheaper(base, tokens)
+                ? refine(base, tokens)
+                : intersectCandidates(tokens);
+        // A result this large could never be refined from more cheaply than reading postings
+        if ((long) result.length * REFINE_COST_RATIO < size()) queryCache.put(key, tokens, result);
+        return result;
+    }
+
+    /**
+     * Re-checking a doc costs a few string comparisons, copying a posting a few word moves, so
+     * refining pays off once the cached result is well below the postings the query would read:
+     * typically from the second query token on, rarely while the first is still short.
+     */
+    private boolean refineIsCheaper(QueryCache.CachedResult base, String[] tokens) {
+        long postingsRead = 0;
+        for (String token : tokens) postingsRead += documentFrequency(token);
+        return (long) base.docs.size() * tokens.length * REFINE_COST_RATIO < postingsRead;
+    }
+
+    private int[] intersectCandidates(String[] tokens) {
+        List<int[]> lists = new ArrayList<>(tokens.length);
+        for (String token : tokens) lists.add(candidates(token));
+        return intersect(lists);
+    }
+
+    /**
+     * Matches for {@code tokens} from a cached result that covers them. The cached result holds
+     * every doc that matches all the new tokens through its title/author, but a doc matching one
+     * of them through a whole description term may be missing: the cached query may not have
+     * had that token, or had it alongside a shorter one the doc does not match (the entry for
+     * "ha harry" covers "harry"). So the description postings of every token join the
+     * candidates before every candidate is re-checked.
+     */
+    private int[] refine(QueryCache.CachedResult base, String[] tokens) {
+        int[] candidates = base.docs.toArray();
+        for (String token : tokens) candidates = IntList.union(candidates, postings(termPostings, token));
+        IntList[] descriptions = new IntList[tokens.length];
+        for (int t = 0; t < tokens.length; t++) descriptions[t] = termPostings.get(tokens[t]);
+        int[] out = new int[candidates.length];
+        int n = 0;
+        for (int id : candidates) {
+            if (matchesAll(id, tokens, descriptions)) out[n++] = id;
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private boolean matchesAll(int docId, String[] tokens) {
+        IntList[] descriptions = new IntList[tokens.length];
+        for (int t = 0; t < tokens.length; t++) descriptions[t] = termPostings.get(tokens[t]);
+        return matchesAll(docId, tokens, descriptions);
+    }
+
+    /**
+     * Per-doc form of {@link #candidates}: each token prefixes a title/author token or is a
+     * description term. {@code descriptions[t]} holds the description postings of token t.
+     */
+    private boolean matchesAll(int docId, String[] tokens, IntList[] descriptions) {
+        String[] names = nameTokens.get(docId);
+        for (int t = 0; t < tokens.length; t++) {
+            if (!prefixesAny(names, tokens[t])
+                    && (descriptions[t] == null || !descriptions[t].contains(docId))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean prefixesAny(String[] names, String token) {
+        for (String name : names) {
+            if (name.startsWith(token)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Docs matching {@code token} in any field, for IDF and for costing a refinement. Estimated
+     * from posting sizes without materialising them: a doc matching in both name and description
+     * counts twice, and a token longer than {@link #MAX_PREFIX} counts every doc sharing its
+     * indexed prefix. Both only overstate tokens that are common anyway.
+     */
+    private int documentFrequency(String token) {
+        PrefixNode node = prefixRoot;
+        int depth = Math.min(token.length(), MAX_PREFIX);
+        for (int i = 0; i < depth && node != null; i++) node = node.child(token.charAt(i));
+        IntList description = termPostings.get(token);
+        int df = (node != null ? node.postings.size() : 0) + (description != null ? description.size() : 0);
+        return Math.min(df, size());
+    }
+
+    /** Intersection of the given ascending lists, smallest first. */
+    private static int[] intersect(List<int[]> candidateLists) {
+        List<int[]> lists = new ArrayList<>(candidateLists);
+        for (int[] l : lists) if (l.length == 0) return NONE;
+        lists.sort(Comparator.comparingInt(l -> l.length));
+        int[] result = lists.get(0);
+        for (int i = 1; i < lists.size() && result.length > 0; i++) {
+            result = IntList.intersect(result, lists.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * Doc ids where every query token either matches as in {@link #match} or is within
+     * {@link #maxEdits} of a title/author token, ordered by total edits and then doc id.
+     */
+    public int[] fuzzyMatch(String query) {
+        List<String> tokens = Tokenizer.tokens(query);
+        if (tokens.isEmpty()) return NONE;
+        Map<Integer, Integer> best = null;
+        for (String token : new LinkedHashSet<>(tokens)) {
+            Map<Integer, Integer> edits = tokenEdits(token);
+            if (best == null) {
+                best = edits;
+            } else {
+                Map<Integer, Integer> next = new HashMap<>();
+                for (Map.Entry<Integer, Integer> e : best.entrySet()) {
+                    Integer d = edits.get(e.getKey());
+                    if (d != null) next.put(e.getKey(), e.getValue() + d);
+                }
+                best = next;
+            }
+            if (best.isEmpty()) return NONE;
+        }
+        List<Map.Entry<Integer, Integer>> ranked = new ArrayList<>(best.entrySet());
+        ranked.sort((a, b) -> a.getValue().equals(b.getValue())
+                ? Integer.compare(a.getKey(), b.getKey())
+                : Integer.compare(a.getValue(), b.getValue()));
+        int[] out = new int[ranked.size()];
+        for (int i = 0; i < out.length; i++) out[i] = ranked.get(i).getKey();
+        return out;
+    }
+
+    /** Edits tolerated for a query token: none for very short tokens, at most two. */
+    static int maxEdits(int length) {
+        return length <= 2 ? 0 : length <= 5 ? 1 : 2;
+    }
+
+    /** Docs matching one normalised query token. */
+    int[] candidates(String token) {
+        int[] byName;
+        if (token.length() <= MAX_PREFIX) {
+            byName = prefixPostings(token);
+        } else {
+            byName = verifyPrefix(prefixPostings(token.substring(0, MAX_PREFIX)), token);
+        }
+        return IntList.union(byName, postings(termPostings, token));
+    }
+
+    /** Doc id -> fewest edits between {@code token} and one of the doc's terms. */
+    private Map<Integer, Integer> tokenEdits(String token) {
+        Map<Integer, Integer> edits = new HashMap<>();
+        for (int id : candidates(token)) edits.put(id, 0);
+        int max = maxEdits(token.length());
+        if (max == 0) return edits;
+        for (BkTree.Hit hit : nameTerms.search(token, max)) {
+            if (hit.distance == 0 || !nameTermCounts.containsKey(hit.term)) continue;
+            for (int id : docsWithName(hit.term)) edits.merge(id, hit.distance, Math::min);
+        }
+        return edits;
+    }
+
+    /** Docs having exactly {@code term} among their title/author tokens. */
+    private int[] docsWithName(String term) {
+        int[] ids = prefixPostings(term.length() <= MAX_PREFIX ? term : term.substring(0, MAX_PREFIX));
+        int[] out = new int[ids.length];
+        int n = 0;
+        for (int id : ids) {
+            for (String t : nameTokens.get(id)) {
+                if (t.equals(term)) {
+                    out[n++] = id;
+                    break;
+                }
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private static int prefixCount(String[] tokens, String prefix) {
+        int n = 0;
+        for (String t : tokens) if (t.startsWith(prefix)) n++;
+        return n;
+    }
+
+    private static float average(long sum, int count) {
+        return count > 0 && sum > 0 ? (float) sum / count : 1f;
+    }
+
+    private static int[] truncate(int[] ids, int limit) {
+        return ids.length <= limit ? ids : Arrays.copyOf(ids, limit);
+    }
+
+    private int[] allDocIds() {
+        int[] out = new int[size()];
+        int n = 0;
+        for (int id = 0; id < docs.size(); id++) {
+            if (docs.get(id) != null) out[n++] = id;
+        }
+        return out;
+    }
+
+    private int[] verifyPrefix(int[] ids, String token) {
+        int[] out = new int[ids.length];
+        int n = 0;
+        for (int id : ids) {
+            for (String t : nameTokens.get(id)) {
+                if (t.startsWith(token)) {
+                    out[n++] = id;
+                    break;
+                }
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    private void index(int docId, Book book) {
+        List<String> title = Tokenizer.tokens(book.title);
+        List<String> author = Tokenizer.tokens(book.author);
+        titleTokens.set(docId, title.toArray(new String[0]));
+        authorTokens.set(docId, author.toArray(new String[0]));
+        titleLengthSum += title.size();
+        authorLengthSum += author.size();
+        Set<String> names = new HashSet<>(title);
+        names.addAll(author);
+        nameTokens.set(docId, names.toArray(new String[0]));
+        for (String token : names) {
+            int[] count = nameTermCounts.get(token);
+            if (count == null) {
+                nameTermCounts.put(token, count = new int[1]);
+                nameTerms.add(token);
+            }
+            count[0]++;
+            PrefixNode node = prefixRoot;
+            int max = Math.min(token.length(), MAX_PREFIX);
+            for (int i = 0; i < max; i++) {
+                node = node.childOrCreate(token.charAt(i));
+                // Tokens sharing a prefix insert the same doc id twice; IntList keeps one
+                node.postings.insert(docId);
+            }
+        }
+        List<String> description = Tokenizer.tokens(book.description);
+        descriptionLengths[docId] = description.size();
+        descriptionLengthSum += description.size();
+        for (String term : description) {
+            IntList list = termPostings.get(term);
+            if (list == null) termPostings.put(term, list = new IntList());
+            list.insert(docId);
+        }
+    }
+
+    private void unindex(int docId) {
+        Book book = docs.get(docId);
+        titleLengthSum -= titleTokens.get(docId).length;
+        authorLengthSum -= authorTokens.get(docId).length;
+        descriptionLengthSum -= descriptionLengths[docId];
+        for (String token : nameTokens.get(docId)) {
+            int[] count = nameTermCounts.get(token);
+            if (count != null && --count[0] == 0) nameTermCounts.remove(token);
+            int max = Math.min(token.length(), MAX_PREFIX);
+            PrefixNode[] path = new PrefixNode[max + 1];
+            path[0] = prefixRoot;
+            int depth = 0;
+            while (depth < max) {
+                PrefixNode next = path[depth].child(token.charAt(depth));
+                if (next == null) break;
+                next.postings.remove(docId);
+                path[++depth] = next;
+            }
+            // A child's docs are a subset of its parent's, so emptied nodes form a tail of the
+            // path; cut them off so a churning catalog does not leave dead branches behind
+            while (depth > 0 && path[depth].isEmpty()) {
+                path[depth - 1].removeChild(token.charAt(depth - 1));
+                depth--;
+            }
+        }
+        for (String term : Tokenizer.tokens(book.description)) {
+            removePosting(termPostings, term, docId);
+        }
+        if (nameTerms.size() > 2 * nameTermCounts.size() + 64) {
+            // Mostly dead terms: rebuild so fuzzy lookups do not wade through them
+            nameTerms.clear();
+            for (String term : nameTermCounts.keySet()) nameTerms.add(term);
+        }
+    }
+
+    /** Nodes in the title/author prefix trie, root included; for tests. */
+    int prefixNodeCount() {
+        return prefixRoot.countNodes();
+    }
+
+    private int[] prefixPostings(String prefix) {
+        PrefixNode node = prefixRoot;
+        for (int i = 0; i < prefix.length() && node != null; i++) node = node.child(prefix.charAt(i));
+        return node != null ? node.postings.toArray() : NONE;
+    }
+
+    private static void removePosting(Map<String, IntList> postings, String key, int docId) {
+        IntList list = postings.get(key);
+        if (list == null) return;
+        list.remove(docId);
+        if (list.size() == 0) postings.remove(key);
+    }
+
+    private static int[] postings(Map<String, IntList> postings, String key) {
+        IntList list = postings.get(key);
+        return list != null ? list.toArray() : NONE;
+    }
+
+    /** Trie node for title/author prefixes; children are kept in a small sorted char array. */
+    private static final class PrefixNode {
+        private static final char[] NO_KEYS = new char[0];
+        private static final PrefixNode[] NO_CHILDREN = new PrefixNode[0];
+
+        final IntList postings = new IntList(1);
+        private char[] keys = NO_KEYS;
+        private PrefixNode[] children = NO_CHILDREN;
+
+        PrefixNode child(char c) {
+            int pos = Arrays.binarySearch(keys, c);
+            return pos >= 0 ? children[pos] : null;
+        }
+
+        PrefixNode childOrCreate(char c) {
+            int pos = Arrays.binarySearch(keys, c);
+            if (pos >= 0) return children[pos];
+            pos = -pos - 1;
+            PrefixNode node = new PrefixNode();
+            char[] k = new char[keys.length + 1];
+            PrefixNode[] ch = new PrefixNode[children.length + 1];
+            System.arraycopy(keys, 0, k, 0, pos);
+            System.arraycopy(children, 0, ch, 0, pos);
+            k[pos] = c;
+            ch[pos] = node;
+            System.arraycopy(keys, pos, k, pos + 1, keys.length - pos);
+            System.arraycopy(children, pos, ch, pos + 1, children.length - pos);
+            keys = k;
+            children = ch;
+            return node;
+        }
+
+        void removeChild(char c) {
+            int pos = Arrays.binarySearch(keys, c);
+            if (pos < 0) return;
+            if (keys.length == 1) {
+                keys = NO_KEYS;
+                children = NO_CHILDREN;
+                return;
+            }
+            char[] k = new char[keys.length - 1];
+            PrefixNode[] ch = new PrefixNode[children.length - 1];
+            System.arraycopy(keys, 0, k, 0, pos);
+            System.arraycopy(children, 0, ch, 0, pos);
+            System.arraycopy(keys, pos + 1, k, pos, keys.length - pos - 1);
+            System.arraycopy(children, pos + 1, ch, pos, children.length - pos - 1);
+            keys = k;
+            children = ch;
+        }
+
+        /** No docs and no children: nothing below it can match. */
+        boolean isEmpty() {
+            return postings.size() == 0 && keys.length == 0;
+        }
+
+        int countNodes() {
+            int n = 1;
+            for (PrefixNode child : children) n += child.countNodes();
+            return n;
+        }
+    }
+}
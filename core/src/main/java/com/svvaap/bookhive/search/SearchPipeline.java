@@ -0,0 +1,135 @@
+package com.svvaap.bookhive.search;
+
+import com.svvaap.bookhive.Book;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs ranked searches ({@link SearchIndex#rank}) off the UI thread. A {@link SearchIndex} is owned by one background worker; the
+ * UI submits the text as it changes and gets back only the result for the latest text:
+ * <ul>
+ *   <li>{@link #submit} waits {@code debounceMs} before querying, and a newer submit replaces a
+ *   pending one, so a burst of keystrokes costs one query;</li>
+ *   <li>every submit bumps a generation; a query that was superseded while it ran is dropped
+ *   instead of being published;</li>
+ *   <li>catalog updates are applied on the same worker, then the latest query is re-run so the
+ *   visible results never lag the catalog.</li>
+ * </ul>
+ * Results are delivered on {@code resultExecutor}, normally the main thread
+ * ({@code handler::post}). Methods may be called from any thread.
+ */
+public final class SearchPipeline {
+
+    public interface Callback {
+        /** @param results the best matching books, most relevant first; owned by the callee */
+        void onResults(String query, List<Book> results);
+    }
+
+    private final Executor resultExecutor;
+    private final long debounceMs;
+    private final ScheduledExecutorService worker;
+    private final SearchIndex index = new SearchIndex();
+
+    private final Object lock = new Object();
+    private long generation;
+    private String latestQuery;
+    private int latestLimit;
+    private Callback latestCallback;
+    private ScheduledFuture<?> pending;
+
+    public SearchPipeline(Executor resultExecutor, long debounceMs) {
+        this.resultExecutor = resultExecutor;
+        this.debounceMs = debounceMs;
+        this.worker = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "search");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Debounced query for the {@code limit} best matches; only the result of the last submit
+     * before the delay is published.
+     */
+    public void submit(String query, int limit, Callback callback) {
+        schedule(query, limit, callback, debounceMs);
+    }
+
+    /** Like {@link #submit} without the debounce, e.g. to fetch the next page of a query. */
+    public void submitNow(String query, int limit, Callback callback) {
+        schedule(query, limit, callback, 0);
+    }
+
+    /** Replaces the indexed catalog; the list is copied before this returns. */
+    public void rebuild(Collection<Book> books) {
+        final List<Book> copy = new ArrayList<>(books);
+        worker.execute(() -> index.rebuild(copy));
+        rerun();
+    }
+
+    /** Re-indexes only the named books. */
+    public void update(Collection<Book> upserts, Collection<String> removedIds) {
+        final List<Book> put = new ArrayList<>(upserts);
+        final List<String> removed = new ArrayList<>(removedIds);
+        worker.execute(() -> {
+            for (String id : removed) index.remove(id);
+            for (Book b : put) index.put(b);
+        });
+        rerun();
+    }
+
+    /** Drops any pending or running query; call when the screen goes away. */
+    public void cancel() {
+        synchronized (lock) {
+            generation++;
+            latestCallback = null;
+            if (pending != null) pending.cancel(false);
+        }
+    }
+
+    /** Cancels and stops the worker; the pipeline cannot be used afterwards. */
+    public void shutdown() {
+        cancel();
+        worker.shutdownNow();
+    }
+
+    private void rerun() {
+        synchronized (lock) {
+            if (latestCallback != null) schedule(latestQuery, latestLimit, latestCallback, 0);
+        }
+    }
+
+    private void schedule(String query, int limit, Callback callback, long delayMs) {
+        synchronized (lock) {
+            final long gen = ++generation;
+            latestQuery = query;
+            latestLimit = limit;
+            latestCallback = callback;
+            if (pending != null) pending.cancel(false);
+            pending = worker.schedule(() -> run(gen, query, limit, callback), delayMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void run(long gen, String query, int limit, Callback callback) {
+        if (!isCurrent(gen)) return;
+        final List<Book> results = index.rank(query, limit);
+        if (!isCurrent(gen)) return;
+        resultExecutor.execute(() -> {
+            // Checked again on the result thread: a newer submit may have landed in between
+            if (isCurrent(gen)) callback.onResults(query, results);
+        });
+    }
+
+    private boolean isCurrent(long gen) {
+        synchronized (lock) {
+            return gen == generation;
+        }
+    }
+}
@@ -0,0 +1,223 @@
+package com.svvaap.bookhive.search;
+
+import com.svvaap.bookhive.Book;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable, weighted autocomplete over titles and authors. Completions are whole phrases whose
+ * normalised form starts with the normalised input ("harry po" completes "Harry Potter and the
+ * Philosopher's Stone"), heaviest first.
+ *
+ * <p>Entries are stored sorted by key, so the completions of any prefix are one contiguous range.
+ * A burst trie sits on top: a node exists only for prefixes covering more than {@link #BUCKET}
+ * entries and holds that prefix's top {@link #MAX_SUGGESTIONS} precomputed; any smaller range is
+ * found by binary search and scanned. Either way a lookup touches at most a few dozen entries,
+ * whatever the catalog size, and the trie stays a small fraction of the entry count.
+ *
+ * <p>Safe to share between threads once built.
+ */
+public final class SuggestionTrie {
+    public static final int MAX_SUGGESTIONS = 8;
+    /** Ranges up to this size are scanned rather than given a trie node. */
+    static final int BUCKET = 64;
+
+    public enum Kind { TITLE, AUTHOR }
+
+    public static final class Suggestion {
+        public final String text;
+        public final Kind kind;
+        public final int weight;
+
+        Suggestion(String text, Kind kind, int weight) {
+            this.text = text;
+            this.kind = kind;
+            this.weight = weight;
+        }
+
+        @Override
+        public String toString() {
+            return text;
+        }
+    }
+
+    public static final class Builder {
+        private final Map<String, Suggestion> byKey = new HashMap<>();
+
+        /** Adds a phrase; a phrase already added under the same key gains {@code weight}. */
+        public Builder add(String text, Kind kind, int weight) {
+            if (text == null) return this;
+            String key = key(text);
+            if (key.isEmpty()) return this;
+            Suggestion existing = byKey.get(key);
+            byKey.put(key, existing == null
+                    ? new Suggestion(text.trim(), kind, weight)
+                    : new Suggestion(existing.text, existing.kind, existing.weight + weight));
+            return this;
+        }
+
+        /**
+         * Adds every title, and every author weighted by the number of their books. The catalog
+         * carries no sales or view counts, so catalog frequency stands in for popularity.
+         */
+        public Builder addCatalog(Collection<Book> books) {
+            for (Book b : books) {
+                add(b.title, Kind.TITLE, 1);
+                add(b.author, Kind.AUTHOR, 1);
+            }
+            return this;
+        }
+
+        public SuggestionTrie build() {
+            return new SuggestionTrie(byKey);
+        }
+    }
+
+    private final String[] keys;
+    private final Suggestion[] entries;
+    private final Node root;
+
+    private SuggestionTrie(Map<String, Suggestion> byKey) {
+        keys = byKey.keySet().toArray(new String[0]);
+        Arrays.sort(keys);
+        entries = new Suggestion[keys.length];
+        for (int i = 0; i < keys.length; i++) entries[i] = byKey.get(keys[i]);
+        root = build(0, keys.length, 0);
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    /** Up to {@code limit} (at most {@link #MAX_SUGGESTIONS}) completions of {@code prefix}. */
+    public List<Suggestion> complete(String prefix, int limit) {
+        limit = Math.min(limit, MAX_SUGGESTIONS);
+        String p = key(prefix);
+        if (p.isEmpty() || limit <= 0) return Collections.emptyList();
+        Node node = root;
+        int depth = 0;
+        while (node != null && depth < p.length()) {
+            Node child = node.child(p.charAt(depth));
+            if (child == null) break;
+            node = child;
+            depth++;
+        }
+        List<Suggestion> out = new ArrayList<>(limit);
+        if (node != null && depth == p.length()) {
+            for (int i = 0; i < node.top.length && i < limit; i++) out.add(entries[node.top[i]]);
+            return out;
+        }
+        // Past the trie: the remaining range is at most a bucket
+        int lo = node != null ? node.lo : 0, hi = node != null ? node.hi : keys.length;
+        int from = lowerBound(p, lo, hi);
+        int to = lowerBound(p + Character.MAX_VALUE, from, hi);
+        for (int i : topK(from, to, limit)) out.add(entries[i]);
+        return out;
+    }
+
+    private Node build(int lo, int hi, int depth) {
+        if (hi - lo <= BUCKET) return null;
+        // A node's top entries are its children's tops plus whatever is not under a child
+        // node, so each entry is scanned once, at its deepest node, rather than once per level
+        Top top = new Top(MAX_SUGGESTIONS);
+        // Keys equal to the prefix sort first; the rest group by their next char
+        int i = lo;
+        while (i < hi && keys[i].length() == depth) top.offer(i++);
+        List<Character> chars = new ArrayList<>();
+        List<Node> children = new ArrayList<>();
+        while (i < hi) {
+            char c = keys[i].charAt(depth);
+            int j = i + 1;
+            while (j < hi && keys[j].charAt(depth) == c) j++;
+            Node child = build(i, j, depth + 1);
+            if (child != null) {
+                chars.add(c);
+                children.add(child);
+                for (int t : child.top) top.offer(t);
+            } else {
+                for (int t = i; t < j; t++) top.offer(t);
+            }
+            i = j;
+        }
+        Node node = new Node(lo, hi, top.toArray());
+        node.keys = new char[chars.size()];
+        for (int k = 0; k < chars.size(); k++) node.keys[k] = chars.get(k);
+        node.children = children.toArray(new Node[0]);
+        return node;
+    }
+
+    /** Indices of the {@code k} heaviest entries in [lo, hi), heaviest first, ties by key. */
+    private int[] topK(int lo, int hi, int k) {
+        Top top = new Top(k);
+        for (int i = lo; i < hi; i++) top.offer(i);
+        return top.toArray();
+    }
+
+    /** The heaviest entry indices offered so far, heaviest first and then by key. */
+    private final class Top {
+        private final int[] slots;
+        private int n;
+
+        Top(int k) {
+            slots = new int[k];
+        }
+
+        void offer(int index) {
+            if (n == slots.length && !ahead(index, slots[n - 1])) return;
+            int pos = n < slots.length ? n++ : n - 1;
+            // Insertion into a handful of slots
+            while (pos > 0 && ahead(index, slots[pos - 1])) {
+                slots[pos] = slots[pos - 1];
+                pos--;
+            }
+            slots[pos] = index;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(slots, n);
+        }
+
+        private boolean ahead(int a, int b) {
+            int wa = entries[a].weight, wb = entries[b].weight;
+            return wa > wb || (wa == wb && a < b);
+        }
+    }
+
+    private int lowerBound(String key, int lo, int hi) {
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (keys[mid].compareTo(key) < 0) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    /** Phrases are matched on their tokens joined by single spaces. */
+    static String key(String text) {
+        return String.join(" ", Tokenizer.tokens(text));
+    }
+
+    private static final class Node {
+        final int lo, hi;
+        final int[] top;
+        char[] keys;
+        Node[] children;
+
+        Node(int lo, int hi, int[] top) {
+            this.lo = lo;
+            this.hi = hi;
+            this.top = top;
+        }
+
+        Node child(char c) {
+            int pos = Arrays.binarySearch(keys, c);
+            return pos >= 0 ? children[pos] : null;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.svvaap.bookhive.search;
+
+/**
+ * The K best-scoring doc ids seen so far, as a bounded binary min-heap on primitive arrays: the
+ * weakest kept doc sits at the root, so each offer is O(1) to reject or O(log K) to admit.
+ * Equal scores prefer the lower doc id, which keeps rankings stable between runs.
+ */
+final class TopDocs {
+    private final int[] docs;
+    private final float[] scores;
+    private int size;
+
+    TopDocs(int capacity) {
+        docs = new int[capacity];
+        scores = new float[capacity];
+    }
+
+    void offer(int doc, float score) {
+        if (docs.length == 0) return;
+        if (size < docs.length) {
+            docs[size] = doc;
+            scores[size] = score;
+            siftUp(size++);
+        } else if (weaker(docs[0], scores[0], doc, score)) {
+            docs[0] = doc;
+            scores[0] = score;
+            siftDown(0);
+        }
+    }
+
+    /** Drains the heap into an array, best first. */
+    int[] toSortedArray() {
+        int[] out = new int[size];
+        while (size > 0) {
+            out[size - 1] = docs[0];
+            size--;
+            docs[0] = docs[size];
+            scores[0] = scores[size];
+            siftDown(0);
+        }
+        return out;
+    }
+
+    /** Whether (docA, a) ranks below (docB, b). */
+    private static boolean weaker(int docA, float a, int docB, float b) {
+        return a < b || (a == b && docA > docB);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!weaker(docs[i], scores[i], docs[parent], scores[parent])) break;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) return;
+            int weakest = left;
+            int right = left + 1;
+            if (right < size && weaker(docs[right], scores[right], docs[left], scores[left])) weakest = right;
+            if (!weaker(docs[weakest], scores[weakest], docs[i], scores[i])) return;
+            swap(i, weakest);
+            i = weakest;
+        }
+    }
+
+    private void swap(int i, int j) {
+        int d = docs[i];
+        docs[i] = docs[j];
+        docs[j] = d;
+        float s = scores[i];
+        scores[i] = scores[j];
+        scores[j] = s;
+    }
+}
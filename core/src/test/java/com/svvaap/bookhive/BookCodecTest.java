@@ -0,0 +1,87 @@
+package com.svvaap.bookhive;
+
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class BookCodecTest {
+    @Test
+    public void decode_readsEveryField() {
+        Map<String, Object> v = new HashMap<>();
+        v.put("title", "Dune");
+        v.put("author", "Frank Herbert");
+        v.put("category", "Fiction");
+        v.put("language", "English");
+        v.put("description", "Spice");
+        v.put("price", 199L);
+        v.put("coverImageUrl", "c");
+        v.put("fileUrl", "f");
+        v.put("visibility", "public");
+        v.put("uploadDate", "2025-01-01T00:00:00Z");
+        v.put("updatedAt", 1735689600000L);
+
+        Book b = BookCodec.decode("book1", v);
+        assertEquals("book1", b.id);
+        assertEquals("Dune", b.title);
+        assertEquals("Frank Herbert", b.author);
+        assertEquals("Fiction", b.category);
+        assertEquals("English", b.language);
+        assertEquals("Spice", b.description);
+        assertEquals(199d, b.price, 0d);
+        assertEquals("c", b.coverImageUrl);
+        assertEquals("f", b.fileUrl);
+        assertEquals("public", b.visibility);
+        assertEquals("2025-01-01T00:00:00Z", b.uploadDate);
+        assertEquals(1735689600000L, b.updatedAt);
+    }
+
+    @Test
+    public void decode_toleratesOddTypes() {
+        Map<String, Object> v = new HashMap<>();
+        v.put("title", 1984L);
+        v.put("price", "not a price");
+        Book b = BookCodec.decode("k", v);
+        assertEquals("1984", b.title);
+        assertEquals(0d, b.price, 0d);
+        assertNull(b.author);
+    }
+
+    @Test
+    public void decode_rejectsNonMaps() {
+        assertNull(BookCodec.decode("k", null));
+        assertNull(BookCodec.decode("k", "just a string"));
+    }
+
+    @Test
+    public void decode_skipsTombstones() {
+        Map<String, Object> v = new HashMap<>();
+        v.put("deleted", true);
+        v.put("updatedAt", 42L);
+        assertTrue(BookCodec.isTombstone(v));
+        assertNull(BookCodec.decode("k", v));
+        assertEquals(42L, BookCodec.updatedAt(v));
+    }
+
+    @Test
+    public void parseDouble_matchesJdkOnPriceShapes() {
+        String[] inputs = {"0", "7", "199", " 49.99 ", "0.1", "12.345", "1.", "-5", "1e3", "99.999999999999",
+                "1234567890123456789", "", " ", "abc", "."};
+        for (String in : inputs) {
+            double expected;
+            try { expected = Double.parseDouble(in.trim()); } catch (NumberFormatException e) { expected = 0d; }
+            assertEquals(in, expected, BookCodec.parseDouble(in), 0d);
+        }
+    }
+
+    @Test
+    public void lowCardinalityValues_areShared() {
+        Map<String, Object> a = new HashMap<>();
+        a.put("category", new String("Science"));
+        Map<String, Object> b = new HashMap<>();
+        b.put("category", new String("Science"));
+        assertSame(BookCodec.decode("a", a).category, BookCodec.decode("b", b).category);
+    }
+}
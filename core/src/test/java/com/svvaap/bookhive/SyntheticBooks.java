@@ -0,0 +1,93 @@
+package com.svvaap.bookhive;
+
+import com.svvaap.bookhive.sales.SalesReport;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Catalog fixtures for JVM tests and benchmarks, shaped like {@code DataSnapshot.getValue()} on
+ * the {@code ebooks} node: string prices as UploadBookFragment writes them. Titles, authors and
+ * descriptions are drawn from a generated vocabulary that grows with the catalog, so text search
+ * sees realistic token and prefix distributions. Output is deterministic.
+ */
+public final class SyntheticBooks {
+    private static final String[] CATEGORIES = {"Self-help", "Fiction", "Non-fiction", "Science", "Biography", "Other"};
+    private static final String[] LANGUAGES = {"English", "Hindi", "French", "German", "Other"};
+    private static final String[] SYLLABLES = {
+            "ka", "ri", "mo", "ten", "sha", "lu", "vin", "dor", "el", "pa",
+            "zu", "mel", "or", "ith", "an", "bel", "cor", "dra", "fen", "gal"
+    };
+
+    private SyntheticBooks() {}
+
+    public static List<Map<String, Object>> ebookValues(int size) {
+        Random random = new Random(42);
+        int vocabulary = Math.max(2_000, size / 2);
+        List<Map<String, Object>> out = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            Map<String, Object> m = new HashMap<>();
+            m.put("title", capitalize(phrase(random, vocabulary, 2 + random.nextInt(3))));
+            m.put("author", capitalize(word(random.nextInt(300))) + " " + capitalize(word(300 + random.nextInt(3_000))));
+            m.put("category", new String(CATEGORIES[i % CATEGORIES.length]));
+            m.put("language", new String(LANGUAGES[i % LANGUAGES.length]));
+            m.put("description", capitalize(phrase(random, vocabulary, 12)) + ".");
+            m.put("price", String.valueOf(99 + i % 400));
+            m.put("coverImageUrl", "https://res.cloudinary.com/demo/image/upload/v1/covers/" + i + ".jpg");
+            m.put("fileUrl", "https://res.cloudinary.com/demo/raw/upload/v1/books/" + i + ".pdf");
+            m.put("visibility", i % 10 == 0 ? "private" : "public");
+            m.put("uploadDate", String.format("2025-%02d-%02dT10:00:00Z", 1 + i % 12, 1 + i % 28));
+            out.add(m);
+        }
+        return out;
+    }
+
+    public static List<Book> books(int size) {
+        List<Map<String, Object>> values = ebookValues(size);
+        List<Book> out = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) out.add(BookCodec.decode("book" + i, values.get(i)));
+        return out;
+    }
+
+    /**
+     * {@code count} orders over {@code books}, skewed so a few books sell far more than the rest
+     * (the square of a uniform draw favours the front of the list); about 4 in 5 are completed.
+     */
+    public static List<SalesReport.Order> orders(List<Book> books, int count) {
+        Random random = new Random(7);
+        List<SalesReport.Order> out = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            double r = random.nextDouble();
+            Book b = books.get((int) (r * r * books.size()));
+            String status = random.nextInt(5) == 0 ? "pending" : SalesReport.STATUS_COMPLETED;
+            out.add(new SalesReport.Order(b.id, b.title, b.author, b.price, status));
+        }
+        return out;
+    }
+
+    /** The {@code k}-th word of the generated vocabulary: its base-20 digits spelled as syllables. */
+    public static String word(int k) {
+        StringBuilder sb = new StringBuilder();
+        do {
+            sb.append(SYLLABLES[k % SYLLABLES.length]);
+            k /= SYLLABLES.length;
+        } while (k > 0);
+        return sb.toString();
+    }
+
+    private static String phrase(Random random, int vocabulary, int words) {
+        StringBuilder sb = new StringBuilder();
+        for (int w = 0; w < words; w++) {
+            if (w > 0) sb.append(' ');
+            sb.append(word(random.nextInt(vocabulary)));
+        }
+        return sb.toString();
+    }
+
+    private static String capitalize(String s) {
+        return Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    }
+}
@@ -0,0 +1,220 @@
+package com.svvaap.bookhive;
+
+import com.svvaap.bookhive.data.MemoryDatabase;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * A whole BookHive database for scale tests: the {@code ebooks}, {@code orders},
+ * {@code purchases}, {@code carts}, {@code users} and {@code feedbacks} trees, shaped as the
+ * fragments read them and as the app writes them (string prices on ebooks, {@code title} and
+ * {@code price} on cart items, {@code true} per purchased book).
+ *
+ * <p>Sizes and skew come from a {@link Config}. Book popularity follows a Zipf distribution over
+ * a shuffled ranking, so a few books take most of the orders, carts and feedback, and how many
+ * orders each user places follows a second one. The trees are consistent with each other:
+ * {@code purchases} and each user's {@code totalPurchases} come from their completed orders, and
+ * orders, carts and feedback copy the details of the book and user they name. Output is
+ * deterministic for a given config.
+ */
+public final class SyntheticDataset {
+
+    public static final class Config {
+        int books = 10_000;
+        int users = 2_000;
+        int orders = 20_000;
+        int feedbacks = 5_000;
+        double cartShare = 0.1;
+        int maxCartItems = 8;
+        double bookSkew = 1.0;
+        double userSkew = 0.8;
+        long seed = 42;
+
+        public Config books(int n) { books = n; return this; }
+        public Config users(int n) { users = n; return this; }
+        public Config orders(int n) { orders = n; return this; }
+        public Config feedbacks(int n) { feedbacks = n; return this; }
+        /** Share of users with something in their cart, each with 1 to {@code maxItems} books. */
+        public Config carts(double share, int maxItems) { cartShare = share; maxCartItems = maxItems; return this; }
+        /** Zipf exponent of book popularity; 0 spreads orders evenly, 1 is a typical long tail. */
+        public Config bookSkew(double s) { bookSkew = s; return this; }
+        /** Zipf exponent of how many orders each user places. */
+        public Config userSkew(double s) { userSkew = s; return this; }
+        public Config seed(long s) { seed = s; return this; }
+
+        /** {@code books} books with the other trees scaled to match: the defaults' proportions. */
+        public static Config scaled(int books) {
+            return new Config().books(books).users(Math.max(1, books / 5)).orders(books * 2).feedbacks(books / 2);
+        }
+    }
+
+    private static final String[] ORDER_STATUSES = {"completed", "completed", "completed", "completed", "pending", "cancelled"};
+    private static final String[] FEEDBACK_STATUSES = {"pending", "reviewed", "resolved"};
+    private static final String[] PAYMENT_METHODS = {"razorpay", "upi", "card"};
+    private static final long[] RATINGS = {5, 5, 5, 4, 4, 4, 3, 2, 1};
+
+    private SyntheticDataset() {}
+
+    public static String bookId(int i) {
+        return "book" + i;
+    }
+
+    public static String userId(int i) {
+        return "user" + i;
+    }
+
+    /** The six trees, keyed by their node names. */
+    public static Map<String, Object> generate(Config c) {
+        Random random = new Random(c.seed);
+        List<Map<String, Object>> books = SyntheticBooks.ebookValues(c.books);
+        Map<String, Object> ebooks = new LinkedHashMap<>();
+        for (int i = 0; i < books.size(); i++) {
+            Map<String, Object> b = books.get(i);
+            b.put("updatedAt", 1_735_689_600_000L + i * 1_000L);
+            ebooks.put(bookId(i), b);
+        }
+        Zipf popularBook = new Zipf(c.books, c.bookSkew, random);
+        Zipf activeUser = new Zipf(c.users, c.userSkew, random);
+
+        Map<String, Object> users = new LinkedHashMap<>();
+        for (int u = 0; u < c.users; u++) {
+            Map<String, Object> user = new HashMap<>();
+            String first = capitalize(SyntheticBooks.word(random.nextInt(300)));
+            String last = capitalize(SyntheticBooks.word(300 + random.nextInt(3_000)));
+            user.put("name", first + " " + last);
+            user.put("email", first.toLowerCase() + "." + last.toLowerCase() + u + "@example.com");
+            user.put("photoUrl", "");
+            user.put("status", random.nextInt(20) == 0 ? "suspended" : "active");
+            user.put("joinDate", date(2024, random));
+            user.put("totalPurchases", 0L);
+            users.put(userId(u), user);
+        }
+
+        Map<String, Object> orders = new LinkedHashMap<>();
+        Map<String, Object> purchases = new LinkedHashMap<>();
+        for (int o = 0; o < c.orders; o++) {
+            int u = activeUser.next(random);
+            int b = popularBook.next(random);
+            Map<String, Object> book = books.get(b);
+            Map<String, Object> user = cast(users.get(userId(u)));
+            String bookId = bookId(b);
+            String status = ORDER_STATUSES[random.nextInt(ORDER_STATUSES.length)];
+            Map<String, Object> order = new HashMap<>();
+            order.put("userId", userId(u));
+            order.put("userName", user.get("name"));
+            order.put("userEmail", user.get("email"));
+            order.put("bookId", bookId);
+            order.put("bookTitle", book.get("title"));
+            order.put("bookAuthor", book.get("author"));
+            order.put("bookPrice", BookCodec.asDouble(book.get("price")));
+            order.put("orderDate", date(2025, random));
+            order.put("status", status);
+            order.put("paymentMethod", PAYMENT_METHODS[random.nextInt(PAYMENT_METHODS.length)]);
+            orders.put(String.format("order%08d", o), order);
+            if ("completed".equals(status)) {
+                Map<String, Object> owned = cast(purchases.get(userId(u)));
+                if (owned == null) purchases.put(userId(u), owned = new LinkedHashMap<>());
+                if (owned.put(bookId, Boolean.TRUE) == null) {
+                    user.put("totalPurchases", (Long) user.get("totalPurchases") + 1);
+                }
+            }
+        }
+
+        Map<String, Object> carts = new LinkedHashMap<>();
+        for (int u = 0; u < c.users; u++) {
+            if (random.nextDouble() >= c.cartShare) continue;
+            Map<String, Object> cart = new LinkedHashMap<>();
+            int items = 1 + random.nextInt(Math.max(1, c.maxCartItems));
+            for (int k = 0; k < items; k++) {
+                int b = popularBook.next(random);
+                Map<String, Object> item = new HashMap<>();
+                item.put("title", books.get(b).get("title"));
+                item.put("price", BookCodec.asDouble(books.get(b).get("price")));
+                cart.put(bookId(b), item);
+            }
+            carts.put(userId(u), cart);
+        }
+
+        Map<String, Object> feedbacks = new LinkedHashMap<>();
+        for (int f = 0; f < c.feedbacks; f++) {
+            int u = activeUser.next(random);
+            int b = popularBook.next(random);
+            Map<String, Object> feedback = new HashMap<>();
+            feedback.put("userId", userId(u));
+            feedback.put("userName", cast(users.get(userId(u))).get("name"));
+            feedback.put("bookId", bookId(b));
+            feedback.put("bookTitle", books.get(b).get("title"));
+            feedback.put("comment", capitalize(SyntheticBooks.word(random.nextInt(2_000))) + " "
+                    + SyntheticBooks.word(random.nextInt(2_000)) + ".");
+            feedback.put("rating", RATINGS[random.nextInt(RATINGS.length)]);
+            feedback.put("date", date(2025, random));
+            feedback.put("status", FEEDBACK_STATUSES[random.nextInt(FEEDBACK_STATUSES.length)]);
+            feedbacks.put(String.format("feedback%08d", f), feedback);
+        }
+
+        Map<String, Object> root = new LinkedHashMap<>();
+        root.put("ebooks", ebooks);
+        root.put("orders", orders);
+        root.put("purchases", purchases);
+        root.put("carts", carts);
+        root.put("users", users);
+        root.put("feedbacks", feedbacks);
+        return root;
+    }
+
+    /** A database holding the generated trees. */
+    public static MemoryDatabase database(Config c) {
+        MemoryDatabase db = new MemoryDatabase();
+        db.set("", generate(c));
+        return db;
+    }
+
+    private static String date(int year, Random random) {
+        return String.format("%d-%02d-%02dT%02d:%02d:%02dZ", year, 1 + random.nextInt(12),
+                1 + random.nextInt(28), random.nextInt(24), random.nextInt(60), random.nextInt(60));
+    }
+
+    private static String capitalize(String s) {
+        return Character.toUpperCase(s.charAt(0)) + s.substring(1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, Object> cast(Object o) {
+        return (Map<String, Object>) o;
+    }
+
+    /** Draws 0..n-1 with probability proportional to 1 / rank^s, ranks shuffled over the indices. */
+    private static final class Zipf {
+        private final double[] cdf;
+        private final int[] byRank;
+
+        Zipf(int n, double s, Random random) {
+            cdf = new double[n];
+            double sum = 0;
+            for (int rank = 0; rank < n; rank++) {
+                sum += 1 / Math.pow(rank + 1, s);
+                cdf[rank] = sum;
+            }
+            for (int rank = 0; rank < n; rank++) cdf[rank] /= sum;
+            byRank = new int[n];
+            for (int i = 0; i < n; i++) byRank[i] = i;
+            for (int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int t = byRank[i];
+                byRank[i] = byRank[j];
+                byRank[j] = t;
+            }
+        }
+
+        int next(Random random) {
+            int rank = Arrays.binarySearch(cdf, random.nextDouble());
+            if (rank < 0) rank = -rank - 1;
+            return byRank[Math.min(rank, byRank.length - 1)];
+        }
+    }
+}
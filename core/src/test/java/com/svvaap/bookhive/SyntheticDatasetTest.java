@@ -0,0 +1,66 @@
+package com.svvaap.bookhive;
+
+import com.svvaap.bookhive.data.MemoryDatabase;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class SyntheticDatasetTest {
+    private static final SyntheticDataset.Config SMALL = new SyntheticDataset.Config()
+            .books(500).users(100).orders(2_000).feedbacks(300);
+
+    @Test
+    public void generate_isDeterministic() {
+        assertEquals(SyntheticDataset.generate(SMALL), SyntheticDataset.generate(SMALL));
+        assertNotEquals(SyntheticDataset.generate(SMALL), SyntheticDataset.generate(new SyntheticDataset.Config()
+                .books(500).users(100).orders(2_000).feedbacks(300).seed(7)));
+    }
+
+    @Test
+    public void database_holdsTheTreesTheAppReads() {
+        MemoryDatabase db = SyntheticDataset.database(SMALL);
+        assertEquals(500, db.childCount("ebooks"));
+        assertEquals(2_000, db.childCount("orders"));
+        assertEquals(100, db.childCount("users"));
+        assertEquals(300, db.childCount("feedbacks"));
+        assertTrue(db.childCount("carts") > 0);
+        // As UploadBookFragment writes it
+        assertTrue(db.get("ebooks/book3/price") instanceof String);
+        assertNotNull(BookCodec.decode("book3", db.get("ebooks/book3")));
+    }
+
+    @Test
+    public void purchases_matchCompletedOrders() {
+        MemoryDatabase db = SyntheticDataset.database(SMALL);
+        Map<?, ?> orders = (Map<?, ?>) db.get("orders");
+        for (Object value : orders.values()) {
+            Map<?, ?> order = (Map<?, ?>) value;
+            Object owned = db.get("purchases/" + order.get("userId") + "/" + order.get("bookId"));
+            if ("completed".equals(order.get("status"))) assertEquals(Boolean.TRUE, owned);
+        }
+        for (String uid : db.keys("users")) {
+            assertEquals((long) db.childCount("purchases/" + uid), db.get("users/" + uid + "/totalPurchases"));
+        }
+    }
+
+    @Test
+    public void bookSkew_concentratesOrdersOnFewBooks() {
+        Map<?, ?> skewed = (Map<?, ?>) SyntheticDataset.generate(SMALL).get("orders");
+        Map<?, ?> even = (Map<?, ?>) SyntheticDataset.generate(new SyntheticDataset.Config()
+                .books(500).users(100).orders(2_000).feedbacks(300).bookSkew(0)).get("orders");
+        assertTrue(topBookShare(skewed) > 3 * topBookShare(even));
+    }
+
+    private static double topBookShare(Map<?, ?> orders) {
+        Map<Object, Integer> perBook = new java.util.HashMap<>();
+        int top = 0;
+        for (Object value : orders.values()) {
+            int n = perBook.merge(((Map<?, ?>) value).get("bookId"), 1, Integer::sum);
+            top = Math.max(top, n);
+        }
+        return (double) top / orders.size();
+    }
+}
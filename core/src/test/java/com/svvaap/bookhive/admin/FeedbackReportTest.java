@@ -0,0 +1,77 @@
+package com.svvaap.bookhive.admin;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class FeedbackReportTest {
+
+    @Test
+    public void decode_sortsNewestFirstWithUndatedLastAndAveragesRatings() {
+        Map<String, Object> feedbacks = new LinkedHashMap<>();
+        feedbacks.put("f1", feedback("2025-01-05T10:00:00Z", 5L));
+        feedbacks.put("f2", feedback(null, "2"));
+        feedbacks.put("f3", feedback("2025-03-01T08:30:00Z", 3.5));
+        feedbacks.put("f4", feedback("2025-01-05T10:00:00Z", 1L));
+        feedbacks.put("f5", "not a feedback");
+
+        FeedbackReport report = FeedbackReport.decode(feedbacks);
+
+        assertEquals(Arrays.asList("f3", "f1", "f4", "f2"), ids(report));
+        assertEquals((5 + 2 + 3.5 + 1) / 4, report.averageRating, 1e-9);
+    }
+
+    @Test
+    public void decode_ofAMissingNodeIsEmpty() {
+        FeedbackReport report = FeedbackReport.decode(null);
+
+        assertTrue(report.feedbacks.isEmpty());
+        assertEquals(0, report.averageRating, 0);
+    }
+
+    @Test
+    public void orderAndUserRows_listEveryChildInKeyOrder() {
+        Map<String, Object> orders = new LinkedHashMap<>();
+        Map<String, Object> order = new HashMap<>();
+        order.put("bookPrice", "199");
+        order.put("status", "completed");
+        orders.put("o1", order);
+        orders.put("o2", new HashMap<>());
+        Map<String, Object> users = new LinkedHashMap<>();
+        Map<String, Object> user = new HashMap<>();
+        user.put("name", "Ann");
+        user.put("totalPurchases", 3L);
+        users.put("u1", user);
+
+        List<OrderRow> orderRows = OrderRow.list(orders);
+        List<UserRow> userRows = UserRow.list(users);
+
+        assertEquals(2, orderRows.size());
+        assertEquals("o1", orderRows.get(0).orderId);
+        assertEquals(199, orderRows.get(0).bookPrice, 1e-9);
+        assertNull(orderRows.get(1).status);
+        assertEquals("Ann", userRows.get(0).name);
+        assertEquals(3, userRows.get(0).totalPurchases);
+        assertTrue(OrderRow.list(null).isEmpty());
+    }
+
+    private static Map<String, Object> feedback(String date, Object rating) {
+        Map<String, Object> m = new HashMap<>();
+        m.put("date", date);
+        m.put("rating", rating);
+        return m;
+    }
+
+    private static List<String> ids(FeedbackReport report) {
+        List<String> ids = new ArrayList<>();
+        for (FeedbackReport.Feedback f : report.feedbacks) ids.add(f.feedbackId);
+        return ids;
+    }
+}
@@ -0,0 +1,73 @@
+package com.svvaap.bookhive.data;
+
+import com.svvaap.bookhive.Book;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Round-trip checks for the binary catalog snapshot format.
+ */
+public class CatalogSnapshotTest {
+    @Rule
+    public TemporaryFolder tmp = new TemporaryFolder();
+
+    @Test
+    public void roundTrip_preservesEveryField() throws Exception {
+        List<Book> books = new ArrayList<>();
+        books.add(new Book("book1", "Dune", "Frank Herbert", "Fiction", "English",
+                "Sand, spice and नमस्ते", 199.5, "https://c/1.jpg", "https://f/1.pdf", "public", "2025-01-02T00:00:00Z"));
+        books.add(new Book("book2", "Sapiens", "Yuval Noah Harari", "Non-fiction", "English",
+                null, 0, null, null, "private", null));
+        books.get(0).updatedAt = 1735776000123L;
+
+        File file = tmp.newFile("catalog.bin");
+        CatalogSnapshot.write(file, books);
+        CatalogSnapshot snapshot = CatalogSnapshot.open(file);
+
+        assertEquals(2, snapshot.size());
+        for (int i = 0; i < books.size(); i++) {
+            Book expected = books.get(i);
+            Book actual = snapshot.book(i, true);
+            assertEquals(expected.id, actual.id);
+            assertEquals(expected.title, actual.title);
+            assertEquals(expected.author, actual.author);
+            assertEquals(expected.category, actual.category);
+            assertEquals(expected.language, actual.language);
+            assertEquals(expected.description, actual.description);
+            assertEquals(expected.price, actual.price, 0d);
+            assertEquals(expected.coverImageUrl, actual.coverImageUrl);
+            assertEquals(expected.fileUrl, actual.fileUrl);
+            assertEquals(expected.visibility, actual.visibility);
+            assertEquals(expected.uploadDate, actual.uploadDate);
+            assertEquals(expected.updatedAt, actual.updatedAt);
+        }
+        assertNull(snapshot.book(0).description);
+        assertEquals("Dune", snapshot.title(0));
+    }
+
+    @Test
+    public void repeatedValues_areStoredOnce() {
+        List<Book> books = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            books.add(new Book("book" + i, "T", "A", "Fiction", "English", null, 1, null, null, "public", null));
+        }
+        int size = CatalogSnapshot.encode(books).remaining();
+        // 100 distinct ids + 6 shared values; records dominate
+        assertTrue(size < 100 * CatalogSnapshot.RECORD_SIZE + 100 * 16 + 200);
+    }
+
+    @Test(expected = java.io.IOException.class)
+    public void open_rejectsForeignFiles() throws Exception {
+        File file = tmp.newFile("junk.bin");
+        java.nio.file.Files.write(file.toPath(), new byte[64]);
+        CatalogSnapshot.open(file);
+    }
+}
@@ -0,0 +1,157 @@
+package com.svvaap.bookhive.data;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class InMemoryDataSourceTest {
+
+    @Test
+    public void observe_reportsTheValueNowAndOnEveryChangeUntilRemoved() {
+        InMemoryDataSource source = new InMemoryDataSource.Builder().build();
+        source.set("carts/u1/book1", item("One", 100), null);
+        List<Object> seen = new ArrayList<>();
+        BookHiveDataSource.Registration r = source.observe(BookHiveDataSource.cart("u1"), values(seen));
+
+        source.set("carts/u1/book2", item("Two", 50), null);
+        source.set("carts/u2/book9", item("Nine", 10), null);
+        source.set("carts/u1/book2", item("Two", 50), null);
+        r.remove();
+        source.set("carts/u1/book1", null, null);
+
+        assertEquals(2, seen.size());
+        assertEquals(Collections.singleton("book1"), ((Map<?, ?>) seen.get(0)).keySet());
+        assertEquals(2, ((Map<?, ?>) seen.get(1)).size());
+    }
+
+    @Test
+    public void observeChildren_reportsAddedChangedAndRemovedChildren() {
+        InMemoryDataSource source = new InMemoryDataSource.Builder().build();
+        source.set("purchases/u1/book1", true, null);
+        List<String> seen = new ArrayList<>();
+        source.observeChildren(BookHiveDataSource.purchases("u1"), new BookHiveDataSource.ChildListener() {
+            @Override
+            public void onChild(String key, Object value) {
+                seen.add(key + "=" + value);
+            }
+
+            @Override
+            public void onError(Exception error) {
+                fail();
+            }
+        });
+
+        source.set("purchases/u1/book2", true, null);
+        source.set("purchases/u1/book1", null, null);
+        Map<String, Object> replaced = new HashMap<>();
+        replaced.put("book2", true);
+        replaced.put("book3", true);
+        source.set("purchases/u1", replaced, null);
+
+        assertEquals(Arrays.asList("book1=true", "book2=true", "book1=null", "book3=true"), seen);
+    }
+
+    @Test
+    public void update_resolvesServerTimestampWithTheClock() {
+        InMemoryDataSource source = new InMemoryDataSource.Builder().clock(() -> 1234L).build();
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("visibility", "private");
+        updates.put("updatedAt", BookHiveDataSource.SERVER_TIMESTAMP);
+        source.update(BookHiveDataSource.book("b1"), updates, null);
+
+        assertEquals(1234L, source.database().get("ebooks/b1/updatedAt"));
+        assertEquals("private", source.database().get("ebooks/b1/visibility"));
+    }
+
+    @Test
+    public void failUnder_failsReadsAndWritesOnThatSubtreeOnly() {
+        InMemoryDataSource source = new InMemoryDataSource.Builder().build();
+        source.failUnder("orders");
+        List<Exception> errors = new ArrayList<>();
+        source.set("orders/o1/status", "completed", errors::add);
+        source.set("users/u1/status", "active", errors::add);
+        List<Object> values = new ArrayList<>();
+        source.get("orders", values(values, errors));
+
+        assertNotNull(errors.get(0));
+        assertNull(errors.get(1));
+        assertEquals(3, errors.size());
+        assertTrue(values.isEmpty());
+        assertNull(source.database().get("orders"));
+
+        source.clearFaults();
+        source.get("orders", values(values, errors));
+        assertEquals(1, values.size());
+    }
+
+    @Test
+    public void faultRate_failsTheSameOperationsForTheSameSeed() {
+        assertEquals(outcomes(7), outcomes(7));
+        assertNotEquals(outcomes(7), outcomes(8));
+    }
+
+    @Test
+    public void latency_keepsOperationsInOrder() throws Exception {
+        InMemoryDataSource source = new InMemoryDataSource.Builder().latency(5, 20).build();
+        List<Object> seen = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(1);
+        for (int i = 0; i < 20; i++) source.set("feedbacks/f1/rating", i, null);
+        source.get("feedbacks/f1/rating", new BookHiveDataSource.ValueListener() {
+            @Override
+            public void onValue(Object value) {
+                seen.add(value);
+                done.countDown();
+            }
+
+            @Override
+            public void onError(Exception error) {
+                done.countDown();
+            }
+        });
+        assertTrue(done.await(5, TimeUnit.SECONDS));
+        assertEquals(Collections.singletonList(19L), seen);
+        source.shutdown();
+    }
+
+    private static List<Boolean> outcomes(long seed) {
+        InMemoryDataSource source = new InMemoryDataSource.Builder().faultRate(0.3).seed(seed).build();
+        List<Boolean> out = new ArrayList<>();
+        for (int i = 0; i < 40; i++) source.set("users/u" + i + "/status", "active", e -> out.add(e == null));
+        return out;
+    }
+
+    private static BookHiveDataSource.ValueListener values(List<Object> seen) {
+        return values(seen, null);
+    }
+
+    private static BookHiveDataSource.ValueListener values(List<Object> seen, List<Exception> errors) {
+        return new BookHiveDataSource.ValueListener() {
+            @Override
+            public void onValue(Object value) {
+                seen.add(value);
+            }
+
+            @Override
+            public void onError(Exception error) {
+                if (errors == null) fail();
+                errors.add(error);
+            }
+        };
+    }
+
+    private static Map<String, Object> item(String title, double price) {
+        Map<String, Object> m = new HashMap<>();
+        m.put("title", title);
+        m.put("price", price);
+        return m;
+    }
+}
@@ -0,0 +1,85 @@
+package com.svvaap.bookhive.data;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class MemoryDatabaseTest {
+
+    @Test
+    public void set_createsParentsAndGetReadsBackByPath() {
+        MemoryDatabase db = new MemoryDatabase();
+        db.set("carts/u1/book7", item("Seven", 199));
+        db.set("carts/u1/book2", item("Two", 49.5));
+
+        assertEquals("Seven", ((Map<?, ?>) db.get("carts/u1/book7")).get("title"));
+        assertEquals(Arrays.asList("book2", "book7"), db.keys("carts/u1"));
+        assertEquals(2, db.childCount("/carts/u1/"));
+        assertNull(db.get("carts/u2"));
+        assertEquals(0, db.childCount("carts/u1/book7/title"));
+    }
+
+    @Test
+    public void set_normalizesNumbersAsTheDatabaseStoresThem() {
+        MemoryDatabase db = new MemoryDatabase();
+        db.set("carts/u1/book7", item("Seven", 199.0));
+        db.set("feedbacks/f1/rating", 4);
+        db.set("carts/u1/book8", item("Eight", 49.5));
+
+        assertEquals(199L, db.get("carts/u1/book7/price"));
+        assertEquals(4L, db.get("feedbacks/f1/rating"));
+        assertEquals(49.5, db.get("carts/u1/book8/price"));
+    }
+
+    @Test
+    public void set_nullRemovesAndPrunesEmptyParents() {
+        MemoryDatabase db = new MemoryDatabase();
+        db.set("purchases/u1/book1", true);
+        db.set("purchases/u2/book1", true);
+        db.set("purchases/u1/book1", null);
+
+        assertNull(db.get("purchases/u1"));
+        assertEquals(Collections.singletonList("u2"), db.keys("purchases"));
+        db.set("purchases/u3/book1", null);
+        assertEquals(1, db.childCount("purchases"));
+    }
+
+    @Test
+    public void get_returnsACopy() {
+        MemoryDatabase db = new MemoryDatabase();
+        db.set("carts/u1/book7", item("Seven", 199));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> read = (Map<String, Object>) db.get("carts/u1/book7");
+        read.put("title", "Changed");
+        assertEquals("Seven", db.get("carts/u1/book7/title"));
+    }
+
+    @Test
+    public void update_setsOnlyTheNamedChildren() {
+        MemoryDatabase db = new MemoryDatabase();
+        db.set("users/u1", user("Ann", "active"));
+        db.update("users/u1", Collections.singletonMap("status", "suspended"));
+
+        assertEquals("suspended", db.get("users/u1/status"));
+        assertEquals("Ann", db.get("users/u1/name"));
+    }
+
+    private static Map<String, Object> item(String title, double price) {
+        Map<String, Object> m = new HashMap<>();
+        m.put("title", title);
+        m.put("price", price);
+        return m;
+    }
+
+    private static Map<String, Object> user(String name, String status) {
+        Map<String, Object> m = new HashMap<>();
+        m.put("name", name);
+        m.put("status", status);
+        return m;
+    }
+}
@@ -0,0 +1,142 @@
+package com.svvaap.bookhive.data;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SnapshotProcessorTest {
+    private final ExecutorService workers = Executors.newFixedThreadPool(2, r -> new Thread(r, "worker"));
+    // Stands in for the main looper: results queue up until the test runs them
+    private final LinkedBlockingQueue<Runnable> mainQueue = new LinkedBlockingQueue<>();
+    private final SnapshotProcessor processor = new SnapshotProcessor(workers, mainQueue::add);
+
+    @After
+    public void tearDown() {
+        workers.shutdownNow();
+    }
+
+    @Test
+    public void observe_buildsOnAWorkerAndDeliversOnTheResultExecutor() throws Exception {
+        InMemoryDataSource source = new InMemoryDataSource.Builder().build();
+        source.set("feedbacks/f1/rating", 4L, null);
+        List<String> builtOn = Collections.synchronizedList(new ArrayList<>());
+        List<Integer> results = new ArrayList<>();
+
+        processor.observe(source, BookHiveDataSource.FEEDBACKS, value -> {
+            builtOn.add(Thread.currentThread().getName());
+            return ((Map<?, ?>) value).size();
+        }, collect(results));
+        runNextResult();
+        source.set("feedbacks/f2/rating", 5L, null);
+        runNextResult();
+
+        assertEquals(java.util.Arrays.asList(1, 2), results);
+        assertEquals(java.util.Arrays.asList("worker", "worker"), builtOn);
+    }
+
+    @Test
+    public void observe_skipsSnapshotsSupersededWhileBusy() throws Exception {
+        InMemoryDataSource source = new InMemoryDataSource.Builder().build();
+        source.set("orders/o0/status", "pending", null);
+        CountDownLatch building = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Integer> results = new ArrayList<>();
+
+        processor.observe(source, BookHiveDataSource.ORDERS, value -> {
+            int size = ((Map<?, ?>) value).size();
+            if (size == 1) {
+                building.countDown();
+                await(release);
+            }
+            return size;
+        }, collect(results));
+        assertTrue(building.await(5, TimeUnit.SECONDS));
+        // Three changes land while the first snapshot is still being built
+        for (int i = 1; i <= 3; i++) source.set("orders/o" + i + "/status", "pending", null);
+        release.countDown();
+        runNextResult();
+        runNextResult();
+
+        assertEquals(java.util.Arrays.asList(1, 4), results);
+        assertNull(mainQueue.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void remove_dropsResultsAlreadyOnTheirWay() throws Exception {
+        InMemoryDataSource source = new InMemoryDataSource.Builder().build();
+        source.set("users/u1/name", "Ann", null);
+        List<Integer> results = new ArrayList<>();
+        BookHiveDataSource.Registration r = processor.observe(source, BookHiveDataSource.USERS,
+                value -> ((Map<?, ?>) value).size(), collect(results));
+        Runnable pending = mainQueue.poll(5, TimeUnit.SECONDS);
+
+        r.remove();
+        pending.run();
+        source.set("users/u2/name", "Bo", null);
+
+        assertTrue(results.isEmpty());
+        assertNull(mainQueue.poll(200, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void observe_reportsBuildFailuresAsErrors() throws Exception {
+        InMemoryDataSource source = new InMemoryDataSource.Builder().build();
+        List<Exception> errors = new ArrayList<>();
+        processor.observe(source, BookHiveDataSource.ORDERS, value -> {
+            throw new IllegalStateException("bad snapshot");
+        }, new SnapshotProcessor.Listener<Object>() {
+            @Override
+            public void onResult(Object model) {
+                fail();
+            }
+
+            @Override
+            public void onError(Exception error) {
+                errors.add(error);
+            }
+        });
+        runNextResult();
+
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0) instanceof IllegalStateException);
+    }
+
+    private void runNextResult() throws InterruptedException {
+        Runnable result = mainQueue.poll(5, TimeUnit.SECONDS);
+        assertNotNull("no result was posted", result);
+        result.run();
+    }
+
+    private static <T> SnapshotProcessor.Listener<T> collect(List<T> results) {
+        return new SnapshotProcessor.Listener<T>() {
+            @Override
+            public void onResult(T model) {
+                results.add(model);
+            }
+
+            @Override
+            public void onError(Exception error) {
+                fail(error.toString());
+            }
+        };
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
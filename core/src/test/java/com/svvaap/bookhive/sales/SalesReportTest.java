@@ -0,0 +1,58 @@
+package com.svvaap.bookhive.sales;
+
+import com.svvaap.bookhive.sales.SalesReport.BookSale;
+import com.svvaap.bookhive.sales.SalesReport.Order;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class SalesReportTest {
+
+    @Test
+    public void of_groupsCompletedOrdersByBookAndRanksByRevenue() {
+        SalesReport report = SalesReport.of(Arrays.asList(
+                new Order("b1", "One", "Ann", 100, "completed"),
+                new Order("b2", "Two", "Bo", 300, "Completed"),
+                new Order("b1", "One", "Ann", 100, "completed"),
+                new Order("b3", "Three", "Cy", 500, "pending"),
+                null,
+                new Order("b1", "One", "Ann", 150, "completed")));
+
+        assertEquals(4, report.totalOrders);
+        assertEquals(650, report.totalRevenue, 1e-9);
+        assertEquals(2, report.books.size());
+        BookSale first = report.books.get(0);
+        assertEquals("b1", first.bookId);
+        assertEquals(3, first.salesCount);
+        assertEquals(350, first.revenue, 1e-9);
+        assertEquals(1, first.rank);
+        assertEquals("b2", report.books.get(1).bookId);
+        assertEquals(2, report.books.get(1).rank);
+    }
+
+    @Test
+    public void of_keepsTiesInOrderOfFirstSaleAndOrdersWithoutBookApart() {
+        SalesReport report = SalesReport.of(Arrays.asList(
+                new Order(null, "Lost", null, 200, "completed"),
+                new Order("b2", "Two", "Bo", 200, "completed"),
+                new Order(null, "Lost", null, 200, "completed")));
+
+        assertEquals(3, report.books.size());
+        assertNull(report.books.get(0).bookId);
+        assertEquals("b2", report.books.get(1).bookId);
+        assertNull(report.books.get(2).bookId);
+        assertEquals(1, report.books.get(2).salesCount);
+    }
+
+    @Test
+    public void of_noCompletedOrders_isEmpty() {
+        SalesReport report = SalesReport.of(Collections.singletonList(new Order("b1", "One", "Ann", 100, null)));
+        assertTrue(report.books.isEmpty());
+        assertEquals(0, report.totalOrders);
+        assertEquals(0, report.totalRevenue, 0);
+    }
+}
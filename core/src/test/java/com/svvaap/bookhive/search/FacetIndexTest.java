@@ -0,0 +1,80 @@
+package com.svvaap.bookhive.search;
+
+import com.svvaap.bookhive.Book;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class FacetIndexTest {
+    private FacetIndex facets;
+
+    @Before
+    public void setUp() {
+        facets = new FacetIndex(Arrays.asList(
+                book("b1", "Fiction", "English", "public", 0),
+                book("b2", "fiction", "Hindi", "public", 149),
+                book("b3", "Science", "English", "private", 99),
+                book("b4", "Science", "English", "public", 650),
+                book("b5", null, "French", "public", 300)));
+    }
+
+    @Test
+    public void select_isCaseInsensitiveAndOrsValuesWithinAField() {
+        assertEquals(Arrays.asList("b1", "b2"), ids(facets.select(FacetIndex.Field.CATEGORY, Collections.singletonList("FICTION"))));
+        assertEquals(Arrays.asList("b1", "b2", "b3", "b4"),
+                ids(facets.select(FacetIndex.Field.CATEGORY, Arrays.asList("Fiction", "Science"))));
+        assertEquals(Arrays.asList("b5"), ids(facets.select(FacetIndex.Field.CATEGORY, Collections.singletonList(""))));
+        assertTrue(facets.select(FacetIndex.Field.CATEGORY, Collections.singletonList("Poetry")).isEmpty());
+        assertEquals(5, facets.select(FacetIndex.Field.CATEGORY, Collections.<String>emptyList()).cardinality());
+    }
+
+    @Test
+    public void select_andsAcrossFields() {
+        Map<FacetIndex.Field, List<String>> filter = new EnumMap<>(FacetIndex.Field.class);
+        filter.put(FacetIndex.Field.LANGUAGE, Collections.singletonList("english"));
+        filter.put(FacetIndex.Field.VISIBILITY, Collections.singletonList("public"));
+        assertEquals(Arrays.asList("b1", "b4"), ids(facets.select(filter)));
+        filter.put(FacetIndex.Field.PRICE_BAND, Arrays.asList(FacetIndex.BAND_FREE, FacetIndex.BAND_UNDER_100));
+        assertEquals(Arrays.asList("b1"), ids(facets.select(filter)));
+    }
+
+    @Test
+    public void counts_followTheCurrentSelection() {
+        assertEquals(2, facets.count(FacetIndex.Field.CATEGORY, "Science", null));
+        BitSet english = facets.select(FacetIndex.Field.LANGUAGE, Collections.singletonList("English"));
+        Map<String, Integer> counts = facets.counts(FacetIndex.Field.CATEGORY, english);
+        assertEquals(Integer.valueOf(1), counts.get("fiction"));
+        assertEquals(Integer.valueOf(2), counts.get("science"));
+        assertFalse(counts.containsKey(""));
+        assertEquals(2, facets.books(english, 2).size());
+    }
+
+    @Test
+    public void priceBands() {
+        assertEquals(FacetIndex.BAND_FREE, FacetIndex.priceBand(0));
+        assertEquals(FacetIndex.BAND_UNDER_100, FacetIndex.priceBand(99.5));
+        assertEquals(FacetIndex.BAND_100_TO_299, FacetIndex.priceBand(100));
+        assertEquals(FacetIndex.BAND_300_TO_499, FacetIndex.priceBand(499));
+        assertEquals(FacetIndex.BAND_500_PLUS, FacetIndex.priceBand(500));
+    }
+
+    private List<String> ids(BitSet selection) {
+        List<String> out = new ArrayList<>();
+        for (Book b : facets.books(selection, Integer.MAX_VALUE)) out.add(b.id);
+        return out;
+    }
+
+    private static Book book(String id, String category, String language, String visibility, double price) {
+        return new Book(id, id, "Anon", category, language, null, price, null, null, visibility, null);
+    }
+}
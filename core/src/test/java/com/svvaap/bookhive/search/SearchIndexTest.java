@@ -0,0 +1,239 @@
+package com.svvaap.bookhive.search;
+
+import com.svvaap.bookhive.Book;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class SearchIndexTest {
+    private SearchIndex index;
+
+    @Before
+    public void setUp() {
+        index = new SearchIndex();
+        index.put(book("b1", "Harry Potter and the Philosopher's Stone", "J. K. Rowling", "A boy wizard."));
+        index.put(book("b2", "Sapiens", "Yuval Noah Harari", "A brief history of humankind."));
+        index.put(book("b3", "Wuthering Heights", "Emily Brontë", "Moorland passion."));
+    }
+
+    @Test
+    public void titleAndAuthorPrefixes_match() {
+        assertEquals(Arrays.asList("b1", "b2"), ids(index.search("har")));
+        assertEquals(Arrays.asList("b1"), ids(index.search("Pott")));
+        assertEquals(Arrays.asList("b2"), ids(index.search("yuval")));
+    }
+
+    @Test
+    public void everyQueryToken_mustMatch() {
+        assertEquals(Arrays.asList("b1"), ids(index.search("harry rowl")));
+        assertTrue(index.search("harry sapiens").isEmpty());
+    }
+
+    @Test
+    public void descriptionTokens_matchWhole() {
+        assertEquals(Arrays.asList("b2"), ids(index.search("humankind")));
+        assertTrue(index.search("humank").isEmpty());
+    }
+
+    @Test
+    public void accentsAndCase_areFolded() {
+        assertEquals(Arrays.asList("b3"), ids(index.search("BRONTE")));
+    }
+
+    @Test
+    public void emptyQuery_matchesEverything() {
+        assertEquals(3, index.search("  ").size());
+    }
+
+    @Test
+    public void tokensLongerThanMaxPrefix_areVerified() {
+        index.put(book("b4", "Supercalifragilistic", "Anon", null));
+        index.put(book("b5", "Supercalifragile", "Anon", null));
+        assertEquals(Arrays.asList("b4"), ids(index.search("supercalifragilis")));
+        assertEquals(2, index.search("supercalifrag").size());
+    }
+
+    @Test
+    public void updatesAreIncremental() {
+        index.put(book("b2", "Homo Deus", "Yuval Noah Harari", null));
+        assertTrue(index.search("sapiens").isEmpty());
+        assertEquals(Arrays.asList("b2"), ids(index.search("deus")));
+
+        assertTrue(index.remove("b1"));
+        assertEquals(Arrays.asList("b2"), ids(index.search("har")));
+        assertEquals(2, index.size());
+
+        // The freed doc id is reused
+        index.put(book("b6", "Harry Again", "Someone", null));
+        assertEquals(Arrays.asList("b6", "b2"), ids(index.search("har")));
+    }
+
+    @Test
+    public void removedDocs_leaveNoDeadPrefixBranches() {
+        int before = index.prefixNodeCount();
+        index.put(book("b4", "Quixotic Zephyrs", "Xavier Jumbleworth", null));
+        index.put(book("b5", "Harrowing", "Anon", null));
+        assertTrue(index.prefixNodeCount() > before);
+
+        assertTrue(index.remove("b4"));
+        assertTrue(index.remove("b5"));
+        assertEquals(before, index.prefixNodeCount());
+        // Shared prefixes still lead to the docs left
+        assertEquals(Arrays.asList("b1", "b2"), ids(index.search("har")));
+    }
+
+    @Test
+    public void misspelledNames_fallBackToNearMatches() {
+        assertEquals(Arrays.asList("b1"), ids(index.search("rowlnig")));
+        assertEquals(Arrays.asList("b2"), ids(index.search("yuvl harai")));
+        // Exact matches win; the fallback only runs when nothing matches as typed
+        index.put(book("b4", "Harri", "Anon", null));
+        assertEquals(Arrays.asList("b4"), ids(index.search("harri")));
+        assertEquals(Arrays.asList("b1", "b4"), ids(index.search("harryy")));
+        // Short tokens are never fuzzed
+        assertTrue(index.search("xy").isEmpty());
+    }
+
+    @Test
+    public void fuzzyMatches_areRankedByTotalEdits() {
+        index.put(book("b4", "Potts", "Anon", null));
+        index.put(book("b5", "Pottery", "Anon", null));
+        int[] ranked = index.fuzzyMatch("pottr");
+        assertEquals("b1", index.book(ranked[0]).id);
+        assertEquals(2, ranked.length);
+        assertEquals("b4", index.book(ranked[1]).id);
+    }
+
+    @Test
+    public void removedNames_areNotSuggested() {
+        index.remove("b1");
+        assertTrue(index.search("rowlnig").isEmpty());
+    }
+
+    @Test
+    public void bkTree_findsTermsWithinTheEditBound() {
+        BkTree tree = new BkTree();
+        for (String t : new String[]{"rowling", "rolling", "bowling", "harari", "brontë", "potter"}) tree.add(t);
+        assertFalse(tree.add("potter"));
+        List<String> hits = new ArrayList<>();
+        for (BkTree.Hit h : tree.search("rowlin", 1)) hits.add(h.term + h.distance);
+        java.util.Collections.sort(hits);
+        assertEquals(Arrays.asList("rowling1"), hits);
+        hits.clear();
+        for (BkTree.Hit h : tree.search("rowlin", 2)) hits.add(h.term + h.distance);
+        java.util.Collections.sort(hits);
+        assertEquals(Arrays.asList("bowling2", "rolling2", "rowling1"), hits);
+        assertEquals(3, BkTree.distance("kitten", "sitting", 10));
+    }
+
+    @Test
+    public void rank_prefersTitleOverAuthorOverDescription() {
+        index.put(book("b4", "Moorland", "Anon", "A walk on the moor."));
+        index.put(book("b5", "Walks", "Moorland Smith", null));
+        index.put(book("b6", "The Complete Guide to Gardening", "Anon", "Moorland gardens and more."));
+        assertEquals(Arrays.asList("b4", "b5", "b3", "b6"), ids(index.rank("moorland", 10)));
+        // Longer titles dilute a title hit
+        index.put(book("b7", "Moorland Birds of the Northern Uplands", "Anon", null));
+        List<String> ranked = ids(index.rank("moorland", 10));
+        assertEquals("b4", ranked.get(0));
+        assertTrue(ranked.indexOf("b7") > 0);
+    }
+
+    @Test
+    public void rank_rarerTokensWeighMore() {
+        index.put(book("b4", "Quill", "Common", null));
+        index.put(book("b5", "Common", "Quill", null));
+        for (int i = 6; i < 10; i++) index.put(book("b" + i, "Common Ground " + i, "Anon", null));
+        // Both match in the same field shapes; the rare token's hit is in the heavier field in b4
+        assertEquals(Arrays.asList("b4", "b5"), ids(index.rank("quill common", 10)));
+    }
+
+    @Test
+    public void rank_keepsOnlyTheTopK_inScoreOrder() {
+        TopDocs top = new TopDocs(3);
+        float[] scores = {0.5f, 2f, 1f, 3f, 0.1f, 2f};
+        for (int doc = 0; doc < scores.length; doc++) top.offer(doc, scores[doc]);
+        assertArrayEquals(new int[]{3, 1, 5}, top.toSortedArray());
+        assertEquals(0, index.rank("har", 0).size());
+        assertEquals(Arrays.asList("b1"), ids(index.rank("", 1)));
+        assertEquals(Arrays.asList("b1"), ids(index.rank("rowlnig", 5)));
+    }
+
+    @Test
+    public void refinedQueries_includeDescriptionOnlyMatchesOfTheLongerToken() {
+        index.put(book("b4", "Travels", "Anon", "The wizard harr of the north."));
+        assertEquals(Arrays.asList("b1", "b2"), ids(index.search("har")));
+        assertEquals(Arrays.asList("b1", "b4"), ids(index.search("harr")));
+        assertEquals(Arrays.asList("b1"), ids(index.search("harr pot")));
+    }
+
+    @Test
+    public void refinedQueries_fromAnEntryWhoseTokensShareOneQueryToken_keepDescriptionMatches() {
+        SearchIndex cached = new SearchIndex();
+        SearchIndex uncached = new SearchIndex(0);
+        List<Book> books = new ArrayList<>();
+        books.add(book("hat", "Hat", "Anon", "harry"));
+        for (int i = 0; i < 200; i++) books.add(book("zed" + i, "Zed", "Anon", "harry"));
+        cached.rebuild(books);
+        uncached.rebuild(books);
+
+        // Both tokens of "ha harry" prefix "harry", so that entry is a candidate base for it
+        assertArrayEquals(uncached.match("ha harry"), cached.match("ha harry"));
+        assertEquals(201, cached.match("harry").length);
+        assertArrayEquals(uncached.match("harry"), cached.match("harry"));
+    }
+
+    @Test
+    public void queryCache_agreesWithUncachedMatching_acrossTypingAndUpdates() {
+        List<Book> books = com.svvaap.bookhive.SyntheticBooks.books(3_000);
+        SearchIndex cached = new SearchIndex();
+        SearchIndex uncached = new SearchIndex(0);
+        cached.rebuild(books.subList(0, 2_000));
+        uncached.rebuild(books.subList(0, 2_000));
+        java.util.Random random = new java.util.Random(5);
+        for (int round = 0; round < 300; round++) {
+            Book b = books.get(random.nextInt(2_000));
+            String text = (random.nextBoolean() ? b.title : b.author) + " "
+                    + b.description.split(" ")[random.nextInt(3)];
+            // Type it out, checking every keystroke
+            for (int i = 1; i <= text.length(); i += 1 + random.nextInt(3)) {
+                String query = text.substring(0, i);
+                assertArrayEquals(query, uncached.match(query), cached.match(query));
+            }
+            Book changed = books.get(2_000 + random.nextInt(1_000));
+            changed = new Book(b.id, changed.title, changed.author, changed.category, changed.language,
+                    changed.description, changed.price, null, null, "public", null);
+            cached.put(changed);
+            uncached.put(changed);
+            String gone = books.get(random.nextInt(2_000)).id;
+            cached.remove(gone);
+            uncached.remove(gone);
+        }
+    }
+
+    @Test
+    public void intersect_gallopsToTheSameAnswerAsAMerge() {
+        int[] small = {3, 500, 999, 1500};
+        int[] large = new int[1000];
+        for (int i = 0; i < large.length; i++) large[i] = i;
+        assertArrayEquals(new int[]{3, 500, 999}, IntList.intersect(small, large));
+        assertArrayEquals(new int[]{3, 500, 999}, IntList.intersect(large, small));
+        assertArrayEquals(new int[]{1, 2, 3, 5}, IntList.union(new int[]{1, 3}, new int[]{2, 3, 5}));
+    }
+
+    private static Book book(String id, String title, String author, String description) {
+        return new Book(id, title, author, "Fiction", "English", description, 0, null, null, "public", null);
+    }
+
+    private static List<String> ids(List<Book> books) {
+        List<String> out = new ArrayList<>();
+        for (Book b : books) out.add(b.id);
+        return out;
+    }
+}
@@ -0,0 +1,96 @@
+package com.svvaap.bookhive.search;
+
+import com.svvaap.bookhive.Book;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.*;
+
+public class SearchPipelineTest {
+    private final LinkedBlockingQueue<Runnable> mainQueue = new LinkedBlockingQueue<>();
+    private final List<String> delivered = new ArrayList<>();
+    private final SearchPipeline.Callback callback = (query, results) ->
+            delivered.add(query + "=" + ids(results));
+    private SearchPipeline pipeline;
+
+    @Before
+    public void setUp() {
+        // Results are queued here and run by the test, standing in for the main looper
+        pipeline = new SearchPipeline(mainQueue::add, 50);
+        pipeline.rebuild(Arrays.asList(
+                book("b1", "Harry Potter", "J. K. Rowling"),
+                book("b2", "Sapiens", "Yuval Noah Harari")));
+    }
+
+    @After
+    public void tearDown() {
+        pipeline.shutdown();
+    }
+
+    @Test
+    public void burstOfKeystrokes_publishesOnlyTheLastQuery() throws Exception {
+        pipeline.submit("h", 10, callback);
+        pipeline.submit("ha", 10, callback);
+        pipeline.submit("harr", 10, callback);
+        drainMain(1);
+        assertEquals(Collections.singletonList("harr=[b1]"), delivered);
+        assertTrue(mainQueue.poll(200, TimeUnit.MILLISECONDS) == null);
+    }
+
+    @Test
+    public void resultSupersededBeforeDelivery_isDropped() throws Exception {
+        pipeline.submitNow("sap", 10, callback);
+        Runnable stale = mainQueue.poll(2, TimeUnit.SECONDS);
+        assertNotNull(stale);
+        pipeline.submitNow("harari", 10, callback);
+        stale.run();
+        drainMain(1);
+        assertEquals(Collections.singletonList("harari=[b2]"), delivered);
+    }
+
+    @Test
+    public void catalogUpdate_rerunsTheLatestQuery() throws Exception {
+        pipeline.submitNow("har", 10, callback);
+        drainMain(1);
+        pipeline.update(Collections.singletonList(book("b3", "Harvest", "Anon")),
+                Collections.singletonList("b2"));
+        drainMain(1);
+        // Results are ranked: a title hit beats an author hit, a one-word title beats a longer one
+        assertEquals(Arrays.asList("har=[b1, b2]", "har=[b3, b1]"), delivered);
+    }
+
+    @Test
+    public void cancel_suppressesThePendingQuery() throws Exception {
+        pipeline.submit("har", 10, callback);
+        pipeline.cancel();
+        assertTrue(mainQueue.poll(200, TimeUnit.MILLISECONDS) == null);
+        assertTrue(delivered.isEmpty());
+    }
+
+    private void drainMain(int expected) throws InterruptedException {
+        for (int i = 0; i < expected; i++) {
+            Runnable r = mainQueue.poll(2, TimeUnit.SECONDS);
+            assertNotNull("no result delivered", r);
+            r.run();
+        }
+    }
+
+    private static Book book(String id, String title, String author) {
+        return new Book(id, title, author, "Fiction", "English", null, 0, null, null, "public", null);
+    }
+
+    private static List<String> ids(List<Book> books) {
+        List<String> out = new ArrayList<>();
+        for (Book b : books) out.add(b.id);
+        return out;
+    }
+}
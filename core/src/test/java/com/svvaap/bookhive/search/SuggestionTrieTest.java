@@ -0,0 +1,93 @@
+package com.svvaap.bookhive.search;
+
+import com.svvaap.bookhive.Book;
+import com.svvaap.bookhive.SyntheticBooks;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SuggestionTrieTest {
+
+    @Test
+    public void completesTitlesAndAuthors_heaviestFirst() {
+        SuggestionTrie trie = new SuggestionTrie.Builder()
+                .add("Harry Potter and the Philosopher's Stone", SuggestionTrie.Kind.TITLE, 1)
+                .add("Harry Potter and the Chamber of Secrets", SuggestionTrie.Kind.TITLE, 5)
+                .add("Yuval Noah Harari", SuggestionTrie.Kind.AUTHOR, 3)
+                .add("Harper Lee", SuggestionTrie.Kind.AUTHOR, 2)
+                .build();
+        assertEquals(Arrays.asList("Harry Potter and the Chamber of Secrets", "Harper Lee",
+                "Harry Potter and the Philosopher's Stone"), texts(trie.complete("har", 8)));
+        assertEquals(Arrays.asList("Harry Potter and the Philosopher's Stone"),
+                texts(trie.complete("HARRY  potter and the phil", 8)));
+        assertEquals(Arrays.asList("Yuval Noah Harari"), texts(trie.complete("yuval", 8)));
+        assertTrue(trie.complete("potter", 8).isEmpty());
+        assertTrue(trie.complete("", 8).isEmpty());
+    }
+
+    @Test
+    public void repeatedPhrases_accumulateWeight() {
+        List<Book> books = Arrays.asList(
+                book("Emma", "Jane Austen"), book("Persuasion", "Jane Austen"), book("Jane Eyre", "Charlotte Brontë"));
+        SuggestionTrie trie = new SuggestionTrie.Builder().addCatalog(books).build();
+        List<SuggestionTrie.Suggestion> jane = trie.complete("jane", 8);
+        assertEquals(Arrays.asList("Jane Austen", "Jane Eyre"), texts(jane));
+        assertEquals(SuggestionTrie.Kind.AUTHOR, jane.get(0).kind);
+        assertEquals(2, jane.get(0).weight);
+    }
+
+    @Test
+    public void trieAndBucketLookups_agreeWithABruteForceScan() {
+        List<Book> books = SyntheticBooks.books(20_000);
+        SuggestionTrie trie = new SuggestionTrie.Builder().addCatalog(books).build();
+        List<SuggestionTrie.Suggestion> all = trie.complete("", 0);
+        assertTrue(all.isEmpty());
+
+        java.util.Map<String, Integer> weights = new java.util.HashMap<>();
+        for (Book b : books) {
+            weights.merge(SuggestionTrie.key(b.title), 1, Integer::sum);
+            weights.merge(SuggestionTrie.key(b.author), 1, Integer::sum);
+        }
+        Random random = new Random(3);
+        for (int i = 0; i < 500; i++) {
+            Book b = books.get(random.nextInt(books.size()));
+            String phrase = random.nextBoolean() ? b.title : b.author;
+            String prefix = phrase.substring(0, 1 + random.nextInt(phrase.length()));
+            assertEquals(prefix, bruteForce(weights, prefix), weightsAndKeys(trie.complete(prefix, 8)));
+        }
+    }
+
+    /** Expected "weight:key" of the top 8 completions, heaviest first and then by key. */
+    private static List<String> bruteForce(java.util.Map<String, Integer> weights, String prefix) {
+        String p = SuggestionTrie.key(prefix);
+        List<String> keys = new ArrayList<>();
+        for (String k : weights.keySet()) if (k.startsWith(p)) keys.add(k);
+        keys.sort((x, y) -> weights.get(x).equals(weights.get(y))
+                ? x.compareTo(y) : Integer.compare(weights.get(y), weights.get(x)));
+        List<String> out = new ArrayList<>();
+        for (int i = 0; i < keys.size() && i < 8; i++) out.add(weights.get(keys.get(i)) + ":" + keys.get(i));
+        return out;
+    }
+
+    private static List<String> weightsAndKeys(List<SuggestionTrie.Suggestion> suggestions) {
+        List<String> out = new ArrayList<>();
+        for (SuggestionTrie.Suggestion s : suggestions) out.add(s.weight + ":" + SuggestionTrie.key(s.text));
+        return out;
+    }
+
+    private static List<String> texts(List<SuggestionTrie.Suggestion> suggestions) {
+        List<String> out = new ArrayList<>();
+        for (SuggestionTrie.Suggestion s : suggestions) out.add(s.text);
+        return out;
+    }
+
+    private static Book book(String title, String author) {
+        return new Book(null, title, author, "Fiction", "English", null, 0, null, null, "public", null);
+    }
+}
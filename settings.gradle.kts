@@ -21,3 +21,4 @@ dependencyResolutionManagement {
 
 rootProject.name = "BookHive"
 include(":app")
+include(":core")